@@ -0,0 +1,34 @@
+@echo off
+echo ========================================
+echo      CCRM - JMH Benchmarks
+echo ========================================
+echo.
+
+rem Needs the JMH jars in benchmarks\lib: jmh-core, jmh-generator-annprocess,
+rem jopt-simple and commons-math3. The annotation processor in
+rem jmh-generator-annprocess generates the benchmark harness during javac.
+if not exist lib\jmh-core-*.jar (
+    echo JMH jars not found in benchmarks\lib
+    pause
+    exit /b 1
+)
+
+echo Compiling application and benchmark sources...
+dir /s /b ..\src\main\java\*.java src\main\java\*.java > benchmark-sources.txt
+if not exist classes mkdir classes
+javac -cp "lib\*" -d classes @benchmark-sources.txt
+if %errorlevel% neq 0 (
+    echo Compilation failed.
+    pause
+    exit /b %errorlevel%
+)
+echo Compilation successful.
+echo.
+
+rem Extra arguments go to JMH, e.g. "StudentService -p students=10000" or "-lprof"
+echo Running benchmarks...
+java -cp "classes;lib\*" org.openjdk.jmh.Main %*
+
+echo.
+echo Benchmarks finished.
+pause
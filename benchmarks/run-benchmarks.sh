@@ -0,0 +1,33 @@
+#!/bin/sh
+# Unix counterpart of run-benchmarks.bat; run it from the benchmarks directory.
+echo "========================================"
+echo "     CCRM - JMH Benchmarks"
+echo "========================================"
+echo
+
+# Needs the JMH jars in benchmarks/lib: jmh-core, jmh-generator-annprocess,
+# jopt-simple and commons-math3. The annotation processor in
+# jmh-generator-annprocess generates the benchmark harness during javac.
+if ! ls lib/jmh-core-*.jar >/dev/null 2>&1; then
+    echo "JMH jars not found in benchmarks/lib"
+    exit 1
+fi
+
+echo "Compiling application and benchmark sources..."
+find ../src/main/java src/main/java -name '*.java' > benchmark-sources.txt
+mkdir -p classes
+if ! javac -cp 'lib/*' -d classes @benchmark-sources.txt; then
+    echo "Compilation failed."
+    exit 1
+fi
+echo "Compilation successful."
+echo
+
+# Extra arguments go to JMH, e.g. "StudentService -p students=10000" or "-lprof"
+echo "Running benchmarks..."
+java -cp 'classes:lib/*' org.openjdk.jmh.Main "$@"
+status=$?
+
+echo
+echo "Benchmarks finished."
+exit $status
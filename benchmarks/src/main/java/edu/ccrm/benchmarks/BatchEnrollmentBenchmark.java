@@ -0,0 +1,62 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.service.BatchEnrollmentResult;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// A cohort load applied as one batch versus one enrollStudent() call per row, on fresh state each time
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchEnrollmentBenchmark {
+    @Param({"20000", "200000"})
+    public int rows;
+
+    static final int COURSES = 40;
+
+    private StudentService studentService;
+    private List<EnrollmentRequest> requests;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        // About four requested courses per student, so some rows hit duplicates and the credit limit
+        BenchmarkData data = BenchmarkData.unenrolled(Math.max(1, rows / 4), COURSES);
+        studentService = data.studentService;
+        String[] studentIds = data.studentIds();
+        String[] courseCodes = data.courseCodes();
+
+        Random random = new Random(11L);
+        requests = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            requests.add(new EnrollmentRequest(i + 2, studentIds[random.nextInt(studentIds.length)],
+                                               courseCodes[random.nextInt(courseCodes.length)]));
+        }
+    }
+
+    @Benchmark
+    public BatchEnrollmentResult enrollAll() {
+        return studentService.enrollAll(requests);
+    }
+
+    @Benchmark
+    public int enrollEachRow() {
+        int enrolled = 0;
+        for (EnrollmentRequest request : requests) {
+            try {
+                studentService.enrollStudent(request.getStudentId(), request.getCourseCode());
+                enrolled++;
+            } catch (ValidationException e) {
+                // Rejected row
+            }
+        }
+        return enrolled;
+    }
+}
@@ -0,0 +1,103 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+// Seeded campus fixture shared by the benchmarks; the same size always yields the same data
+final class BenchmarkData {
+    static final String[] DEPARTMENTS = {
+        "Computer Science", "Mathematics", "Physics", "Chemistry",
+        "Biology", "Economics", "History", "Literature"
+    };
+    static final int COURSES_PER_STUDENT = 4;
+
+    final CourseService courseService = new CourseService();
+    final StudentService studentService = new StudentService(courseService);
+    final List<Student> students;
+    final List<Course> courses;
+    final List<String> instructorIds;
+
+    // (studentId, courseCode) pairs that exist as enrollments, for grade benchmarks
+    final String[] enrolledStudentIds;
+    final String[] enrolledCourseCodes;
+
+    private BenchmarkData(int studentCount, int courseCount, int coursesPerStudent, long seed) throws IOException {
+        Random random = new Random(seed);
+        int instructorCount = Math.max(10, courseCount / 3);
+
+        instructorIds = new ArrayList<>(instructorCount);
+        for (int i = 0; i < instructorCount; i++) {
+            instructorIds.add(String.format("I%05d", i));
+        }
+
+        courses = new ArrayList<>(courseCount);
+        Semester[] semesters = Semester.values();
+        for (int i = 0; i < courseCount; i++) {
+            courses.add(new Course.Builder(String.format("C%05d", i), "Course " + i)
+                    .credits(3 + random.nextInt(2))
+                    .instructor(instructorIds.get(random.nextInt(instructorCount)))
+                    .semester(semesters[random.nextInt(semesters.length)])
+                    .department(DEPARTMENTS[random.nextInt(DEPARTMENTS.length)])
+                    .build());
+        }
+        courseService.saveAll(courses);
+
+        students = new ArrayList<>(studentCount);
+        for (int i = 0; i < studentCount; i++) {
+            String id = String.format("S%07d", i);
+            students.add(new Student(id, "REG" + i, new Name("First" + i, "Last" + i),
+                                     "student" + i + "@campus.edu",
+                                     LocalDate.of(1998, 1, 1).plusDays(random.nextInt(2000))));
+        }
+        studentService.saveAll(students);
+
+        List<String> pairStudents = new ArrayList<>();
+        List<String> pairCourses = new ArrayList<>();
+        Grade[] grades = Grade.values();
+        for (Student student : students) {
+            for (int k = 0; k < coursesPerStudent; k++) {
+                String code = courses.get(random.nextInt(courseCount)).getCode();
+                try {
+                    studentService.enrollStudent(student.getId(), code);
+                    studentService.assignGrade(student.getId(), code, grades[random.nextInt(grades.length)]);
+                    pairStudents.add(student.getId());
+                    pairCourses.add(code);
+                } catch (ValidationException e) {
+                    // Duplicate pick or credit limit reached; the student just takes fewer courses
+                }
+            }
+        }
+        enrolledStudentIds = pairStudents.toArray(new String[0]);
+        enrolledCourseCodes = pairCourses.toArray(new String[0]);
+    }
+
+    static BenchmarkData create(int studentCount) throws IOException {
+        return new BenchmarkData(studentCount, Math.max(50, studentCount / 20), COURSES_PER_STUDENT, 42L);
+    }
+
+    // Students and courses only, for benchmarks that measure (and then check) enrollment itself
+    static BenchmarkData unenrolled(int studentCount, int courseCount) throws IOException {
+        return new BenchmarkData(studentCount, courseCount, 0, 42L);
+    }
+
+    String[] studentIds() {
+        return students.stream().map(Student::getId).toArray(String[]::new);
+    }
+
+    String[] courseCodes() {
+        return courses.stream().map(Course::getCode).toArray(String[]::new);
+    }
+
+    // For @TearDown invariant checks: any violation fails the run
+    static void failOnViolations(List<String> violations) {
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException(violations.size() + " invariant violations, first: "
+                                            + violations.subList(0, Math.min(5, violations.size())));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Seat contention: every thread enrolls, drops and waitlists students in one small section, so
+ * each operation races the others for the same seat count. After every iteration the section is
+ * checked: never over capacity, seat count equal to the roster, no one both enrolled and waiting,
+ * and no free seat left while anyone waits. A violation fails the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CourseCapacityBenchmark {
+    @Param({"1", "30"})
+    public int capacity;
+    
+    static final int STUDENTS = 512;
+    
+    private StudentService studentService;
+    private String[] studentIds;
+    private String section;
+    
+    // Fresh state per iteration, so the check after it sees only that iteration's races
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        BenchmarkData data = BenchmarkData.unenrolled(STUDENTS, 1);
+        studentService = data.studentService;
+        studentIds = data.studentIds();
+        Course course = data.courses.get(0);
+        course.setCapacity(capacity);
+        section = course.getCode();
+    }
+    
+    @Benchmark
+    public int contendForSeats() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String studentId = studentIds[random.nextInt(studentIds.length)];
+        try {
+            switch (random.nextInt(8)) {
+                case 0:
+                case 1:
+                    studentService.enrollStudent(studentId, section);
+                    return 1;
+                case 2:
+                case 3:
+                case 4:
+                    return studentService.enrollOrWaitlist(studentId, section) ? 1 : 0;
+                case 5:
+                    return studentService.leaveWaitlist(studentId, section) ? 1 : 0;
+                default:
+                    studentService.unenrollStudent(studentId, section);
+                    return 1;
+            }
+        } catch (ValidationException e) {
+            // Full, or already enrolled: rejected, state must be unchanged
+            return 0;
+        }
+    }
+    
+    @TearDown(Level.Iteration)
+    public void verifyInvariants() {
+        List<String> violations = new ArrayList<>();
+        List<Student> roster = studentService.getEnrolledStudents(section);
+        int headcount = studentService.getCourseHeadcount(section);
+        if (headcount > capacity) {
+            violations.add("overbooked: " + headcount + " of " + capacity);
+        }
+        if (studentService.getSeatsTaken(section) != headcount || roster.size() != headcount) {
+            violations.add("seats " + studentService.getSeatsTaken(section) + ", headcount " + headcount
+                           + ", roster " + roster.size());
+        }
+        
+        List<String> waitlist = studentService.getWaitlist(section);
+        if (new HashSet<>(waitlist).size() != waitlist.size()) {
+            violations.add("duplicate waitlist entries");
+        }
+        for (String studentId : waitlist) {
+            if (studentService.findById(studentId).isEnrolledIn(section)) {
+                violations.add(studentId + ": enrolled and waitlisted");
+            }
+        }
+        if (!waitlist.isEmpty() && headcount < capacity) {
+            violations.add(waitlist.size() + " waiting with " + (capacity - headcount) + " seats free");
+        }
+        BenchmarkData.failOnViolations(violations);
+    }
+}
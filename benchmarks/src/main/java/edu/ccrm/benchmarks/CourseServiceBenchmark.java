@@ -0,0 +1,62 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.service.CourseService;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseServiceBenchmark {
+    // Course count is students / 20 (at least 50), see BenchmarkData
+    @Param({"1000", "20000", "200000"})
+    public int students;
+
+    private BenchmarkData data;
+    private CourseService courseService;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.create(students);
+        courseService = data.courseService;
+    }
+
+    @Benchmark
+    public Course findById() {
+        return courseService.findById(data.courses.get(next(data.courses.size())).getCode());
+    }
+
+    @Benchmark
+    public List<Course> findByDepartment() {
+        return courseService.findByDepartment(BenchmarkData.DEPARTMENTS[next(BenchmarkData.DEPARTMENTS.length)]);
+    }
+
+    @Benchmark
+    public List<Course> findBySemester() {
+        return courseService.findBySemester(Semester.values()[next(Semester.values().length)]);
+    }
+
+    @Benchmark
+    public List<Course> findByInstructor() {
+        return courseService.findByInstructor(data.instructorIds.get(next(data.instructorIds.size())));
+    }
+
+    @Benchmark
+    public List<Course> filteredAndSorted() {
+        int i = next(BenchmarkData.DEPARTMENTS.length * Semester.values().length);
+        return courseService.getCoursesFilteredAndSorted(BenchmarkData.DEPARTMENTS[i % BenchmarkData.DEPARTMENTS.length],
+                                                         Semester.values()[i / BenchmarkData.DEPARTMENTS.length]);
+    }
+
+    private int next(int bound) {
+        return Math.floorMod(cursor++, bound);
+    }
+}
@@ -0,0 +1,78 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Student;
+import edu.ccrm.io.FileOperations;
+import edu.ccrm.io.ImportResult;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.*;
+
+// Whole-file export and import; each invocation writes or reads the full dataset
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CsvBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int students;
+
+    private BenchmarkData data;
+    private FileOperations fileOperations;
+    private Path exportDir;
+    private String studentFile;
+    private String courseFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        exportDir = Files.createTempDirectory("ccrm-bench");
+        AppConfig.getInstance().setProperty(AppConfig.Constants.EXPORT_FOLDER, exportDir.toString());
+        data = BenchmarkData.create(students);
+        fileOperations = new FileOperations();
+
+        // Import benchmarks read the files the export benchmarks produce
+        fileOperations.exportStudentsToCSV(data.students, "students.csv");
+        fileOperations.exportCoursesToCSV(data.courses, "courses.csv");
+        studentFile = exportDir.resolve("students.csv").toString();
+        courseFile = exportDir.resolve("courses.csv").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(exportDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long exportStudents() throws IOException {
+        return fileOperations.exportStudentsToCSV(data.students, "students-out.csv");
+    }
+
+    @Benchmark
+    public long exportStudentsGzip() throws IOException {
+        return fileOperations.exportStudentsToCSV(data.students.stream(), "students-out.csv", true);
+    }
+
+    @Benchmark
+    public long exportCourses() throws IOException {
+        return fileOperations.exportCoursesToCSV(data.courses, "courses-out.csv");
+    }
+
+    @Benchmark
+    public ImportResult<Student> importStudents() throws IOException {
+        return fileOperations.importStudents(studentFile);
+    }
+
+    @Benchmark
+    public ImportResult<Course> importCourses() throws IOException {
+        return fileOperations.importCourses(courseFile);
+    }
+}
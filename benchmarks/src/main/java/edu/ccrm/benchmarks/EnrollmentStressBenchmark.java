@@ -0,0 +1,182 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Contention stress: many threads enrolling, dropping and grading the same few students at once,
+ * while the courses' credits and semesters change under them.
+ * Throughput is the benchmark result; after every iteration the state is checked against the
+ * invariants that tie Student, its Enrollment views and the services together, and a violation
+ * fails the run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class EnrollmentStressBenchmark {
+    // Fewer students means more threads hitting the same record at once
+    @Param({"4", "64"})
+    public int hotStudents;
+    
+    static final int COURSES = 24;
+    static final int MAX_CREDITS = 12;
+    
+    private CourseService courseService;
+    private StudentService studentService;
+    private String[] studentIds;
+    private String[] courseCodes;
+    
+    // Rebuilt every iteration: the teardown check drops every enrollment
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        BenchmarkData data = BenchmarkData.unenrolled(hotStudents, COURSES);
+        courseService = data.courseService;
+        studentService = data.studentService;
+        studentIds = data.studentIds();
+        courseCodes = data.courseCodes();
+    }
+    
+    @Benchmark
+    public int mixedWorkload() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String studentId = studentIds[random.nextInt(studentIds.length)];
+        String courseCode = courseCodes[random.nextInt(courseCodes.length)];
+        try {
+            switch (random.nextInt(5)) {
+                case 0:
+                case 1:
+                    studentService.enrollStudent(studentId, courseCode, MAX_CREDITS);
+                    break;
+                case 2:
+                    studentService.unenrollStudent(studentId, courseCode);
+                    break;
+                case 3:
+                    studentService.assignGrade(studentId, courseCode, Grade.values()[random.nextInt(Grade.values().length)]);
+                    break;
+                default:
+                    Course course = courseService.findById(courseCode);
+                    if (random.nextBoolean()) {
+                        course.setCredits(1 + random.nextInt(4));
+                    } else {
+                        course.setSemester(Semester.values()[random.nextInt(Semester.values().length)]);
+                    }
+                    break;
+            }
+            return 1;
+        } catch (ValidationException e) {
+            // Duplicate enrollment, credit limit or ungraded drop: rejected, state must be unchanged
+            return 0;
+        }
+    }
+    
+    @TearDown(Level.Iteration)
+    public void verifyInvariants() {
+        List<String> violations = new ArrayList<>();
+        for (String studentId : studentIds) {
+            checkStudent(studentService.findById(studentId), violations);
+        }
+        for (String courseCode : courseCodes) {
+            checkRoster(courseCode, violations);
+        }
+        for (Semester semester : Semester.values()) {
+            for (Course course : courseService.findBySemester(semester)) {
+                if (course.getSemester() != semester) {
+                    violations.add(course.getCode() + ": filed under " + semester + ", now " + course.getSemester());
+                }
+            }
+        }
+        violations.addAll(studentService.verifyAggregates());
+        checkRefunds(violations);
+        BenchmarkData.failOnViolations(violations);
+    }
+    
+    private void checkStudent(Student student, List<String> violations) {
+        String id = student.getId();
+        Set<String> enrolled = student.getEnrolledCourses();
+        Map<String, Grade> grades = student.getGrades();
+        if (enrolled.size() != student.getEnrolledCourseCount()) {
+            violations.add(id + ": course view size differs from count");
+        }
+        if (!enrolled.containsAll(grades.keySet())) {
+            violations.add(id + ": graded course not enrolled " + grades.keySet());
+        }
+        
+        // Running GPA totals agree with a recomputation from the grade view
+        double points = 0;
+        int credits = 0;
+        for (Map.Entry<String, Grade> entry : grades.entrySet()) {
+            int courseCredits = student.getCreditsForCourse(entry.getKey());
+            points += entry.getValue().getGradePoint() * courseCredits;
+            credits += courseCredits;
+        }
+        if (credits != student.getGradedCredits()
+                || Math.abs((credits > 0 ? points / credits : 0.0) - student.calculateGPA()) > 1e-9) {
+            violations.add(id + ": GPA totals drifted");
+        }
+        
+        // Enrollment views mirror the record
+        List<Enrollment> enrollments = studentService.getEnrollmentsForStudent(id);
+        if (enrollments.size() != enrolled.size()) {
+            violations.add(id + ": " + enrollments.size() + " enrollments for " + enrolled.size() + " courses");
+        }
+        for (Enrollment enrollment : enrollments) {
+            if (!enrollment.isActive() || enrollment.getGrade() != grades.get(enrollment.getCourseCode())) {
+                violations.add(id + ": enrollment view out of step for " + enrollment.getCourseCode());
+            }
+        }
+        
+        // Charged credits stay under the limit even if a course has since grown
+        for (Semester semester : Semester.values()) {
+            int carried = studentService.getSemesterCredits(id, semester);
+            if (carried > MAX_CREDITS) {
+                violations.add(id + ": " + carried + " credits, over the limit in " + semester);
+            }
+        }
+    }
+    
+    // Runs last: dropping every enrollment must refund each charge exactly, whatever the course says now
+    private void checkRefunds(List<String> violations) {
+        for (String studentId : studentIds) {
+            for (String courseCode : studentService.findById(studentId).getEnrolledCourses()) {
+                try {
+                    studentService.unenrollStudent(studentId, courseCode);
+                } catch (ValidationException e) {
+                    violations.add(studentId + ": cannot drop " + courseCode + ": " + e.getMessage());
+                }
+            }
+            for (Semester semester : Semester.values()) {
+                int carried = studentService.getSemesterCredits(studentId, semester);
+                if (carried != 0) {
+                    violations.add(studentId + ": " + carried + " credits left in " + semester + " after dropping all");
+                }
+            }
+        }
+    }
+    
+    private void checkRoster(String courseCode, List<String> violations) {
+        Set<String> fromRoster = new HashSet<>();
+        for (Student student : studentService.getEnrolledStudents(courseCode)) {
+            fromRoster.add(student.getId());
+        }
+        Set<String> fromStudents = new HashSet<>();
+        for (String studentId : studentIds) {
+            if (studentService.findById(studentId).isEnrolledIn(courseCode)) {
+                fromStudents.add(studentId);
+            }
+        }
+        if (!fromRoster.equals(fromStudents) || studentService.getCourseHeadcount(courseCode) != fromStudents.size()) {
+            violations.add(courseCode + ": roster " + fromRoster + " vs students " + fromStudents);
+        }
+    }
+}
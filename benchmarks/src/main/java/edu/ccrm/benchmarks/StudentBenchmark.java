@@ -0,0 +1,48 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.domain.*;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentBenchmark {
+    // Graded courses on the student's record
+    @Param({"5", "40", "400"})
+    public int gradedCourses;
+
+    private Student student;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42L);
+        Grade[] grades = Grade.values();
+        student = new Student("S0000001", "REG1", new Name("Bench", "Student"), "bench@campus.edu",
+                              LocalDate.of(2000, 1, 1));
+        for (int i = 0; i < gradedCourses; i++) {
+            String code = String.format("C%05d", i);
+            student.enrollInCourse(code);
+            student.assignGrade(code, grades[random.nextInt(grades.length)], 3 + random.nextInt(2));
+        }
+    }
+
+    @Benchmark
+    public double calculateGPA() {
+        return student.calculateGPA();
+    }
+
+    // Regrading keeps the running totals in play alongside the read
+    @Benchmark
+    public double regradeAndCalculateGPA() {
+        int i = Math.floorMod(cursor++, gradedCourses);
+        student.assignGrade(String.format("C%05d", i), (i & 1) == 0 ? Grade.A : Grade.C, 3);
+        return student.calculateGPA();
+    }
+}
@@ -0,0 +1,64 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private BenchmarkData data;
+    private StudentService studentService;
+    private String extraCourseCode;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.create(students);
+        studentService = data.studentService;
+
+        // A one-credit course nobody takes, so every student can always enroll in it once
+        Course extra = new Course.Builder("BENCH-1", "Benchmark Course").credits(1).build();
+        data.courseService.save(extra);
+        extraCourseCode = extra.getCode();
+    }
+
+    // Enrollment leaves state behind, so each operation is paired with its inverse
+    @Benchmark
+    public void enrollAndUnenroll() throws ValidationException {
+        String studentId = data.students.get(next(data.students.size())).getId();
+        studentService.enrollStudent(studentId, extraCourseCode);
+        studentService.unenrollStudent(studentId, extraCourseCode);
+    }
+
+    @Benchmark
+    public void assignGrade() throws ValidationException {
+        int i = next(data.enrolledStudentIds.length);
+        studentService.assignGrade(data.enrolledStudentIds[i], data.enrolledCourseCodes[i], Grade.B);
+    }
+
+    @Benchmark
+    public List<Student> searchByGpa() {
+        return studentService.search(student -> student.calculateGPA() >= 8.0);
+    }
+
+    @Benchmark
+    public List<Student> searchByEmailDomain() {
+        return studentService.search(student -> student.getEmail().endsWith("7@campus.edu"));
+    }
+
+    private int next(int bound) {
+        return Math.floorMod(cursor++, bound);
+    }
+}
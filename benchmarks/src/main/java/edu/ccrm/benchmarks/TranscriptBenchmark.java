@@ -0,0 +1,33 @@
+package edu.ccrm.benchmarks;
+
+import edu.ccrm.service.TranscriptService;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TranscriptBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private BenchmarkData data;
+    private TranscriptService transcriptService;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = BenchmarkData.create(students);
+        transcriptService = new TranscriptService(data.studentService, data.courseService);
+    }
+
+    @Benchmark
+    public String build() {
+        String studentId = data.students.get(Math.floorMod(cursor++, data.students.size())).getId();
+        return new TranscriptService.TranscriptBuilder().forStudent(studentId).build(transcriptService);
+    }
+}
@@ -0,0 +1,28 @@
+@echo off
+echo ========================================
+echo      CCRM - Checks
+echo ========================================
+echo.
+
+rem Compiles the application with the checks under src\test\java and runs them (see edu.ccrm.Checks).
+rem Arguments select checks by name, e.g. "run-checks.bat StudentServiceCheck".
+echo Compiling application and check sources...
+rem The checks do not need the console entry point, and the misplaced copy of AppConfig
+rem under src\main\java\edu\src does not compile; both are left out.
+dir /s /b src\main\java\*.java src\test\java\*.java | findstr /v /c:"edu\src\main\java\edu\ccrm\config\AppConfig.java" | findstr /v /c:"CCRMApplication.java" > check-sources.txt
+if not exist check-classes mkdir check-classes
+javac -d check-classes @check-sources.txt
+if %errorlevel% neq 0 (
+    echo Compilation failed.
+    pause
+    exit /b %errorlevel%
+)
+echo Compilation successful.
+echo.
+
+java -ea -cp check-classes edu.ccrm.Checks %*
+set status=%errorlevel%
+
+echo.
+pause
+exit /b %status%
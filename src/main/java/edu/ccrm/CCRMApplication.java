@@ -1,7 +1,20 @@
 package edu.ccrm;
 
+import edu.ccrm.api.ApiServer;
 import edu.ccrm.cli.MenuSystem;
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.io.FileOperations;
+import edu.ccrm.io.ImportResult;
+import edu.ccrm.io.StorageEngine;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.service.BatchEnrollmentResult;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.EnrollmentRequest;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
 
 /**
  * Campus Course & Records Manager (CCRM)
@@ -15,6 +28,8 @@ import edu.ccrm.config.AppConfig;
  * @version 1.0
  */
 public class CCRMApplication {
+    private static final int DEFAULT_PORT = 8080;
+    private static final String DEFAULT_ENROLLMENT_REPORT = "enrollment-report.csv";
     
     public static void main(String[] args) {
         // Enable assertions (demonstrate assertion usage)
@@ -27,6 +42,17 @@ public class CCRMApplication {
             // Display system information
             displaySystemInfo();
             
+            // "--serve [port]" runs the HTTP/JSON API instead of the interactive menu
+            if (args.length > 0 && "--serve".equals(args[0])) {
+                serve(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT);
+                return;
+            }
+            // "--enroll-batch <requests.csv> [report.csv]" applies a batch enrollment file and exits
+            if (args.length > 1 && "--enroll-batch".equals(args[0])) {
+                enrollBatch(args[1], args.length > 2 ? args[2] : DEFAULT_ENROLLMENT_REPORT);
+                return;
+            }
+            
             // Start the menu system
             MenuSystem menuSystem = new MenuSystem();
             menuSystem.start();
@@ -40,6 +66,53 @@ public class CCRMApplication {
         }
     }
     
+    /**
+     * Run the embedded API server over durable services until the process is stopped
+     */
+    private static void serve(int port) throws IOException, InterruptedException {
+        CourseService courseService = new CourseService();
+        StudentService studentService = new StudentService(courseService);
+        StorageEngine storage = StorageEngine.open(studentService, courseService);
+        ApiServer server = new ApiServer(new InetSocketAddress(port), studentService, courseService,
+                                         new TranscriptService(studentService, courseService));
+        
+        // Periodic text dump next to the data files; the same snapshot is served at /api/metrics
+        AppConfig config = AppConfig.getInstance();
+        Metrics.getInstance().startReporting(config.getDataFolderPath().resolve("metrics.txt"),
+                                             Duration.ofSeconds(config.getMetricsReportSeconds()));
+        
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Metrics.getInstance().stopReporting();
+            server.close();
+            try {
+                storage.close();
+            } catch (IOException e) {
+                System.err.println("Error closing storage: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.printf("API listening on port %d (%s)%n", server.getPort(),
+                         server.usesVirtualThreads() ? "virtual threads" : "thread pool");
+        Thread.currentThread().join();
+    }
+    
+    /**
+     * Apply a file of (studentId, courseCode) requests to the durable data and write a per-row report
+     */
+    private static void enrollBatch(String requestFile, String reportFile) throws IOException {
+        CourseService courseService = new CourseService();
+        StudentService studentService = new StudentService(courseService);
+        try (StorageEngine storage = StorageEngine.open(studentService, courseService)) {
+            FileOperations fileOperations = new FileOperations();
+            ImportResult<EnrollmentRequest> parsed = fileOperations.importEnrollmentRequests(requestFile);
+            BatchEnrollmentResult result = studentService.enrollAll(parsed.getRecords());
+            fileOperations.exportEnrollmentReport(parsed, result, reportFile);
+            System.out.printf("Enrolled %d of %d requests (%d rejected, %d unreadable lines) in %d ms%n",
+                             result.getEnrolledCount(), parsed.getRowsRead(), result.getRejectedCount(),
+                             parsed.getRejectedCount(), parsed.getElapsedMillis() + result.getElapsedMillis());
+        }
+    }
+    
     /**
      * Display system and Java platform information
      * Demonstrates string operations and system properties
@@ -0,0 +1,608 @@
+package edu.ccrm.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.ccrm.domain.*;
+import edu.ccrm.metrics.LatencyHistogram;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.metrics.MetricsSnapshot;
+import edu.ccrm.metrics.OperationTimer;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.Page;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.service.TranscriptService;
+import edu.ccrm.util.ValidationException;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Embedded HTTP/JSON front end over the student, course and transcript services, built on the
+ * JDK's own HttpServer. Each request runs on its own virtual thread where the runtime has them, so
+ * a request blocked on a durable write ties up no platform thread; older runtimes get a bounded pool.
+ *
+ * Inputs are query parameters, or a form-encoded body on POST/PUT. Responses are written with
+ * {@link JsonWriter} straight into the chunked response stream. Every lookup and mutation happens
+ * before the status line goes out, so a failure can still be reported with the right status.
+ *
+ * <pre>
+ * GET    /api/students?q=&amp;limit=&amp;after=&amp;active=   search or page through students
+ * POST   /api/students                           id, regNo, firstName, lastName, email, dateOfBirth
+ * GET    /api/students/{id}
+ * GET    /api/students/{id}/enrollments
+ * POST   /api/students/{id}/enrollments          course, waitlist=true to queue when the course is full
+ * DELETE /api/students/{id}/enrollments/{code}
+ * PUT    /api/students/{id}/grades/{code}        grade
+ * GET    /api/students/{id}/transcript           ?format=text for the printable layout
+ * GET    /api/courses?department=&amp;semester=&amp;limit=&amp;after=
+ * POST   /api/courses                            code, title, credits, department, semester, instructor, capacity
+ * GET    /api/courses/{code}
+ * GET    /api/courses/{code}/roster
+ * GET    /api/courses/{code}/waitlist
+ * GET    /api/metrics                            snapshot of the metrics registry
+ * </pre>
+ */
+public class ApiServer implements Closeable {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int BACKLOG = 1024;
+    // Only used when virtual threads are unavailable
+    private static final int FALLBACK_THREADS = 256;
+    private static final Comparator<Student> BY_ID = Comparator.comparing(Student::getId);
+    private static final OperationTimer REQUEST_TIMER = Metrics.getInstance().timer("api.request");
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final TranscriptService transcriptService;
+    
+    public ApiServer(InetSocketAddress address, StudentService studentService, CourseService courseService,
+                     TranscriptService transcriptService) throws IOException {
+        this.studentService = Objects.requireNonNull(studentService, "Student service cannot be null");
+        this.courseService = Objects.requireNonNull(courseService, "Course service cannot be null");
+        this.transcriptService = Objects.requireNonNull(transcriptService, "Transcript service cannot be null");
+        
+        ExecutorService virtual = virtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newFixedThreadPool(FALLBACK_THREADS);
+        this.server = HttpServer.create(address, BACKLOG);
+        server.createContext("/api/", this::handle);
+        server.setExecutor(executor);
+    }
+    
+    // Looked up reflectively so the code still builds and runs on runtimes without virtual threads
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    // The bound port, useful when the server was created on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    // Stops accepting, gives in-flight exchanges a second to finish, then releases the threads
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // An error that maps onto an HTTP status; anything else thrown by a handler becomes a 500
+    private static class ApiException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        final int status;
+        
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+    
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = REQUEST_TIMER.start();
+        try {
+            Request request = new Request(exchange);
+            List<String> path = request.path;
+            if (path.isEmpty()) {
+                throw new ApiException(404, "Unknown resource");
+            }
+            switch (path.get(0)) {
+                case "students":
+                    routeStudents(request);
+                    break;
+                case "courses":
+                    routeCourses(request);
+                    break;
+                case "metrics":
+                    requireMethod(request, "GET");
+                    sendMetrics(request);
+                    break;
+                default:
+                    throw new ApiException(404, "Unknown resource: " + path.get(0));
+            }
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (ValidationException e) {
+            sendError(exchange, 422, e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            // Details stay in the server log; they can name files and internals
+            System.err.println("API request " + exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                               + " failed: " + e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            // Client errors are the caller's; only server-side failures count against the API
+            if (exchange.getResponseCode() >= 500) {
+                REQUEST_TIMER.failed();
+            }
+            REQUEST_TIMER.stop(start);
+            exchange.close();
+        }
+    }
+    
+    private void routeStudents(Request request) throws IOException, ValidationException {
+        List<String> path = request.path;
+        if (path.size() == 1) {
+            if (request.is("GET")) listStudents(request);
+            else if (request.is("POST")) createStudent(request);
+            else throw methodNotAllowed(request);
+            return;
+        }
+        
+        Student student = requireStudent(path.get(1));
+        String section = path.size() > 2 ? path.get(2) : null;
+        if (section == null && path.size() == 2) {
+            requireMethod(request, "GET");
+            sendJson(request.exchange, 200, json -> writeStudentDetail(json, student));
+        } else if ("enrollments".equals(section) && path.size() == 3) {
+            if (request.is("GET")) sendJson(request.exchange, 200, json -> writeEnrollments(json, student));
+            else if (request.is("POST")) enroll(request, student);
+            else throw methodNotAllowed(request);
+        } else if ("enrollments".equals(section) && path.size() == 4) {
+            requireMethod(request, "DELETE");
+            unenroll(request, student, path.get(3));
+        } else if ("grades".equals(section) && path.size() == 4) {
+            requireMethod(request, "PUT");
+            assignGrade(request, student, path.get(3));
+        } else if ("transcript".equals(section) && path.size() == 3) {
+            requireMethod(request, "GET");
+            sendTranscript(request, student);
+        } else {
+            throw new ApiException(404, "Unknown resource");
+        }
+    }
+    
+    private void routeCourses(Request request) throws IOException {
+        List<String> path = request.path;
+        if (path.size() == 1) {
+            if (request.is("GET")) listCourses(request);
+            else if (request.is("POST")) createCourse(request);
+            else throw methodNotAllowed(request);
+            return;
+        }
+        
+        Course course = requireCourse(path.get(1));
+        requireMethod(request, "GET");
+        if (path.size() == 2) {
+            int headcount = studentService.getCourseHeadcount(course.getCode());
+            int waitlisted = studentService.getWaitlist(course.getCode()).size();
+            sendJson(request.exchange, 200, json -> {
+                writeCourse(json.beginObject(), course);
+                json.field("headcount", headcount).field("waitlisted", waitlisted).endObject();
+            });
+        } else if (path.size() == 3 && "roster".equals(path.get(2))) {
+            List<Student> roster = studentService.getEnrolledStudents(course.getCode());
+            sendJson(request.exchange, 200, json -> {
+                json.beginObject().field("course", course.getCode()).name("students").beginArray();
+                for (Student student : roster) {
+                    writeStudentSummary(json, student);
+                }
+                json.endArray().endObject();
+            });
+        } else if (path.size() == 3 && "waitlist".equals(path.get(2))) {
+            List<String> waitlist = studentService.getWaitlist(course.getCode());
+            sendJson(request.exchange, 200, json -> {
+                json.beginObject().field("course", course.getCode()).name("students").beginArray();
+                for (String studentId : waitlist) {
+                    json.value(studentId);
+                }
+                json.endArray().endObject();
+            });
+        } else {
+            throw new ApiException(404, "Unknown resource");
+        }
+    }
+    
+    // Free-text search when q is given (unordered, one page); otherwise keyset pages in ID order
+    private void listStudents(Request request) throws IOException {
+        int limit = request.pageSize();
+        String query = request.param("q");
+        List<Student> items;
+        String next = null;
+        if (query != null) {
+            items = studentService.searchText(query, limit);
+        } else {
+            String active = request.param("active");
+            Predicate<Student> filter = active == null
+                    ? student -> true
+                    : student -> student.isActive() == Boolean.parseBoolean(active);
+            String after = request.param("after");
+            Page.Cursor<Student> cursor = null;
+            if (after != null) {
+                Student last = studentService.findById(after);
+                if (last == null) throw new ApiException(400, "Unknown cursor: " + after);
+                cursor = Page.Cursor.after(last);
+            }
+            Page<Student> page = studentService.searchPage(filter, BY_ID, cursor, limit);
+            items = page.getItems();
+            if (page.hasNext()) {
+                next = items.get(items.size() - 1).getId();
+            }
+        }
+        
+        String nextId = next;
+        sendJson(request.exchange, 200, json -> {
+            json.beginObject().name("items").beginArray();
+            for (Student student : items) {
+                writeStudentSummary(json, student);
+            }
+            json.endArray().field("next", nextId).endObject();
+        });
+    }
+    
+    private void createStudent(Request request) throws IOException {
+        String id = request.required("id");
+        Student student = new Student(id, request.required("regNo"),
+                new Name(request.required("firstName"), request.required("lastName")),
+                request.required("email"), LocalDate.parse(request.required("dateOfBirth")));
+        // One atomic check-and-save, so two concurrent creates cannot both succeed
+        if (!studentService.saveIfAbsent(student)) {
+            throw new ApiException(409, "Student already exists: " + id);
+        }
+        request.exchange.getResponseHeaders().set("Location", "/api/students/" + id);
+        sendJson(request.exchange, 201, json -> writeStudentDetail(json, student));
+    }
+    
+    private void enroll(Request request, Student student) throws IOException, ValidationException {
+        String courseCode = request.required("course");
+        if (!Boolean.parseBoolean(request.param("waitlist"))) {
+            studentService.enrollStudent(student.getId(), courseCode);
+        } else if (!studentService.enrollOrWaitlist(student.getId(), courseCode)) {
+            // Accepted but not enrolled yet
+            int position = studentService.getWaitlist(courseCode).indexOf(student.getId()) + 1;
+            sendJson(request.exchange, 202, json -> json.beginObject()
+                    .field("student", student.getId())
+                    .field("course", courseCode)
+                    .field("waitlistPosition", position)
+                    .endObject());
+            return;
+        }
+        Enrollment enrollment = studentService.getEnrollment(student.getId(), courseCode);
+        sendJson(request.exchange, 201, json -> writeEnrollment(json, enrollment));
+    }
+    
+    private void unenroll(Request request, Student student, String courseCode) throws IOException, ValidationException {
+        if (!student.isEnrolledIn(courseCode)) {
+            throw new ApiException(404, "Student not enrolled in course: " + courseCode);
+        }
+        studentService.unenrollStudent(student.getId(), courseCode);
+        request.exchange.sendResponseHeaders(204, -1);
+    }
+    
+    private void assignGrade(Request request, Student student, String courseCode) throws IOException, ValidationException {
+        Grade grade = Grade.valueOf(request.required("grade").toUpperCase(Locale.ROOT));
+        studentService.assignGrade(student.getId(), courseCode, grade);
+        Enrollment enrollment = studentService.getEnrollment(student.getId(), courseCode);
+        sendJson(request.exchange, 200, json -> writeEnrollment(json, enrollment));
+    }
+    
+    private void sendTranscript(Request request, Student student) throws IOException {
+        if ("text".equals(request.param("format"))) {
+            String text = transcriptService.renderTranscript(student.getId());
+            if (text == null) throw new ApiException(404, "Student not found: " + student.getId());
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            request.exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            request.exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = request.exchange.getResponseBody()) {
+                out.write(body);
+            }
+            return;
+        }
+        
+        sendJson(request.exchange, 200, json -> {
+            json.beginObject()
+                    .field("id", student.getId())
+                    .field("regNo", student.getRegNo())
+                    .field("name", student.getName().getFullName())
+                    .field("gpa", student.calculateGPA())
+                    .field("gradedCredits", student.getGradedCredits())
+                    .name("courses").beginArray();
+            for (Map.Entry<String, Grade> entry : student.getGrades().entrySet()) {
+                Course course = courseService.findById(entry.getKey());
+                json.beginObject()
+                        .field("code", entry.getKey())
+                        .field("title", course != null ? course.getTitle() : null)
+                        .field("credits", student.getCreditsForCourse(entry.getKey()))
+                        .field("grade", entry.getValue().name())
+                        .field("gradePoint", entry.getValue().getGradePoint())
+                        .endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    private void listCourses(Request request) throws IOException {
+        int limit = request.pageSize();
+        String semesterName = request.param("semester");
+        Semester semester = semesterName != null ? Semester.valueOf(semesterName.toUpperCase(Locale.ROOT)) : null;
+        String after = request.param("after");
+        Page.Cursor<Course> cursor = null;
+        if (after != null) {
+            Course last = courseService.findById(after);
+            if (last == null) throw new ApiException(400, "Unknown cursor: " + after);
+            cursor = Page.Cursor.after(last);
+        }
+        
+        Page<Course> page = courseService.getCoursesFilteredAndSorted(request.param("department"), semester, cursor, limit);
+        List<Course> items = page.getItems();
+        String next = page.hasNext() ? items.get(items.size() - 1).getCode() : null;
+        sendJson(request.exchange, 200, json -> {
+            json.beginObject().name("items").beginArray();
+            for (Course course : items) {
+                writeCourse(json.beginObject(), course).endObject();
+            }
+            json.endArray().field("next", next).endObject();
+        });
+    }
+    
+    private void createCourse(Request request) throws IOException {
+        String code = request.required("code");
+        String semesterName = request.param("semester");
+        String capacity = request.param("capacity");
+        Course course = new Course.Builder(code, request.required("title"))
+                .credits(Integer.parseInt(request.required("credits")))
+                .department(request.param("department"))
+                .semester(semesterName != null ? Semester.valueOf(semesterName.toUpperCase(Locale.ROOT)) : null)
+                .instructor(request.param("instructor"))
+                .capacity(capacity != null ? Integer.parseInt(capacity) : 0)
+                .build();
+        if (!courseService.saveIfAbsent(course)) {
+            throw new ApiException(409, "Course already exists: " + code);
+        }
+        request.exchange.getResponseHeaders().set("Location", "/api/courses/" + code);
+        sendJson(request.exchange, 201, json -> writeCourse(json.beginObject(), course).endObject());
+    }
+    
+    // Latencies in microseconds, percentiles as bucket upper bounds
+    private static void sendMetrics(Request request) throws IOException {
+        MetricsSnapshot snapshot = Metrics.getInstance().snapshot();
+        sendJson(request.exchange, 200, json -> {
+            json.beginObject().field("takenAt", snapshot.getTakenAt().toString()).name("counters").beginObject();
+            for (Map.Entry<String, Long> counter : snapshot.getCounters().entrySet()) {
+                json.field(counter.getKey(), counter.getValue());
+            }
+            json.endObject().name("gauges").beginObject();
+            for (Map.Entry<String, Long> gauge : snapshot.getGauges().entrySet()) {
+                json.field(gauge.getKey(), gauge.getValue());
+            }
+            json.endObject().name("timers").beginObject();
+            for (Map.Entry<String, LatencyHistogram.Snapshot> timer : snapshot.getLatencies().entrySet()) {
+                LatencyHistogram.Snapshot latency = timer.getValue();
+                json.name(timer.getKey()).beginObject()
+                        .field("count", latency.getCount())
+                        .field("failed", snapshot.getFailures().get(timer.getKey()))
+                        .field("meanMicros", latency.getMeanNanos() / 1_000)
+                        .field("p50Micros", latency.getPercentileNanos(0.50) / 1_000.0)
+                        .field("p90Micros", latency.getPercentileNanos(0.90) / 1_000.0)
+                        .field("p99Micros", latency.getPercentileNanos(0.99) / 1_000.0)
+                        .field("maxMicros", latency.getMaxNanos() / 1_000.0)
+                        .endObject();
+            }
+            json.endObject().endObject();
+        });
+    }
+    
+    private Student requireStudent(String id) {
+        Student student = studentService.findById(id);
+        if (student == null) throw new ApiException(404, "Student not found: " + id);
+        return student;
+    }
+    
+    private Course requireCourse(String code) {
+        Course course = courseService.findById(code);
+        if (course == null) throw new ApiException(404, "Course not found: " + code);
+        return course;
+    }
+    
+    private static void requireMethod(Request request, String method) {
+        if (!request.is(method)) throw methodNotAllowed(request);
+    }
+    
+    private static ApiException methodNotAllowed(Request request) {
+        return new ApiException(405, "Method not allowed: " + request.exchange.getRequestMethod());
+    }
+    
+    private static void writeStudentSummary(JsonWriter json, Student student) throws IOException {
+        json.beginObject()
+                .field("id", student.getId())
+                .field("regNo", student.getRegNo())
+                .field("name", student.getName().getFullName())
+                .field("email", student.getEmail())
+                .field("active", student.isActive())
+                .endObject();
+    }
+    
+    private void writeStudentDetail(JsonWriter json, Student student) throws IOException {
+        json.beginObject()
+                .field("id", student.getId())
+                .field("regNo", student.getRegNo())
+                .field("firstName", student.getName().getFirstName())
+                .field("lastName", student.getName().getLastName())
+                .field("email", student.getEmail())
+                .field("dateOfBirth", String.valueOf(student.getDateOfBirth()))
+                .field("active", student.isActive())
+                .field("gpa", student.calculateGPA())
+                .name("enrollments");
+        writeEnrollmentArray(json, student);
+        json.endObject();
+    }
+    
+    private void writeEnrollments(JsonWriter json, Student student) throws IOException {
+        json.beginObject().field("student", student.getId()).name("items");
+        writeEnrollmentArray(json, student);
+        json.endObject();
+    }
+    
+    private void writeEnrollmentArray(JsonWriter json, Student student) throws IOException {
+        json.beginArray();
+        for (Enrollment enrollment : studentService.getEnrollmentsForStudent(student.getId())) {
+            writeEnrollment(json, enrollment);
+        }
+        json.endArray();
+    }
+    
+    private static void writeEnrollment(JsonWriter json, Enrollment enrollment) throws IOException {
+        // The view reads through to the student, so a concurrent unenroll can blank it out mid-write
+        Grade grade = enrollment.getGrade();
+        json.beginObject()
+                .field("student", enrollment.getStudentId())
+                .field("course", enrollment.getCourseCode())
+                .field("enrolledAt", String.valueOf(enrollment.getEnrollmentDate()))
+                .field("grade", grade != null ? grade.name() : null)
+                .endObject();
+    }
+    
+    private static JsonWriter writeCourse(JsonWriter json, Course course) throws IOException {
+        return json.field("code", course.getCode())
+                .field("title", course.getTitle())
+                .field("credits", course.getCredits())
+                .field("department", course.getDepartment())
+                .field("semester", course.getSemester() != null ? course.getSemester().name() : null)
+                .field("instructor", course.getInstructorId())
+                .field("active", course.isActive())
+                .field("capacity", course.getCapacity());
+    }
+    
+    // Chunked, so the body streams out as it is encoded whatever its size
+    private static void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        try (JsonWriter json = new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)))) {
+            body.write(json);
+        }
+    }
+    
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        if (exchange.getResponseCode() != -1) {
+            // Headers already went out; all that is left is to cut the response short
+            return;
+        }
+        try {
+            sendJson(exchange, status, json -> json.beginObject().field("error", message).endObject());
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+    
+    // Path segments below /api/ plus decoded query and form parameters (the first value wins)
+    private static final class Request {
+        final HttpExchange exchange;
+        final List<String> path = new ArrayList<>();
+        final Map<String, String> params = new HashMap<>();
+        
+        Request(HttpExchange exchange) throws IOException {
+            this.exchange = exchange;
+            String rawPath = exchange.getRequestURI().getRawPath();
+            for (String segment : rawPath.substring("/api/".length()).split("/")) {
+                if (!segment.isEmpty()) {
+                    path.add(decode(segment.replace("+", "%2B")));
+                }
+            }
+            parseParams(exchange.getRequestURI().getRawQuery());
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                try (InputStream in = exchange.getRequestBody()) {
+                    parseParams(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        
+        boolean is(String method) {
+            return method.equals(exchange.getRequestMethod());
+        }
+        
+        String param(String name) {
+            String value = params.get(name);
+            return value == null || value.isEmpty() ? null : value;
+        }
+        
+        String required(String name) {
+            String value = param(name);
+            if (value == null) throw new ApiException(400, "Missing parameter: " + name);
+            return value;
+        }
+        
+        int pageSize() {
+            String limit = param("limit");
+            int size = limit != null ? Integer.parseInt(limit) : DEFAULT_PAGE_SIZE;
+            if (size <= 0) throw new ApiException(400, "limit must be positive");
+            return Math.min(size, MAX_PAGE_SIZE);
+        }
+        
+        private void parseParams(String raw) {
+            if (raw == null || raw.isEmpty()) return;
+            for (String pair : raw.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = decode(eq >= 0 ? pair.substring(0, eq) : pair);
+                String value = eq >= 0 ? decode(pair.substring(eq + 1)) : "";
+                params.putIfAbsent(key, value);
+            }
+        }
+        
+        private static String decode(String text) {
+            return URLDecoder.decode(text, StandardCharsets.UTF_8);
+        }
+    }
+}
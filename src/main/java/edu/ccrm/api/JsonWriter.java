@@ -0,0 +1,188 @@
+package edu.ccrm.api;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Streaming JSON encoder: values go straight to the writer as they are produced, so a response of
+ * any size needs no intermediate tree or string. Tracks nesting only to place commas and to
+ * reject calls that would produce invalid JSON.
+ */
+public final class JsonWriter implements Closeable, Flushable {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final Writer out;
+    // Per nesting level: whether the container is an object, and whether it has members yet
+    private boolean[] objects = new boolean[16];
+    private boolean[] nonEmpty = new boolean[16];
+    private int depth;
+    private boolean afterName;
+    
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+    
+    public JsonWriter beginObject() throws IOException {
+        return open(true, '{');
+    }
+    
+    public JsonWriter endObject() throws IOException {
+        return close(true, '}');
+    }
+    
+    public JsonWriter beginArray() throws IOException {
+        return open(false, '[');
+    }
+    
+    public JsonWriter endArray() throws IOException {
+        return close(false, ']');
+    }
+    
+    public JsonWriter name(String name) throws IOException {
+        if (depth == 0 || !objects[depth - 1] || afterName) {
+            throw new IllegalStateException("Member name outside an object: " + name);
+        }
+        separate();
+        string(name);
+        out.write(':');
+        afterName = true;
+        return this;
+    }
+    
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) return nullValue();
+        beforeValue();
+        string(value);
+        return this;
+    }
+    
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        out.write(Long.toString(value));
+        return this;
+    }
+    
+    // NaN and the infinities have no JSON form and are written as null
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return nullValue();
+        beforeValue();
+        out.write(Double.toString(value));
+        return this;
+    }
+    
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        out.write(value ? "true" : "false");
+        return this;
+    }
+    
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        out.write("null");
+        return this;
+    }
+    
+    // Shorthands for name(...).value(...)
+    public JsonWriter field(String name, String value) throws IOException {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter field(String name, long value) throws IOException {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter field(String name, double value) throws IOException {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter field(String name, boolean value) throws IOException {
+        return name(name).value(value);
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+    
+    private JsonWriter open(boolean object, char bracket) throws IOException {
+        beforeValue();
+        if (depth == objects.length) {
+            objects = Arrays.copyOf(objects, depth * 2);
+            nonEmpty = Arrays.copyOf(nonEmpty, depth * 2);
+        }
+        objects[depth] = object;
+        nonEmpty[depth] = false;
+        depth++;
+        out.write(bracket);
+        return this;
+    }
+    
+    private JsonWriter close(boolean object, char bracket) throws IOException {
+        if (depth == 0 || objects[depth - 1] != object || afterName) {
+            throw new IllegalStateException("Unbalanced " + bracket);
+        }
+        depth--;
+        out.write(bracket);
+        return this;
+    }
+    
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0 && objects[depth - 1]) {
+            throw new IllegalStateException("Object member needs a name first");
+        }
+        separate();
+    }
+    
+    private void separate() throws IOException {
+        if (depth > 0) {
+            if (nonEmpty[depth - 1]) {
+                out.write(',');
+            }
+            nonEmpty[depth - 1] = true;
+        }
+    }
+    
+    // Escapes per RFC 8259, plus U+2028/U+2029 so the output is also safe inside JavaScript
+    private void string(String value) throws IOException {
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            out.write(value, start, i - start);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                case '\b': out.write("\\b"); break;
+                case '\f': out.write("\\f"); break;
+                default:
+                    out.write("\\u");
+                    out.write(HEX[(c >> 12) & 0xF]);
+                    out.write(HEX[(c >> 8) & 0xF]);
+                    out.write(HEX[(c >> 4) & 0xF]);
+                    out.write(HEX[c & 0xF]);
+                    break;
+            }
+            start = i + 1;
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+}
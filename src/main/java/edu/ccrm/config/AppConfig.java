@@ -16,6 +16,10 @@ public class AppConfig {
         public static final String BACKUP_FOLDER = "backup.folder";
         public static final String MAX_CREDITS_PER_SEMESTER = "max.credits.semester";
         public static final int DEFAULT_MAX_CREDITS = 18;
+        public static final String SNAPSHOT_INTERVAL = "storage.snapshot.interval";
+        public static final int DEFAULT_SNAPSHOT_INTERVAL = 100_000;
+        public static final String METRICS_REPORT_SECONDS = "metrics.report.seconds";
+        public static final int DEFAULT_METRICS_REPORT_SECONDS = 60;
     }
     
     private AppConfig() {
@@ -41,6 +45,10 @@ public class AppConfig {
         properties.setProperty(Constants.BACKUP_FOLDER, "backups");
         properties.setProperty(Constants.MAX_CREDITS_PER_SEMESTER, 
                              String.valueOf(Constants.DEFAULT_MAX_CREDITS));
+        properties.setProperty(Constants.SNAPSHOT_INTERVAL, 
+                             String.valueOf(Constants.DEFAULT_SNAPSHOT_INTERVAL));
+        properties.setProperty(Constants.METRICS_REPORT_SECONDS, 
+                             String.valueOf(Constants.DEFAULT_METRICS_REPORT_SECONDS));
     }
     
     public String getProperty(String key) {
@@ -80,6 +88,19 @@ public class AppConfig {
         System.out.println("================================\n");
     }
 
+    // Number of logged mutations between automatic storage snapshots
+    public int getSnapshotInterval() {
+        return getIntProperty(Constants.SNAPSHOT_INTERVAL, Constants.DEFAULT_SNAPSHOT_INTERVAL);
+    }
+    
+    public int getMetricsReportSeconds() {
+        return getIntProperty(Constants.METRICS_REPORT_SECONDS, Constants.DEFAULT_METRICS_REPORT_SECONDS);
+    }
+    
+    public Path getDataFolderPath() {
+        return Paths.get(getProperty(Constants.DATA_FOLDER));
+    }
+    
     public Path getExportFolderPath() {
         return Paths.get(getProperty(Constants.EXPORT_FOLDER));
     }
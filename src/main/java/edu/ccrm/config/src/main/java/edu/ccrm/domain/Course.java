@@ -1,15 +1,22 @@
 package edu.ccrm.domain;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class Course {
     private String code;
-    private String title;
-    private int credits;
-    private String instructorId;
-    private Semester semester;
-    private String department;
-    private boolean active;
+    // Setters swap values under the course's monitor and notify listeners after releasing it;
+    // reads are lock-free, as enrollments read credits, semester and capacity concurrently
+    private volatile String title;
+    private volatile int credits;
+    private volatile String instructorId;
+    private volatile Semester semester;
+    private volatile String department;
+    private volatile boolean active;
+    // Seat limit; 0 means unlimited
+    private volatile int capacity;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
     
     private Course(Builder builder) {
         this.code = builder.code;
@@ -18,6 +25,7 @@ public class Course {
         this.instructorId = builder.instructorId;
         this.semester = builder.semester;
         this.department = builder.department;
+        this.capacity = builder.capacity;
         this.active = true;
     }
     
@@ -28,6 +36,7 @@ public class Course {
         private String instructorId;
         private Semester semester;
         private String department;
+        private int capacity;
         
         public Builder(String code, String title) {
             this.code = Objects.requireNonNull(code, "Course code cannot be null");
@@ -55,6 +64,12 @@ public class Course {
             return this;
         }
         
+        public Builder capacity(int capacity) {
+            if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+            this.capacity = capacity;
+            return this;
+        }
+        
         public Course build() {
             return new Course(this);
         }
@@ -67,13 +82,99 @@ public class Course {
     public Semester getSemester() { return semester; }
     public String getDepartment() { return department; }
     public boolean isActive() { return active; }
+    public int getCapacity() { return capacity; }
+    public boolean hasCapacityLimit() { return capacity > 0; }
+    
+    public void setTitle(String title) {
+        String old;
+        synchronized (this) {
+            old = this.title;
+            this.title = title;
+        }
+        fireChange(Property.TITLE, old, title);
+    }
+    
+    public void setCredits(int credits) {
+        int old;
+        synchronized (this) {
+            old = this.credits;
+            this.credits = credits;
+        }
+        fireChange(Property.CREDITS, old, credits);
+    }
+    
+    public void setInstructorId(String instructorId) {
+        String old;
+        synchronized (this) {
+            old = this.instructorId;
+            this.instructorId = instructorId;
+        }
+        fireChange(Property.INSTRUCTOR, old, instructorId);
+    }
+    
+    public void setSemester(Semester semester) {
+        Semester old;
+        synchronized (this) {
+            old = this.semester;
+            this.semester = semester;
+        }
+        fireChange(Property.SEMESTER, old, semester);
+    }
+    
+    public void setDepartment(String department) {
+        String old;
+        synchronized (this) {
+            old = this.department;
+            this.department = department;
+        }
+        fireChange(Property.DEPARTMENT, old, department);
+    }
+    
+    // Lowering the limit below the current headcount removes no one; it only stops new enrollments
+    public void setCapacity(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Capacity cannot be negative");
+        int old;
+        synchronized (this) {
+            old = this.capacity;
+            this.capacity = capacity;
+        }
+        fireChange(Property.CAPACITY, old, capacity);
+    }
     
-    public void setTitle(String title) { this.title = title; }
-    public void setCredits(int credits) { this.credits = credits; }
-    public void setInstructorId(String instructorId) { this.instructorId = instructorId; }
-    public void setSemester(Semester semester) { this.semester = semester; }
-    public void setDepartment(String department) { this.department = department; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setActive(boolean active) {
+        boolean old;
+        synchronized (this) {
+            old = this.active;
+            this.active = active;
+        }
+        fireChange(Property.ACTIVE, old, active);
+    }
+    
+    // Properties that observers (e.g. service indexes) are notified about
+    public enum Property {
+        TITLE, CREDITS, INSTRUCTOR, SEMESTER, DEPARTMENT, ACTIVE, CAPACITY
+    }
+    
+    // Observer hook so services can keep derived data in sync with setter calls
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(Course course, Property property, Object oldValue, Object newValue);
+    }
+    
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void fireChange(Property property, Object oldValue, Object newValue) {
+        if (Objects.equals(oldValue, newValue)) return;
+        for (ChangeListener listener : listeners) {
+            listener.onChange(this, property, oldValue, newValue);
+        }
+    }
     
     @Override
     public boolean equals(Object obj) {
@@ -0,0 +1,41 @@
+package edu.ccrm.domain;
+
+import java.util.*;
+
+// Read-only Set<String> over a sorted array of course refs; the array must never change afterwards
+final class CourseCodeSet extends AbstractSet<String> {
+    private final int[] refs;
+    
+    CourseCodeSet(int[] refs) {
+        this.refs = refs;
+    }
+    
+    @Override
+    public boolean contains(Object code) {
+        int ref = code instanceof String ? CourseCodes.lookup((String) code) : CourseCodes.UNKNOWN;
+        return ref != CourseCodes.UNKNOWN && Arrays.binarySearch(refs, ref) >= 0;
+    }
+    
+    @Override
+    public int size() {
+        return refs.length;
+    }
+    
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next;
+            
+            @Override
+            public boolean hasNext() {
+                return next < refs.length;
+            }
+            
+            @Override
+            public String next() {
+                if (next >= refs.length) throw new NoSuchElementException();
+                return CourseCodes.decode(refs[next++]);
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package edu.ccrm.domain;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Process-wide dictionary of course codes to dense int refs, so per-enrollment data can store an int
+public final class CourseCodes {
+    public static final int UNKNOWN = -1;
+    
+    private static final Map<String, Integer> refsByCode = new ConcurrentHashMap<>();
+    private static volatile String[] codesByRef = new String[256];
+    private static int nextRef;
+    
+    private CourseCodes() {}
+    
+    // Ref for the code, assigning the next one on first sight
+    public static int encode(String code) {
+        Integer ref = refsByCode.get(Objects.requireNonNull(code, "Course code cannot be null"));
+        return ref != null ? ref : assign(code);
+    }
+    
+    // Ref for a code already seen, or UNKNOWN; never grows the dictionary
+    public static int lookup(String code) {
+        Integer ref = code != null ? refsByCode.get(code) : null;
+        return ref != null ? ref : UNKNOWN;
+    }
+    
+    public static String decode(int ref) {
+        return codesByRef[ref];
+    }
+    
+    public static int size() {
+        return refsByCode.size();
+    }
+    
+    private static synchronized int assign(String code) {
+        Integer existing = refsByCode.get(code);
+        if (existing != null) {
+            return existing;
+        }
+        
+        // The code is published in the array before its ref becomes visible through the map
+        int ref = nextRef++;
+        String[] codes = codesByRef;
+        if (ref == codes.length) {
+            codes = Arrays.copyOf(codes, codes.length * 2);
+        }
+        codes[ref] = code;
+        codesByRef = codes;
+        refsByCode.put(code, ref);
+        return ref;
+    }
+}
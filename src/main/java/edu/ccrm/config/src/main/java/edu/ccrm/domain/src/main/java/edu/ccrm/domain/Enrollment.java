@@ -3,46 +3,51 @@ package edu.ccrm.domain;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+/**
+ * View of one of a student's enrollments; date, grade and active state are read from the
+ * student's own record, so no per-enrollment object is stored.
+ *
+ * Before enrollments were views this was a standalone record built from (studentId, courseCode),
+ * with its own date and a setActive() flag. Code that built one that way should ask
+ * StudentService.getEnrollment(studentId, courseCode) instead, which returns null if the student
+ * is not enrolled; dropping the course (StudentService.unenrollStudent) replaces setActive(false),
+ * and StudentService.assignGrade replaces setGrade(), so grades are logged, weighted with the
+ * course's credits and counted in the aggregates and GPA index.
+ */
 public class Enrollment {
-    private String studentId;
-    private String courseCode;
-    private LocalDateTime enrollmentDate;
-    private Grade grade;
-    private boolean active;
+    private final Student student;
+    private final String courseCode;
     
-    public Enrollment(String studentId, String courseCode) {
-        this.studentId = Objects.requireNonNull(studentId, "Student ID cannot be null");
+    public Enrollment(Student student, String courseCode) {
+        this.student = Objects.requireNonNull(student, "Student cannot be null");
         this.courseCode = Objects.requireNonNull(courseCode, "Course code cannot be null");
-        this.enrollmentDate = LocalDateTime.now();
-        this.active = true;
     }
     
-    public String getStudentId() { return studentId; }
+    public String getStudentId() { return student.getId(); }
     public String getCourseCode() { return courseCode; }
-    public LocalDateTime getEnrollmentDate() { return enrollmentDate; }
-    public Grade getGrade() { return grade; }
-    public boolean isActive() { return active; }
-    
-    public void setGrade(Grade grade) { this.grade = grade; }
-    public void setActive(boolean active) { this.active = active; }
+    public LocalDateTime getEnrollmentDate() { return student.getCourseEnrollmentDate(courseCode); }
+    public Grade getGrade() { return student.getGrade(courseCode); }
+    // False once the student has dropped the course
+    public boolean isActive() { return student.isEnrolledIn(courseCode); }
     
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Enrollment that = (Enrollment) obj;
-        return Objects.equals(studentId, that.studentId) && 
+        return Objects.equals(getStudentId(), that.getStudentId()) && 
                Objects.equals(courseCode, that.courseCode);
     }
     
     @Override
     public int hashCode() {
-        return Objects.hash(studentId, courseCode);
+        return Objects.hash(getStudentId(), courseCode);
     }
     
     @Override
     public String toString() {
+        LocalDateTime date = getEnrollmentDate();
         return String.format("Enrollment[student=%s, course=%s, grade=%s, date=%s]", 
-                           studentId, courseCode, grade, enrollmentDate.toLocalDate());
+                           getStudentId(), courseCode, getGrade(), date != null ? date.toLocalDate() : null);
     }
 }
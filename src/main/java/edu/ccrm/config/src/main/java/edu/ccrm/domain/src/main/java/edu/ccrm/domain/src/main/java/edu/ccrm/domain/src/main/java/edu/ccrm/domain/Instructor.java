@@ -2,18 +2,22 @@ package edu.ccrm.domain;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
 
 public class Instructor extends Person {
     private String employeeId;
     private String department;
-    private Set<String> assignedCourses;
+    // Sorted course refs (see CourseCodes); replaced on change, never modified, so views can share it
+    private volatile int[] assignedCourseRefs = new int[0];
+    private static final AtomicReferenceFieldUpdater<Instructor, int[]> ASSIGNED =
+            AtomicReferenceFieldUpdater.newUpdater(Instructor.class, int[].class, "assignedCourseRefs");
     
     public Instructor(String id, String employeeId, Name name, String email, 
                      LocalDate dateOfBirth, String department) {
         super(id, name, email, dateOfBirth);
         this.employeeId = Objects.requireNonNull(employeeId, "Employee ID cannot be null");
         this.department = Objects.requireNonNull(department, "Department cannot be null");
-        this.assignedCourses = new HashSet<>();
     }
     
     @Override
@@ -31,20 +35,67 @@ public class Instructor extends Person {
         System.out.println("Department: " + department);
         System.out.println("Date of Birth: " + dateOfBirth);
         System.out.println("Status: " + (active ? "Active" : "Inactive"));
-        System.out.println("Assigned Courses: " + assignedCourses.size());
+        System.out.println("Assigned Courses: " + assignedCourseRefs.length);
     }
     
     public void assignCourse(String courseCode) {
-        assignedCourses.add(courseCode);
+        int ref = CourseCodes.encode(courseCode);
+        update(current -> {
+            int slot = Arrays.binarySearch(current, ref);
+            if (slot >= 0) {
+                return current;
+            }
+            slot = -slot - 1;
+            int[] refs = new int[current.length + 1];
+            System.arraycopy(current, 0, refs, 0, slot);
+            System.arraycopy(current, slot, refs, slot + 1, current.length - slot);
+            refs[slot] = ref;
+            return refs;
+        });
     }
     
     public void unassignCourse(String courseCode) {
-        assignedCourses.remove(courseCode);
+        int ref = CourseCodes.lookup(courseCode);
+        if (ref == CourseCodes.UNKNOWN) {
+            return;
+        }
+        update(current -> {
+            int slot = Arrays.binarySearch(current, ref);
+            if (slot < 0) {
+                return current;
+            }
+            int[] refs = new int[current.length - 1];
+            System.arraycopy(current, 0, refs, 0, slot);
+            System.arraycopy(current, slot + 1, refs, slot, refs.length - slot);
+            return refs;
+        });
+    }
+    
+    // Lock-free copy-on-write, as in Student: recompute from the latest refs until the swap wins
+    private void update(UnaryOperator<int[]> change) {
+        for (;;) {
+            int[] current = assignedCourseRefs;
+            int[] next = change.apply(current);
+            if (next == current || ASSIGNED.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+    
+    public boolean isAssignedTo(String courseCode) {
+        int ref = CourseCodes.lookup(courseCode);
+        return ref != CourseCodes.UNKNOWN && Arrays.binarySearch(assignedCourseRefs, ref) >= 0;
     }
     
     public String getEmployeeId() { return employeeId; }
     public String getDepartment() { return department; }
-    public Set<String> getAssignedCourses() { return new HashSet<>(assignedCourses); }
+    
+    // Read-only snapshot, safe to hand out
+    public Set<String> getAssignedCourses() {
+        return new CourseCodeSet(assignedCourseRefs);
+    }
+    
+    public int getAssignedCourseCount() { return assignedCourseRefs.length; }
     
     public void setEmployeeId(String employeeId) { this.employeeId = employeeId; }
     public void setDepartment(String department) { this.department = department; }
@@ -52,6 +103,6 @@ public class Instructor extends Person {
     @Override
     public String toString() {
         return String.format("Instructor[id=%s, empId=%s, name=%s, dept=%s, courses=%d]", 
-                           id, employeeId, name, department, assignedCourses.size());
+                           id, employeeId, name, department, assignedCourseRefs.length);
     }
 }
@@ -1,14 +1,20 @@
 package edu.ccrm.domain;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class Person {
     protected String id;
-    protected Name name;
-    protected String email;
+    // Setters swap values under the entity's monitor and notify listeners after releasing it, so a
+    // slow listener never blocks the entity; events for one entity may then arrive out of order.
+    // Reads are lock-free
+    protected volatile Name name;
+    protected volatile String email;
     protected LocalDate dateOfBirth;
-    protected boolean active;
+    protected volatile boolean active;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
     
     public Person(String id, Name name, String email, LocalDate dateOfBirth) {
         this.id = Objects.requireNonNull(id, "ID cannot be null");
@@ -27,9 +33,58 @@ public abstract class Person {
     public LocalDate getDateOfBirth() { return dateOfBirth; }
     public boolean isActive() { return active; }
     
-    public void setName(Name name) { this.name = name; }
-    public void setEmail(String email) { this.email = email; }
-    public void setActive(boolean active) { this.active = active; }
+    public void setName(Name name) {
+        Name old;
+        synchronized (this) {
+            old = this.name;
+            this.name = name;
+        }
+        fireChange(Property.NAME, old, name);
+    }
+    
+    public void setEmail(String email) {
+        String old;
+        synchronized (this) {
+            old = this.email;
+            this.email = email;
+        }
+        fireChange(Property.EMAIL, old, email);
+    }
+    
+    public void setActive(boolean active) {
+        boolean old;
+        synchronized (this) {
+            old = this.active;
+            this.active = active;
+        }
+        fireChange(Property.ACTIVE, old, active);
+    }
+    
+    // Properties that observers (e.g. service indexes) are notified about; REG_NO is fired by Student
+    public enum Property {
+        NAME, EMAIL, ACTIVE, REG_NO
+    }
+    
+    // Observer hook so services can keep derived data in sync with setter calls
+    @FunctionalInterface
+    public interface ChangeListener {
+        void onChange(Person person, Property property, Object oldValue, Object newValue);
+    }
+    
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "Listener cannot be null"));
+    }
+    
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    protected void fireChange(Property property, Object oldValue, Object newValue) {
+        if (Objects.equals(oldValue, newValue)) return;
+        for (ChangeListener listener : listeners) {
+            listener.onChange(this, property, oldValue, newValue);
+        }
+    }
     
     @Override
     public boolean equals(Object obj) {
@@ -2,20 +2,90 @@ package edu.ccrm.domain;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.UnaryOperator;
 
+/**
+ * Concurrency model: the course record is copy-on-write and swapped with a compare-and-set, so
+ * enrollInCourse, unenrollFromCourse and assignGrade are lock-free and never lose a concurrent
+ * update, and readers always see one consistent record. Person attributes (name, email, active,
+ * regNo) are swapped under the student's monitor and listeners are notified after it is released.
+ * Multi-step rules such as StudentService's credit limit are the service's job (it locks per
+ * student).
+ */
 public class Student extends Person {
-    private String regNo;
+    private volatile String regNo;
     private LocalDateTime enrollmentDate;
-    private Set<String> enrolledCourses;
-    private Map<String, Grade> grades;
+    
+    // Replaced on every enrollment or grade change, never modified, so read views can share it
+    private volatile CourseRecord record = CourseRecord.EMPTY;
+    private static final AtomicReferenceFieldUpdater<Student, CourseRecord> RECORD =
+            AtomicReferenceFieldUpdater.newUpdater(Student.class, CourseRecord.class, "record");
+    
+    public static final int DEFAULT_COURSE_CREDITS = 3;
+    private static final byte UNGRADED = -1;
+    private static final byte NO_SEMESTER = -1;
+    private static final Semester[] SEMESTERS = Semester.values();
+    private static final Grade[] GRADES = Grade.values();
+    private static final long ENROLLED_AT_BASE = LocalDateTime.of(2000, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    
+    /**
+     * Course enrollments as parallel columns sorted by course ref (see CourseCodes), about 14 bytes
+     * each, plus the running totals behind calculateGPA(). Changes copy the columns they touch;
+     * unchanged columns are shared with the previous record.
+     */
+    private static final class CourseRecord {
+        static final CourseRecord EMPTY = new CourseRecord(new int[0], new byte[0], new short[0], new int[0],
+                                                           new byte[0], new short[0], 0.0, 0, 0);
+        
+        final int[] refs;
+        final byte[] grades;          // Grade ordinal, or UNGRADED
+        final short[] credits;        // credits the grade was posted with
+        final int[] enrolledAt;       // seconds since ENROLLED_AT_BASE (local time)
+        final byte[] chargedTerm;     // Semester ordinal the enrollment counts against, or NO_SEMESTER
+        final short[] chargedCredits; // credits it counts there, as charged at enrollment
+        final double weightedGradePoints;
+        final int gradedCredits;
+        final int gradedCount;
+        
+        CourseRecord(int[] refs, byte[] grades, short[] credits, int[] enrolledAt,
+                     byte[] chargedTerm, short[] chargedCredits,
+                     double weightedGradePoints, int gradedCredits, int gradedCount) {
+            this.refs = refs;
+            this.grades = grades;
+            this.credits = credits;
+            this.enrolledAt = enrolledAt;
+            this.chargedTerm = chargedTerm;
+            this.chargedCredits = chargedCredits;
+            this.weightedGradePoints = weightedGradePoints;
+            this.gradedCredits = gradedCredits;
+            this.gradedCount = gradedCount;
+        }
+        
+        int slotOf(String courseCode) {
+            int ref = CourseCodes.lookup(courseCode);
+            return ref == CourseCodes.UNKNOWN ? -1 : Arrays.binarySearch(refs, ref);
+        }
+        
+        boolean isGraded(int slot) {
+            return slot >= 0 && grades[slot] != UNGRADED;
+        }
+        
+        double gradePoints(int slot) {
+            return isGraded(slot) ? GRADES[grades[slot]].getGradePoint() * credits[slot] : 0.0;
+        }
+        
+        int gradeCredits(int slot) {
+            return isGraded(slot) ? credits[slot] : 0;
+        }
+    }
     
     public Student(String id, String regNo, Name name, String email, LocalDate dateOfBirth) {
         super(id, name, email, dateOfBirth);
         this.regNo = Objects.requireNonNull(regNo, "Registration number cannot be null");
         this.enrollmentDate = LocalDateTime.now();
-        this.enrolledCourses = new HashSet<>();
-        this.grades = new HashMap<>();
     }
     
     @Override
@@ -33,43 +103,298 @@ public class Student extends Person {
         System.out.println("Date of Birth: " + dateOfBirth);
         System.out.println("Enrollment Date: " + enrollmentDate.toLocalDate());
         System.out.println("Status: " + (active ? "Active" : "Inactive"));
-        System.out.println("Enrolled Courses: " + enrolledCourses.size());
+        System.out.println("Enrolled Courses: " + getEnrolledCourseCount());
         System.out.println("GPA: " + String.format("%.2f", calculateGPA()));
     }
     
+    // Counts against no semester's credit load
     public void enrollInCourse(String courseCode) {
-        enrolledCourses.add(courseCode);
+        enrollInCourse(courseCode, null, 0);
+    }
+    
+    /**
+     * Enrolls the student and records the credits the enrollment counts against the semester's
+     * load (null = courses without a semester), so a drop gives back exactly that even if the
+     * course changes in between. No-op if already enrolled.
+     */
+    public void enrollInCourse(String courseCode, Semester semester, int chargedCredits) {
+        int ref = CourseCodes.encode(courseCode);
+        int enrolledAt = (int) (LocalDateTime.now().toEpochSecond(ZoneOffset.UTC) - ENROLLED_AT_BASE);
+        byte term = semester != null ? (byte) semester.ordinal() : NO_SEMESTER;
+        update(current -> withCourse(current, ref, enrolledAt, term, (short) chargedCredits));
+    }
+    
+    private static CourseRecord withCourse(CourseRecord current, int ref, int enrolledAt, byte term, short charged) {
+        int slot = Arrays.binarySearch(current.refs, ref);
+        if (slot >= 0) {
+            return current;
+        }
+        
+        slot = -slot - 1;
+        int[] refs = insert(current.refs, slot, ref);
+        byte[] grades = insert(current.grades, slot, UNGRADED);
+        short[] credits = insert(current.credits, slot, (short) 0);
+        int[] dates = insert(current.enrolledAt, slot, enrolledAt);
+        byte[] terms = insert(current.chargedTerm, slot, term);
+        short[] chargedCredits = insert(current.chargedCredits, slot, charged);
+        return new CourseRecord(refs, grades, credits, dates, terms, chargedCredits,
+                                current.weightedGradePoints, current.gradedCredits, current.gradedCount);
     }
     
     public void unenrollFromCourse(String courseCode) {
-        enrolledCourses.remove(courseCode);
-        grades.remove(courseCode);
+        update(current -> withoutCourse(current, current.slotOf(courseCode)));
     }
     
-    public void assignGrade(String courseCode, Grade grade) {
-        if (enrolledCourses.contains(courseCode)) {
-            grades.put(courseCode, grade);
+    private static CourseRecord withoutCourse(CourseRecord current, int slot) {
+        if (slot < 0) {
+            return current;
         }
+        
+        return new CourseRecord(remove(current.refs, slot), remove(current.grades, slot),
+                                remove(current.credits, slot), remove(current.enrolledAt, slot),
+                                remove(current.chargedTerm, slot), remove(current.chargedCredits, slot),
+                                current.weightedGradePoints - current.gradePoints(slot),
+                                current.gradedCredits - current.gradeCredits(slot),
+                                current.gradedCount - (current.isGraded(slot) ? 1 : 0));
+    }
+    
+    /**
+     * Takes over the enrollments and grades of the instance this one replaces, i.e. the same
+     * student saved again as a new object (an edited copy, a re-imported row, a replayed log
+     * record). Anything this instance was enrolled in itself is discarded.
+     */
+    public void inheritCourseRecord(Student previous) {
+        record = previous.record;
+    }
+    
+    // Credits weight the grade in the GPA; StudentService.assignGrade passes the course's own
+    public void assignGrade(String courseCode, Grade grade, int credits) {
+        Objects.requireNonNull(grade, "Grade cannot be null");
+        update(current -> withGrade(current, current.slotOf(courseCode), grade, credits));
+    }
+    
+    private static CourseRecord withGrade(CourseRecord current, int slot, Grade grade, int credits) {
+        if (slot < 0) {
+            return current;
+        }
+        
+        // Only the grade columns change; the rest are shared with the previous record
+        byte[] grades = current.grades.clone();
+        short[] gradeCredits = current.credits.clone();
+        grades[slot] = (byte) grade.ordinal();
+        gradeCredits[slot] = (short) credits;
+        return new CourseRecord(current.refs, grades, gradeCredits, current.enrolledAt,
+                                current.chargedTerm, current.chargedCredits,
+                                current.weightedGradePoints - current.gradePoints(slot) + grade.getGradePoint() * credits,
+                                current.gradedCredits - current.gradeCredits(slot) + credits,
+                                current.gradedCount + (current.isGraded(slot) ? 0 : 1));
+    }
+    
+    // Lock-free copy-on-write: recompute from the latest record until the swap wins
+    private void update(UnaryOperator<CourseRecord> change) {
+        for (;;) {
+            CourseRecord current = record;
+            CourseRecord next = change.apply(current);
+            if (next == current || RECORD.compareAndSet(this, current, next)) {
+                return;
+            }
+        }
+    }
+    
+    private static int[] insert(int[] values, int slot, int value) {
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        System.arraycopy(values, slot, result, slot + 1, values.length - slot);
+        result[slot] = value;
+        return result;
+    }
+    
+    private static short[] insert(short[] values, int slot, short value) {
+        short[] result = new short[values.length + 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        System.arraycopy(values, slot, result, slot + 1, values.length - slot);
+        result[slot] = value;
+        return result;
+    }
+    
+    private static byte[] insert(byte[] values, int slot, byte value) {
+        byte[] result = new byte[values.length + 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        System.arraycopy(values, slot, result, slot + 1, values.length - slot);
+        result[slot] = value;
+        return result;
+    }
+    
+    private static int[] remove(int[] values, int slot) {
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        System.arraycopy(values, slot + 1, result, slot, result.length - slot);
+        return result;
+    }
+    
+    private static short[] remove(short[] values, int slot) {
+        short[] result = new short[values.length - 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        System.arraycopy(values, slot + 1, result, slot, result.length - slot);
+        return result;
+    }
+    
+    private static byte[] remove(byte[] values, int slot) {
+        byte[] result = new byte[values.length - 1];
+        System.arraycopy(values, 0, result, 0, slot);
+        System.arraycopy(values, slot + 1, result, slot, result.length - slot);
+        return result;
     }
     
+    // Credit-weighted GPA, same formula as the transcript
     public double calculateGPA() {
-        if (grades.isEmpty()) return 0.0;
-        return grades.values().stream()
-                .mapToDouble(Grade::getGradePoint)
-                .average()
-                .orElse(0.0);
+        CourseRecord current = record;
+        return current.gradedCredits > 0 ? current.weightedGradePoints / current.gradedCredits : 0.0;
+    }
+    
+    public int getGradedCredits() { return record.gradedCredits; }
+    
+    public int getCreditsForCourse(String courseCode) {
+        CourseRecord current = record;
+        int slot = current.slotOf(courseCode);
+        return current.isGraded(slot) ? current.credits[slot] : DEFAULT_COURSE_CREDITS;
+    }
+    
+    // Credits the enrollment counts against its semester's load, 0 when not enrolled
+    public int getChargedCredits(String courseCode) {
+        CourseRecord current = record;
+        int slot = current.slotOf(courseCode);
+        return slot >= 0 ? current.chargedCredits[slot] : 0;
+    }
+    
+    // The semester the enrollment was charged to, null for none or when not enrolled
+    public Semester getChargedSemester(String courseCode) {
+        CourseRecord current = record;
+        int slot = current.slotOf(courseCode);
+        return slot >= 0 && current.chargedTerm[slot] != NO_SEMESTER ? SEMESTERS[current.chargedTerm[slot]] : null;
+    }
+    
+    // Credits carried in the semester (null = courses without a semester), summed over one record
+    public int getCreditsCarried(Semester semester) {
+        CourseRecord current = record;
+        byte term = semester != null ? (byte) semester.ordinal() : NO_SEMESTER;
+        int carried = 0;
+        for (int slot = 0; slot < current.refs.length; slot++) {
+            if (current.chargedTerm[slot] == term) {
+                carried += current.chargedCredits[slot];
+            }
+        }
+        return carried;
+    }
+    
+    public boolean isEnrolledIn(String courseCode) {
+        return record.slotOf(courseCode) >= 0;
+    }
+    
+    // null when not enrolled or not graded yet
+    public Grade getGrade(String courseCode) {
+        CourseRecord current = record;
+        int slot = current.slotOf(courseCode);
+        return current.isGraded(slot) ? GRADES[current.grades[slot]] : null;
     }
     
+    // When the student enrolled in the course (second precision), or null when not enrolled
+    public LocalDateTime getCourseEnrollmentDate(String courseCode) {
+        CourseRecord current = record;
+        int slot = current.slotOf(courseCode);
+        return slot >= 0 ? LocalDateTime.ofEpochSecond(ENROLLED_AT_BASE + current.enrolledAt[slot], 0, ZoneOffset.UTC) : null;
+    }
+    
+    public int getEnrolledCourseCount() { return record.refs.length; }
+    public int getGradedCourseCount() { return record.gradedCount; }
+    
     public String getRegNo() { return regNo; }
     public LocalDateTime getEnrollmentDate() { return enrollmentDate; }
-    public Set<String> getEnrolledCourses() { return new HashSet<>(enrolledCourses); }
-    public Map<String, Grade> getGrades() { return new HashMap<>(grades); }
     
-    public void setRegNo(String regNo) { this.regNo = regNo; }
+    // Read-only snapshot: later enrollments do not show up in it, and it is safe to hand out
+    public Set<String> getEnrolledCourses() {
+        return new CourseCodeSet(record.refs);
+    }
+    
+    // Read-only snapshot of course code -> grade for graded courses, same guarantees as above
+    public Map<String, Grade> getGrades() {
+        return new GradeMap(record);
+    }
+    
+    private static final class GradeMap extends AbstractMap<String, Grade> {
+        private final CourseRecord record;
+        
+        GradeMap(CourseRecord record) {
+            this.record = record;
+        }
+        
+        @Override
+        public Grade get(Object code) {
+            int slot = code instanceof String ? record.slotOf((String) code) : -1;
+            return record.isGraded(slot) ? GRADES[record.grades[slot]] : null;
+        }
+        
+        @Override
+        public boolean containsKey(Object code) {
+            return get(code) != null;
+        }
+        
+        @Override
+        public int size() {
+            return record.gradedCount;
+        }
+        
+        @Override
+        public Set<Entry<String, Grade>> entrySet() {
+            return new AbstractSet<Entry<String, Grade>>() {
+                @Override
+                public int size() {
+                    return record.gradedCount;
+                }
+                
+                @Override
+                public Iterator<Entry<String, Grade>> iterator() {
+                    return new Iterator<Entry<String, Grade>>() {
+                        private int next = advance(0);
+                        
+                        @Override
+                        public boolean hasNext() {
+                            return next < record.refs.length;
+                        }
+                        
+                        @Override
+                        public Entry<String, Grade> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            Entry<String, Grade> entry = new SimpleImmutableEntry<>(
+                                    CourseCodes.decode(record.refs[next]), GRADES[record.grades[next]]);
+                            next = advance(next + 1);
+                            return entry;
+                        }
+                        
+                        private int advance(int slot) {
+                            while (slot < record.refs.length && record.grades[slot] == UNGRADED) {
+                                slot++;
+                            }
+                            return slot;
+                        }
+                    };
+                }
+            };
+        }
+    }
+    
+    public void setRegNo(String regNo) {
+        String old;
+        synchronized (this) {
+            old = this.regNo;
+            this.regNo = regNo;
+        }
+        fireChange(Property.REG_NO, old, regNo);
+    }
     
     @Override
     public String toString() {
         return String.format("Student[id=%s, regNo=%s, name=%s, courses=%d, gpa=%.2f]", 
-                           id, regNo, name, enrolledCourses.size(), calculateGPA());
+                           id, regNo, name, getEnrolledCourseCount(), calculateGPA());
     }
 }
@@ -0,0 +1,312 @@
+package edu.ccrm.io;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Incremental, deduplicating backups.
+ * File contents live once in a content-addressed store (objects/ab/<sha-256>) under the backup
+ * folder; each timestamped backup directory holds hard links into it. A file whose size and
+ * modification time match the previous run reuses its recorded hash, so only changed files are
+ * read. A changed file is read once, hashed while it is copied into a temp file in the store, and
+ * the temp file is then filed under its hash, or dropped if that content is already stored. Files
+ * are processed in parallel.
+ *
+ * The bytes held by the store are tracked in a small total file, so sizing the backups does not
+ * walk the tree. The file also lists the backups it covers; if one has since been deleted or added
+ * by hand, the total is recomputed with one walk.
+ */
+public class BackupStore {
+    private static final String OBJECTS_DIR = "objects";
+    private static final String INDEX_FILE = "backup-index.tsv";
+    private static final String TOTAL_FILE = "backup-size.total";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    
+    private final Path root;
+    private final Path objects;
+    
+    // Hash recorded for one source file, valid while its size and modification time are unchanged
+    private static class IndexEntry {
+        final long size;
+        final long modified;
+        final String hash;
+        
+        IndexEntry(long size, long modified, String hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+    
+    public static class BackupSummary {
+        private final Path directory;
+        private final int files;
+        private final int newObjects;
+        private final long bytesCopied;
+        
+        BackupSummary(Path directory, int files, int newObjects, long bytesCopied) {
+            this.directory = directory;
+            this.files = files;
+            this.newObjects = newObjects;
+            this.bytesCopied = bytesCopied;
+        }
+        
+        public Path getDirectory() { return directory; }
+        public int getFiles() { return files; }
+        public int getNewObjects() { return newObjects; }
+        public long getBytesCopied() { return bytesCopied; }
+        
+        @Override
+        public String toString() {
+            return String.format("%d files, %d new, %d bytes copied", files, newObjects, bytesCopied);
+        }
+    }
+    
+    public BackupStore(Path root) {
+        this.root = root;
+        this.objects = root.resolve(OBJECTS_DIR);
+    }
+    
+    // Backs up the regular files directly inside sourceDir into root/<backupName>
+    public synchronized BackupSummary backup(Path sourceDir, String backupName) throws IOException {
+        long baseline = totalSize();
+        Path backupDir = root.resolve(backupName);
+        Files.createDirectories(backupDir);
+        Files.createDirectories(objects);
+        
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(sourceDir)) {
+            files = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        
+        Map<String, IndexEntry> previous = readIndex();
+        Map<String, IndexEntry> current = new ConcurrentHashMap<>();
+        AtomicInteger newObjects = new AtomicInteger();
+        AtomicLong bytesCopied = new AtomicLong();
+        
+        try {
+            files.parallelStream().forEach(file -> {
+                try {
+                    String name = file.getFileName().toString();
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    long modified = attributes.lastModifiedTime().toMillis();
+                    
+                    IndexEntry known = previous.get(name);
+                    String hash = known != null && known.size == attributes.size() && known.modified == modified
+                                  && Files.exists(objectPath(known.hash))
+                                  ? known.hash : storeObject(file, newObjects, bytesCopied);
+                    
+                    bytesCopied.addAndGet(link(objectPath(hash), backupDir.resolve(name)));
+                    current.put(name, new IndexEntry(attributes.size(), modified, hash));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        writeIndex(current);
+        writeTotal(baseline + bytesCopied.get(), listBackups());
+        return new BackupSummary(backupDir, files.size(), newObjects.get(), bytesCopied.get());
+    }
+    
+    // Bytes on disk used by all backups; shared content is counted once
+    public synchronized long totalSize() throws IOException {
+        Set<String> backups = listBackups();
+        Path totalFile = root.resolve(TOTAL_FILE);
+        if (Files.exists(totalFile)) {
+            // First line: the total; then one line per backup it covers
+            List<String> lines = Files.readAllLines(totalFile, StandardCharsets.UTF_8);
+            try {
+                if (!lines.isEmpty() && new HashSet<>(lines.subList(1, lines.size())).equals(backups)) {
+                    return Long.parseLong(lines.get(0).trim());
+                }
+            } catch (NumberFormatException e) {
+                // Recomputed below
+            }
+        }
+        long total = measure();
+        writeTotal(total, backups);
+        return total;
+    }
+    
+    // Names of the backup directories; one directory listing, not a walk
+    private Set<String> listBackups() throws IOException {
+        if (!Files.isDirectory(root)) {
+            return new HashSet<>();
+        }
+        try (Stream<Path> paths = Files.list(root)) {
+            return paths.filter(Files::isDirectory)
+                    .map(path -> path.getFileName().toString())
+                    .filter(name -> !name.equals(OBJECTS_DIR))
+                    .collect(Collectors.toCollection(HashSet::new));
+        }
+    }
+    
+    // One full walk, counting each hard-linked file once; used only when no total has been recorded
+    private long measure() throws IOException {
+        if (!Files.exists(root)) {
+            return 0;
+        }
+        Set<Object> seen = new HashSet<>();
+        long total = 0;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (!attributes.isRegularFile() || isBookkeeping(path)) {
+                    continue;
+                }
+                Object key = attributes.fileKey();
+                if (key == null || seen.add(key)) {
+                    total += attributes.size();
+                }
+            }
+        }
+        return total;
+    }
+    
+    private boolean isBookkeeping(Path path) {
+        return path.getParent().equals(root)
+               && (path.endsWith(INDEX_FILE) || path.endsWith(TOTAL_FILE));
+    }
+    
+    private void writeTotal(long total, Set<String> backups) throws IOException {
+        Files.createDirectories(root);
+        Path temp = root.resolve(TOTAL_FILE + ".tmp");
+        List<String> lines = new ArrayList<>(backups.size() + 1);
+        lines.add(Long.toString(total));
+        lines.addAll(new TreeSet<>(backups));
+        Files.write(temp, lines, StandardCharsets.UTF_8);
+        Files.move(temp, root.resolve(TOTAL_FILE), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private Path objectPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+    
+    // Copies the file into a temp file in the store, hashing it on the way, then files the copy under
+    // its hash unless that content is already stored. Returns the hash
+    private String storeObject(Path file, AtomicInteger newObjects, AtomicLong bytesCopied) throws IOException {
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(objects, "incoming", ".tmp");
+        try {
+            long size = 0;
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(file); OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    size += read;
+                }
+            }
+            
+            String hash = toHex(digest.digest());
+            Path object = objectPath(hash);
+            if (!Files.exists(object)) {
+                Files.createDirectories(object.getParent());
+                if (publish(temp, object)) {
+                    newObjects.incrementAndGet();
+                    bytesCopied.addAndGet(size);
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    // Never replaces an existing object, so two files with the same content share one copy; false if
+    // another writer stored it first
+    private static boolean publish(Path temp, Path object) throws IOException {
+        try {
+            Files.createLink(object, temp);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            try {
+                Files.move(temp, object);
+                return true;
+            } catch (FileAlreadyExistsException raced) {
+                return false;
+            }
+        }
+    }
+    
+    // Hard-links the object into the backup; falls back to a copy where links are unsupported
+    private long link(Path object, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        try {
+            Files.createLink(target, object);
+            return 0;
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(object, target);
+            return Files.size(target);
+        }
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+    
+    // Index line: name TAB size TAB modifiedMillis TAB hash
+    private Map<String, IndexEntry> readIndex() throws IOException {
+        Map<String, IndexEntry> index = new HashMap<>();
+        Path indexFile = root.resolve(INDEX_FILE);
+        if (!Files.exists(indexFile)) {
+            return index;
+        }
+        for (String line : Files.readAllLines(indexFile, StandardCharsets.UTF_8)) {
+            String[] parts = line.split("\t");
+            if (parts.length != 4) continue;
+            try {
+                index.put(parts[0], new IndexEntry(Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3]));
+            } catch (NumberFormatException e) {
+                // Stale or damaged line; the file is simply rehashed
+            }
+        }
+        return index;
+    }
+    
+    private void writeIndex(Map<String, IndexEntry> index) throws IOException {
+        Path temp = root.resolve(INDEX_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                IndexEntry value = entry.getValue();
+                writer.write(entry.getKey() + "\t" + value.size + "\t" + value.modified + "\t" + value.hash);
+                writer.newLine();
+            }
+        }
+        Files.move(temp, root.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,231 @@
+package edu.ccrm.io;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel CSV import over a memory-mapped file.
+ * The file is cut into chunks at record boundaries (newlines outside quoted fields, found by
+ * running CsvTokenizer's quoting rules over each chunk from every possible entry state), each
+ * chunk is decoded and tokenized on the common fork-join pool, and results are merged in file order.
+ */
+public class CsvImporter {
+    public static final long DEFAULT_CHUNK_SIZE = 8L * 1024 * 1024;
+    private static final long SCAN_WINDOW = 64L * 1024;
+    
+    // Boundary scan states, mirroring CsvTokenizer: a quote only opens a field at its start,
+    // and a quoted field closed by anything but a delimiter is skipped to the end of the line
+    private static final int FIELD_START = 0;
+    private static final int PLAIN = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int BAD_CLOSE = 4;
+    private static final int STATES = 5;
+    
+    private final long chunkSize;
+    
+    // Maps one tokenized record to an entity; throw to reject the row
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(CsvTokenizer row) throws Exception;
+    }
+    
+    public CsvImporter() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+    
+    public CsvImporter(long chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+    
+    public <T> ImportResult<T> importFile(Path file, boolean hasHeader, RowMapper<T> mapper) throws IOException {
+        long startTime = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new ImportResult<>(new ArrayList<>(), new ArrayList<>(), 0, 0, 0);
+            }
+            
+            int chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            long[] starts = new long[chunkCount + 1];
+            int[] firstLines = new int[chunkCount];
+            findRecordBoundaries(channel, size, chunkCount, starts, firstLines);
+            
+            List<ChunkResult<T>> chunks;
+            try {
+                chunks = IntStream.range(0, chunkCount).parallel()
+                        .mapToObj(i -> parseChunk(channel, starts[i], starts[i + 1], firstLines[i],
+                                                  hasHeader && i == 0, mapper))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            
+            List<T> records = new ArrayList<>();
+            List<ImportResult.RowError> errors = new ArrayList<>();
+            long rows = 0;
+            for (ChunkResult<T> chunk : chunks) {
+                records.addAll(chunk.records);
+                errors.addAll(chunk.errors);
+                rows += chunk.rows;
+            }
+            return new ImportResult<>(records, errors, rows, size, System.currentTimeMillis() - startTime);
+        }
+    }
+    
+    private static class ChunkResult<T> {
+        final List<T> records = new ArrayList<>();
+        final List<ImportResult.RowError> errors = new ArrayList<>();
+        long rows;
+    }
+    
+    // Fills starts[] with record-aligned chunk offsets and firstLines[] with each chunk's 1-based line number
+    private void findRecordBoundaries(FileChannel channel, long size, int chunkCount,
+                                      long[] starts, int[] firstLines) throws IOException {
+        // exits[i][s] is the state chunk i ends in when entered in state s
+        int[][] exits = new int[chunkCount][];
+        long[] newlines = new long[chunkCount];
+        try {
+            IntStream.range(0, chunkCount).parallel().forEach(i -> {
+                long from = i * chunkSize;
+                ByteBuffer bytes = map(channel, from, Math.min(size, from + chunkSize));
+                int[] states = {FIELD_START, PLAIN, QUOTED, QUOTE_IN_QUOTED, BAD_CLOSE};
+                long n = 0;
+                while (bytes.hasRemaining()) {
+                    byte b = bytes.get();
+                    if (b == '\n') n++;
+                    for (int s = 0; s < STATES; s++) {
+                        states[s] = step(states[s], b);
+                    }
+                }
+                exits[i] = states;
+                newlines[i] = n;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        
+        starts[chunkCount] = size;
+        firstLines[0] = 1;
+        int entryState = FIELD_START;
+        long linesBefore = 0;
+        for (int i = 1; i < chunkCount; i++) {
+            entryState = exits[i - 1][entryState];
+            linesBefore += newlines[i - 1];
+            
+            // Scan forward from the raw split point to the first newline outside a quoted field
+            long rawStart = i * chunkSize;
+            int state = entryState;
+            long lines = linesBefore;
+            long boundary = size;
+            long windowStart = rawStart;
+            search:
+            while (windowStart < size) {
+                ByteBuffer bytes = map(channel, windowStart, Math.min(size, windowStart + SCAN_WINDOW));
+                while (bytes.hasRemaining()) {
+                    byte b = bytes.get();
+                    state = step(state, b);
+                    if (b == '\n') {
+                        lines++;
+                        if (state != QUOTED) {
+                            boundary = windowStart + bytes.position();
+                            break search;
+                        }
+                    }
+                }
+                windowStart += SCAN_WINDOW;
+            }
+            
+            // A record spanning several raw chunks simply leaves the chunks it swallowed empty
+            starts[i] = boundary;
+            firstLines[i] = (int) (lines + 1);
+        }
+    }
+    
+    private static int step(int state, byte b) {
+        boolean endOfLine = b == '\n' || b == '\r';
+        switch (state) {
+            case FIELD_START:
+                if (b == '"') return QUOTED;
+                return b == ',' || endOfLine ? FIELD_START : PLAIN;
+            case PLAIN:
+                return b == ',' || endOfLine ? FIELD_START : PLAIN;
+            case QUOTED:
+                return b == '"' ? QUOTE_IN_QUOTED : QUOTED;
+            case QUOTE_IN_QUOTED:
+                if (b == '"') return QUOTED; // escaped quote
+                return b == ',' || endOfLine ? FIELD_START : BAD_CLOSE;
+            default:
+                return endOfLine ? FIELD_START : BAD_CLOSE;
+        }
+    }
+    
+    private <T> ChunkResult<T> parseChunk(FileChannel channel, long from, long to, int firstLine,
+                                          boolean skipHeader, RowMapper<T> mapper) {
+        ChunkResult<T> result = new ChunkResult<>();
+        if (to <= from) {
+            return result;
+        }
+        if (to - from > Integer.MAX_VALUE) {
+            throw new UncheckedIOException(new IOException("CSV record larger than 2 GB at byte " + from));
+        }
+        
+        CharBuffer chars;
+        try {
+            CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            chars = decoder.decode(map(channel, from, to));
+        } catch (CharacterCodingException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        CsvTokenizer tokenizer = new CsvTokenizer(chars.array(), chars.arrayOffset(),
+                                                  chars.arrayOffset() + chars.limit(), firstLine);
+        if (skipHeader) {
+            tokenizer.next();
+        }
+        while (tokenizer.next()) {
+            result.rows++;
+            if (tokenizer.error() != null) {
+                result.errors.add(new ImportResult.RowError(tokenizer.lineNumber(), tokenizer.error()));
+                continue;
+            }
+            try {
+                T record = mapper.map(tokenizer);
+                if (record != null) {
+                    result.records.add(record);
+                }
+            } catch (Exception e) {
+                result.errors.add(new ImportResult.RowError(tokenizer.lineNumber(), describe(e)));
+            }
+        }
+        return result;
+    }
+    
+    private static MappedByteBuffer map(FileChannel channel, long from, long to) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static String describe(Exception e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,158 @@
+package edu.ccrm.io;
+
+import java.util.Arrays;
+
+/**
+ * Hand-written RFC 4180 record reader over a char array.
+ * Handles quoted fields (embedded commas, quotes and line breaks) and CRLF endings
+ * without regex or per-line String copies. Field arrays and the quote buffer are reused.
+ */
+public class CsvTokenizer {
+    private final char[] buf;
+    private final int limit;
+    private int pos;
+    private int line;
+    
+    private final StringBuilder quoted = new StringBuilder();
+    private String[] fields = new String[16];
+    private int fieldCount;
+    private int recordLine;
+    private String error;
+    
+    public CsvTokenizer(char[] buf, int offset, int limit, int firstLine) {
+        this.buf = buf;
+        this.pos = offset;
+        this.limit = limit;
+        this.line = firstLine;
+    }
+    
+    public CsvTokenizer(String text) {
+        this(text.toCharArray(), 0, text.length(), 1);
+    }
+    
+    // Advances to the next non-blank record; returns false at end of input
+    public boolean next() {
+        fieldCount = 0;
+        error = null;
+        skipBlankLines();
+        if (pos >= limit) {
+            return false;
+        }
+        
+        recordLine = line;
+        while (true) {
+            if (buf[pos] == '"') {
+                if (!readQuotedField()) {
+                    skipToEndOfLine();
+                    return true;
+                }
+            } else {
+                readPlainField();
+            }
+            
+            if (pos >= limit) {
+                return true;
+            }
+            char c = buf[pos];
+            if (c == ',') {
+                pos++;
+                if (pos >= limit) {
+                    addField("");
+                    return true;
+                }
+            } else {
+                endOfLine();
+                return true;
+            }
+        }
+    }
+    
+    public int fieldCount() { return fieldCount; }
+    public int lineNumber() { return recordLine; }
+    
+    // Non-null when the current record is malformed
+    public String error() { return error; }
+    
+    public String field(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " of " + fieldCount);
+        }
+        return fields[index];
+    }
+    
+    // Optional field: empty or missing columns read as null
+    public String optionalField(int index) {
+        return index < fieldCount && !fields[index].isEmpty() ? fields[index] : null;
+    }
+    
+    public String[] toArray() {
+        return Arrays.copyOf(fields, fieldCount);
+    }
+    
+    private void readPlainField() {
+        int start = pos;
+        while (pos < limit) {
+            char c = buf[pos];
+            if (c == ',' || c == '\n' || c == '\r') break;
+            pos++;
+        }
+        addField(new String(buf, start, pos - start));
+    }
+    
+    private boolean readQuotedField() {
+        int openLine = line;
+        pos++; // opening quote
+        quoted.setLength(0);
+        while (true) {
+            if (pos >= limit) {
+                error = "Unterminated quoted field starting on line " + openLine;
+                return false;
+            }
+            char c = buf[pos++];
+            if (c == '"') {
+                if (pos < limit && buf[pos] == '"') {
+                    quoted.append('"');
+                    pos++;
+                } else {
+                    break;
+                }
+            } else {
+                if (c == '\n') line++;
+                quoted.append(c);
+            }
+        }
+        
+        if (pos < limit && buf[pos] != ',' && buf[pos] != '\n' && buf[pos] != '\r') {
+            error = "Unexpected character after closing quote";
+            return false;
+        }
+        addField(quoted.toString());
+        return true;
+    }
+    
+    private void addField(String value) {
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fieldCount * 2);
+        }
+        fields[fieldCount++] = value;
+    }
+    
+    private void skipBlankLines() {
+        while (pos < limit && (buf[pos] == '\n' || buf[pos] == '\r')) {
+            endOfLine();
+        }
+    }
+    
+    private void skipToEndOfLine() {
+        while (pos < limit && buf[pos] != '\n' && buf[pos] != '\r') {
+            pos++;
+        }
+        endOfLine();
+    }
+    
+    private void endOfLine() {
+        if (pos < limit && buf[pos] == '\r') pos++;
+        if (pos < limit && buf[pos] == '\n') pos++;
+        line++;
+    }
+}
@@ -2,188 +2,380 @@ package edu.ccrm.io;
 
 import edu.ccrm.domain.*;
 import edu.ccrm.config.AppConfig;
+import edu.ccrm.metrics.BackupEvent;
+import edu.ccrm.metrics.CsvExportEvent;
+import edu.ccrm.metrics.CsvImportEvent;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.metrics.OperationTimer;
+import edu.ccrm.service.BatchEnrollmentResult;
+import edu.ccrm.service.EnrollmentRequest;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 public class FileOperations {
+    private static final OperationTimer EXPORT_TIMER = Metrics.getInstance().timer("csv.export");
+    private static final OperationTimer IMPORT_TIMER = Metrics.getInstance().timer("csv.import");
+    private static final OperationTimer BACKUP_TIMER = Metrics.getInstance().timer("backup.create");
+    private static final LongAdder ROWS_EXPORTED = Metrics.getInstance().counter("csv.rows.exported");
+    private static final LongAdder ROWS_IMPORTED = Metrics.getInstance().counter("csv.rows.imported");
+    private static final LongAdder ROWS_REJECTED = Metrics.getInstance().counter("csv.rows.rejected");
+    private static final LongAdder BACKUP_BYTES = Metrics.getInstance().counter("backup.bytes.copied");
     private final AppConfig config = AppConfig.getInstance();
+    private final CsvImporter csvImporter = new CsvImporter();
+    private final BackupStore backupStore = new BackupStore(config.getBackupFolderPath());
     
-    public void exportStudentsToCSV(List<Student> students, String filename) throws IOException {
-        Path exportPath = config.getExportFolderPath();
-        Files.createDirectories(exportPath);
-        
-        Path filePath = exportPath.resolve(filename);
-        List<String> lines = new ArrayList<>();
-        lines.add("ID,RegNo,FirstName,LastName,Email,DateOfBirth,Active,EnrollmentDate");
-        
-        for (Student student : students) {
-            String line = String.join(",",
-                student.getId(),
-                student.getRegNo(),
-                student.getName().getFirstName(),
-                student.getName().getLastName(),
-                student.getEmail(),
-                student.getDateOfBirth().toString(),
-                String.valueOf(student.isActive()),
-                student.getEnrollmentDate().toLocalDate().toString()
-            );
-            lines.add(line);
+    private static final String STUDENT_CSV_HEADER = "ID,RegNo,FirstName,LastName,Email,DateOfBirth,Active,EnrollmentDate";
+    private static final String COURSE_CSV_HEADER = "Code,Title,Credits,InstructorId,Semester,Department,Active,Capacity";
+    private static final String ENROLLMENT_REPORT_HEADER = "Line,StudentId,CourseCode,Status,Message";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    
+    // Functional interface for writing one entity as a CSV row
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(Writer out, T entity) throws IOException;
+    }
+    
+    public long exportStudentsToCSV(List<Student> students, String filename) throws IOException {
+        return exportStudentsToCSV(students.iterator(), filename, false);
+    }
+    
+    public long exportStudentsToCSV(Stream<Student> students, String filename, boolean gzip) throws IOException {
+        return exportStudentsToCSV(students.iterator(), filename, gzip);
+    }
+    
+    public long exportStudentsToCSV(Iterator<Student> students, String filename, boolean gzip) throws IOException {
+        return exportCSV(students, filename, gzip, STUDENT_CSV_HEADER, this::writeStudentRow, "Students");
+    }
+    
+    public long exportCoursesToCSV(List<Course> courses, String filename) throws IOException {
+        return exportCoursesToCSV(courses.iterator(), filename, false);
+    }
+    
+    public long exportCoursesToCSV(Stream<Course> courses, String filename, boolean gzip) throws IOException {
+        return exportCoursesToCSV(courses.iterator(), filename, gzip);
+    }
+    
+    public long exportCoursesToCSV(Iterator<Course> courses, String filename, boolean gzip) throws IOException {
+        return exportCSV(courses, filename, gzip, COURSE_CSV_HEADER, this::writeCourseRow, "Courses");
+    }
+    
+    /**
+     * Per-row outcome of a batch enrollment: every data line of the request file, in file order,
+     * as ENROLLED or REJECTED with the reason. Lines that could not be parsed are reported with
+     * the parse error.
+     */
+    public long exportEnrollmentReport(ImportResult<EnrollmentRequest> parsed, BatchEnrollmentResult result,
+                                       String filename) throws IOException {
+        List<BatchEnrollmentResult.Row> rows = new ArrayList<>(result.getRows().size() + parsed.getRejectedCount());
+        Iterator<ImportResult.RowError> errors = parsed.getErrors().iterator();
+        ImportResult.RowError error = errors.hasNext() ? errors.next() : null;
+        for (BatchEnrollmentResult.Row row : result.getRows()) {
+            while (error != null && error.getLineNumber() < row.getLineNumber()) {
+                rows.add(new BatchEnrollmentResult.Row(error.getLineNumber(), null, null, error.getMessage()));
+                error = errors.hasNext() ? errors.next() : null;
+            }
+            rows.add(row);
         }
-        
-        Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        System.out.println("Students exported to: " + filePath.toAbsolutePath());
+        while (error != null) {
+            rows.add(new BatchEnrollmentResult.Row(error.getLineNumber(), null, null, error.getMessage()));
+            error = errors.hasNext() ? errors.next() : null;
+        }
+        return exportCSV(rows.iterator(), filename, false, ENROLLMENT_REPORT_HEADER, this::writeEnrollmentReportRow,
+                         "Enrollment report");
     }
     
-    public void exportCoursesToCSV(List<Course> courses, String filename) throws IOException {
-        Path exportPath = config.getExportFolderPath();
-        Files.createDirectories(exportPath);
-        
-        Path filePath = exportPath.resolve(filename);
-        List<String> lines = new ArrayList<>();
-        lines.add("Code,Title,Credits,InstructorId,Semester,Department,Active");
-        
-        for (Course course : courses) {
-            String line = String.join(",",
-                course.getCode(),
-                course.getTitle(),
-                String.valueOf(course.getCredits()),
-                course.getInstructorId() != null ? course.getInstructorId() : "",
-                course.getSemester() != null ? course.getSemester().name() : "",
-                course.getDepartment() != null ? course.getDepartment() : "",
-                String.valueOf(course.isActive())
-            );
-            lines.add(line);
+    // Rows go straight to a buffered (optionally gzipped) stream; nothing is collected in memory
+    private <T> long exportCSV(Iterator<T> entities, String filename, boolean gzip, String header,
+                               RowWriter<T> rowWriter, String label) throws IOException {
+        long start = EXPORT_TIMER.start();
+        CsvExportEvent event = new CsvExportEvent();
+        event.begin();
+        event.entity = label;
+        event.gzip = gzip;
+        try {
+            Path exportPath = config.getExportFolderPath();
+            Files.createDirectories(exportPath);
+            
+            Path filePath = exportPath.resolve(gzip && !filename.endsWith(".gz") ? filename + ".gz" : filename);
+            event.file = filePath.toString();
+            long rows = 0;
+            try (Writer out = openWriter(filePath, gzip)) {
+                out.write(header);
+                out.write('\n');
+                while (entities.hasNext()) {
+                    rowWriter.write(out, entities.next());
+                    out.write('\n');
+                    rows++;
+                }
+            }
+            
+            ROWS_EXPORTED.add(rows);
+            event.rows = rows;
+            if (event.isEnabled()) {
+                event.bytes = Files.size(filePath);
+            }
+            System.out.println(label + " exported to: " + filePath.toAbsolutePath());
+            return rows;
+        } catch (IOException | RuntimeException e) {
+            EXPORT_TIMER.failed();
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            EXPORT_TIMER.stop(start);
+            event.commit();
         }
-        
-        Files.write(filePath, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        System.out.println("Courses exported to: " + filePath.toAbsolutePath());
     }
     
-    public List<Student> importStudentsFromCSV(String filename) throws IOException {
-        Path filePath = Paths.get(filename);
-        if (!Files.exists(filePath)) {
-            throw new IOException("File not found: " + filename);
+    private Writer openWriter(Path filePath, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(filePath, StandardOpenOption.CREATE, 
+                                                 StandardOpenOption.TRUNCATE_EXISTING);
+        if (gzip) {
+            out = new GZIPOutputStream(out, WRITE_BUFFER_SIZE);
         }
-        
-        List<Student> students = new ArrayList<>();
-        try (Stream<String> lines = Files.lines(filePath)) {
-            students = lines.skip(1) // Skip header
-                    .map(this::parseStudentFromCSV)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+    }
+    
+    private void writeStudentRow(Writer out, Student student) throws IOException {
+        writeField(out, student.getId());
+        out.write(',');
+        writeField(out, student.getRegNo());
+        out.write(',');
+        writeField(out, student.getName().getFirstName());
+        out.write(',');
+        writeField(out, student.getName().getLastName());
+        out.write(',');
+        writeField(out, student.getEmail());
+        out.write(',');
+        out.write(student.getDateOfBirth().toString());
+        out.write(',');
+        out.write(student.isActive() ? "true" : "false");
+        out.write(',');
+        out.write(student.getEnrollmentDate().toLocalDate().toString());
+    }
+    
+    private void writeCourseRow(Writer out, Course course) throws IOException {
+        writeField(out, course.getCode());
+        out.write(',');
+        writeField(out, course.getTitle());
+        out.write(',');
+        out.write(Integer.toString(course.getCredits()));
+        out.write(',');
+        writeField(out, course.getInstructorId());
+        out.write(',');
+        if (course.getSemester() != null) out.write(course.getSemester().name());
+        out.write(',');
+        writeField(out, course.getDepartment());
+        out.write(',');
+        out.write(course.isActive() ? "true" : "false");
+        out.write(',');
+        out.write(Integer.toString(course.getCapacity()));
+    }
+    
+    private void writeEnrollmentReportRow(Writer out, BatchEnrollmentResult.Row row) throws IOException {
+        out.write(Integer.toString(row.getLineNumber()));
+        out.write(',');
+        writeField(out, row.getStudentId());
+        out.write(',');
+        writeField(out, row.getCourseCode());
+        out.write(',');
+        out.write(row.isEnrolled() ? "ENROLLED" : "REJECTED");
+        out.write(',');
+        writeField(out, row.getReason());
+    }
+    
+    // RFC 4180 quoting, only for values that need it
+    private void writeField(Writer out, String value) throws IOException {
+        if (value == null) return;
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length() && !needsQuotes; i++) {
+            char c = value.charAt(i);
+            needsQuotes = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!needsQuotes) {
+            out.write(value);
+            return;
         }
         
-        System.out.println("Imported " + students.size() + " students from: " + filePath.toAbsolutePath());
-        return students;
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+    
+    public List<Student> importStudentsFromCSV(String filename) throws IOException {
+        ImportResult<Student> result = importStudents(filename);
+        System.out.println("Imported " + result.getAcceptedCount() + " students from: " 
+                           + Paths.get(filename).toAbsolutePath() + rejectedSuffix(result));
+        return result.getRecords();
     }
     
     public List<Course> importCoursesFromCSV(String filename) throws IOException {
+        ImportResult<Course> result = importCourses(filename);
+        System.out.println("Imported " + result.getAcceptedCount() + " courses from: " 
+                           + Paths.get(filename).toAbsolutePath() + rejectedSuffix(result));
+        return result.getRecords();
+    }
+    
+    // Full import outcome, including the per-row error report
+    public ImportResult<Student> importStudents(String filename) throws IOException {
+        return importCSV(filename, "Student", this::parseStudentFromCSV);
+    }
+    
+    public ImportResult<Course> importCourses(String filename) throws IOException {
+        return importCSV(filename, "Course", this::parseCourseFromCSV);
+    }
+    
+    // Batch enrollment file: a header line, then StudentId,CourseCode per line
+    public ImportResult<EnrollmentRequest> importEnrollmentRequests(String filename) throws IOException {
+        return importCSV(filename, "EnrollmentRequest", this::parseEnrollmentRequest);
+    }
+    
+    private <T> ImportResult<T> importCSV(String filename, String entity, CsvImporter.RowMapper<T> mapper)
+            throws IOException {
+        long start = IMPORT_TIMER.start();
+        CsvImportEvent event = new CsvImportEvent();
+        event.begin();
+        event.file = filename;
+        event.entity = entity;
+        try {
+            ImportResult<T> result = csvImporter.importFile(existingFile(filename), true, mapper);
+            ROWS_IMPORTED.add(result.getAcceptedCount());
+            ROWS_REJECTED.add(result.getRejectedCount());
+            event.acceptedRows = result.getAcceptedCount();
+            event.rejectedRows = result.getRejectedCount();
+            event.bytes = result.getBytesRead();
+            return result;
+        } catch (IOException | RuntimeException e) {
+            IMPORT_TIMER.failed();
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            IMPORT_TIMER.stop(start);
+            event.commit();
+        }
+    }
+    
+    private Path existingFile(String filename) throws IOException {
         Path filePath = Paths.get(filename);
         if (!Files.exists(filePath)) {
             throw new IOException("File not found: " + filename);
         }
-        
-        List<Course> courses = new ArrayList<>();
-        try (Stream<String> lines = Files.lines(filePath)) {
-            courses = lines.skip(1) // Skip header
-                    .map(this::parseCourseFromCSV)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
-        }
-        
-        System.out.println("Imported " + courses.size() + " courses from: " + filePath.toAbsolutePath());
-        return courses;
+        return filePath;
     }
     
-    private Student parseStudentFromCSV(String line) {
-        try {
-            String[] parts = line.split(",");
-            if (parts.length >= 6) {
-                Name name = new Name(parts[2], parts[3]);
-                return new Student(parts[0], parts[1], name, parts[4], 
-                                 java.time.LocalDate.parse(parts[5]));
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing student line: " + line + " - " + e.getMessage());
-        }
-        return null;
+    private String rejectedSuffix(ImportResult<?> result) {
+        return result.hasErrors() ? " (" + result.getRejectedCount() + " rows rejected)" : "";
     }
     
-    private Course parseCourseFromCSV(String line) {
-        try {
-            String[] parts = line.split(",");
-            if (parts.length >= 4) {
-                Course.Builder builder = new Course.Builder(parts[0], parts[1])
-                        .credits(Integer.parseInt(parts[2]));
-                
-                if (parts.length > 3 && !parts[3].isEmpty()) {
-                    builder.instructor(parts[3]);
-                }
-                if (parts.length > 4 && !parts[4].isEmpty()) {
-                    builder.semester(Semester.valueOf(parts[4]));
-                }
-                if (parts.length > 5 && !parts[5].isEmpty()) {
-                    builder.department(parts[5]);
-                }
-                
-                return builder.build();
-            }
-        } catch (Exception e) {
-            System.err.println("Error parsing course line: " + line + " - " + e.getMessage());
+    private Student parseStudentFromCSV(CsvTokenizer row) {
+        requireFields(row, 6);
+        Name name = new Name(row.field(2), row.field(3));
+        Student student = new Student(row.field(0), row.field(1), name, row.field(4), 
+                                      LocalDate.parse(row.field(5)));
+        if ("false".equalsIgnoreCase(row.optionalField(6))) {
+            student.setActive(false);
         }
-        return null;
+        return student;
     }
     
-    public void createBackup() throws IOException {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-        Path backupDir = config.getBackupFolderPath().resolve("backup_" + timestamp);
-        Files.createDirectories(backupDir);
+    private Course parseCourseFromCSV(CsvTokenizer row) {
+        requireFields(row, 3);
+        Course.Builder builder = new Course.Builder(row.field(0), row.field(1))
+                .credits(Integer.parseInt(row.field(2)));
         
-        Path exportDir = config.getExportFolderPath();
-        if (Files.exists(exportDir)) {
-            try (Stream<Path> files = Files.walk(exportDir, 1)) {
-                files.filter(Files::isRegularFile)
-                     .forEach(file -> {
-                         try {
-                             Files.copy(file, backupDir.resolve(file.getFileName()), 
-                                       StandardCopyOption.REPLACE_EXISTING);
-                         } catch (IOException e) {
-                             System.err.println("Error copying file: " + e.getMessage());
-                         }
-                     });
-            }
+        String instructorId = row.optionalField(3);
+        if (instructorId != null) {
+            builder.instructor(instructorId);
+        }
+        String semester = row.optionalField(4);
+        if (semester != null) {
+            builder.semester(Semester.valueOf(semester));
+        }
+        String department = row.optionalField(5);
+        if (department != null) {
+            builder.department(department);
+        }
+        // Files exported before capacities existed have no eighth column: unlimited
+        String capacity = row.optionalField(7);
+        if (capacity != null) {
+            builder.capacity(Integer.parseInt(capacity));
         }
         
-        System.out.println("Backup created at: " + backupDir.toAbsolutePath());
+        Course course = builder.build();
+        if ("false".equalsIgnoreCase(row.optionalField(6))) {
+            course.setActive(false);
+        }
+        return course;
     }
     
-    // Recursive utility to calculate total size of backup directory
-    public long calculateBackupSize() throws IOException {
-        Path backupDir = config.getBackupFolderPath();
-        if (!Files.exists(backupDir)) {
-            return 0;
+    private EnrollmentRequest parseEnrollmentRequest(CsvTokenizer row) {
+        requireFields(row, 2);
+        String studentId = row.optionalField(0);
+        String courseCode = row.optionalField(1);
+        if (studentId == null || courseCode == null) {
+            throw new IllegalArgumentException("Student ID and course code are required");
         }
-        
-        return calculateDirectorySize(backupDir);
+        return new EnrollmentRequest(row.lineNumber(), studentId.trim(), courseCode.trim());
     }
     
-    private long calculateDirectorySize(Path directory) throws IOException {
-        if (!Files.isDirectory(directory)) {
-            return Files.size(directory);
+    private static void requireFields(CsvTokenizer row, int expected) {
+        if (row.fieldCount() < expected) {
+            throw new IllegalArgumentException("Expected at least " + expected + " fields, found " + row.fieldCount());
         }
-        
-        long totalSize = 0;
-        try (Stream<Path> paths = Files.list(directory)) {
-            for (Path path : paths.collect(Collectors.toList())) {
-                totalSize += calculateDirectorySize(path); // Recursive call
+    }
+    
+    // Unchanged export files are hard-linked to content already in the backup store; see BackupStore
+    public void createBackup() throws IOException {
+        long start = BACKUP_TIMER.start();
+        BackupEvent event = new BackupEvent();
+        event.begin();
+        try {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+            String backupName = "backup_" + timestamp;
+            event.backupName = backupName;
+            
+            Path exportDir = config.getExportFolderPath();
+            if (!Files.exists(exportDir)) {
+                Path backupDir = Files.createDirectories(config.getBackupFolderPath().resolve(backupName));
+                System.out.println("Backup created at: " + backupDir.toAbsolutePath() + " (export folder is empty)");
+                return;
             }
+            
+            BackupStore.BackupSummary summary = backupStore.backup(exportDir, backupName);
+            BACKUP_BYTES.add(summary.getBytesCopied());
+            event.files = summary.getFiles();
+            event.newObjects = summary.getNewObjects();
+            event.bytesCopied = summary.getBytesCopied();
+            System.out.println("Backup created at: " + summary.getDirectory().toAbsolutePath() + " (" + summary + ")");
+        } catch (IOException | RuntimeException e) {
+            BACKUP_TIMER.failed();
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            BACKUP_TIMER.stop(start);
+            event.commit();
         }
-        return totalSize;
+    }
+    
+    // Disk space used by all backups, with shared content counted once; maintained by the backup store
+    public long calculateBackupSize() throws IOException {
+        return backupStore.totalSize();
     }
     
     // Recursive utility to list files by depth
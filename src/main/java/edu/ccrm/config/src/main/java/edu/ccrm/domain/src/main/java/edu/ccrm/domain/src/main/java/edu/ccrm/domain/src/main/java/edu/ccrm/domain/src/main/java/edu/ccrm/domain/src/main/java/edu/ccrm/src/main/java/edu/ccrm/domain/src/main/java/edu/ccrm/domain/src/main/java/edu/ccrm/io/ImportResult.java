@@ -0,0 +1,62 @@
+package edu.ccrm.io;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of a CSV import: parsed records plus a structured report of rejected rows
+public class ImportResult<T> {
+    private final List<T> records;
+    private final List<RowError> errors;
+    private final long rowsRead;
+    private final long bytesRead;
+    private final long elapsedMillis;
+    
+    public ImportResult(List<T> records, List<RowError> errors, long rowsRead, long bytesRead, long elapsedMillis) {
+        this.records = Collections.unmodifiableList(records);
+        this.errors = Collections.unmodifiableList(errors);
+        this.rowsRead = rowsRead;
+        this.bytesRead = bytesRead;
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public static class RowError {
+        private final int lineNumber;
+        private final String message;
+        
+        public RowError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+        
+        public int getLineNumber() { return lineNumber; }
+        public String getMessage() { return message; }
+        
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + message;
+        }
+    }
+    
+    public List<T> getRecords() { return records; }
+    public List<RowError> getErrors() { return errors; }
+    public long getRowsRead() { return rowsRead; }
+    public long getBytesRead() { return bytesRead; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public int getAcceptedCount() { return records.size(); }
+    public int getRejectedCount() { return errors.size(); }
+    public boolean hasErrors() { return !errors.isEmpty(); }
+    
+    public void printErrorReport(int maxLines) {
+        System.out.println("Rejected rows: " + errors.size());
+        errors.stream().limit(maxLines).forEach(error -> System.out.println("  " + error));
+        if (errors.size() > maxLines) {
+            System.out.println("  ... " + (errors.size() - maxLines) + " more");
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("ImportResult[rows=%d, accepted=%d, rejected=%d, bytes=%d, time=%dms]",
+                           rowsRead, records.size(), errors.size(), bytesRead, elapsedMillis);
+    }
+}
@@ -0,0 +1,376 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.BulkWriteResult;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the student and course services (format version 4; versions 2 and 3 are still read).
+ *
+ * Layout, all integers big-endian, strings as [int byteLength or -1 for null][UTF-8 bytes]:
+ *   header      [int magic][int version][long createdAtMillis]
+ *   instructors [int count] count x string                          (instructor IDs referenced by courses)
+ *   courses     [int count] count x [code][title][int credits][int instructorRef or -1]
+ *                                   [byte semester or -1][department][byte active][int capacity]
+ *   students    [int count] count x [id][regNo][firstName][lastName][email][long dateOfBirthEpochDay]
+ *                                   [byte active][int enrollments] enrollments x [int courseRef][byte grade or -1]
+ *                                   [short gradeCredits][byte chargedSemester or -1][short chargedCredits]
+ *   trailer     [int crc32 of every preceding byte]
+ *
+ * Course codes and instructor IDs are written once and referenced by position, so an enrollment
+ * costs ten bytes. Files are read through a read-only memory mapping and restored as written,
+ * without the validation saves apply. Version 2 files lack the course capacity and load with
+ * unlimited seats; version 2 and 3 enrollments lack their credits and are charged and graded at
+ * the course's credits.
+ */
+final class SnapshotFile {
+    static final int MAGIC = 0x43435253; // "CCRS"
+    static final int VERSION = 4;
+    static final int MIN_READ_VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+    private static final byte NONE = -1;
+    
+    private SnapshotFile() {
+    }
+    
+    // Writes the snapshot and forces it to disk; the caller moves it into place
+    static void write(Path path, StudentService studentService, CourseService courseService) throws IOException {
+        List<Course> courses = courseService.findAll();
+        Map<String, Integer> courseRefs = new HashMap<>(courses.size() * 2);
+        Map<String, Integer> instructorRefs = new LinkedHashMap<>();
+        for (Course course : courses) {
+            courseRefs.put(course.getCode(), courseRefs.size());
+            if (course.getInstructorId() != null) {
+                instructorRefs.putIfAbsent(course.getInstructorId(), instructorRefs.size());
+            }
+        }
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putLong(System.currentTimeMillis());
+            
+            out.putInt(instructorRefs.size());
+            for (String instructorId : instructorRefs.keySet()) {
+                out.putString(instructorId);
+            }
+            
+            out.putInt(courses.size());
+            for (Course course : courses) {
+                out.putString(course.getCode());
+                out.putString(course.getTitle());
+                out.putInt(course.getCredits());
+                out.putInt(course.getInstructorId() != null ? instructorRefs.get(course.getInstructorId()) : -1);
+                out.putByte(course.getSemester() != null ? (byte) course.getSemester().ordinal() : NONE);
+                out.putString(course.getDepartment());
+                out.putByte(course.isActive() ? (byte) 1 : 0);
+                out.putInt(course.getCapacity());
+            }
+            
+            List<Student> students = studentService.findAll();
+            out.putInt(students.size());
+            for (Student student : students) {
+                out.putString(student.getId());
+                out.putString(student.getRegNo());
+                out.putString(student.getName().getFirstName());
+                out.putString(student.getName().getLastName());
+                out.putString(student.getEmail());
+                out.putLong(student.getDateOfBirth().toEpochDay());
+                out.putByte(student.isActive() ? (byte) 1 : 0);
+                
+                List<String> enrolled = new ArrayList<>(student.getEnrolledCourseCount());
+                for (String courseCode : student.getEnrolledCourses()) {
+                    if (courseRefs.containsKey(courseCode)) {
+                        enrolled.add(courseCode);
+                    }
+                }
+                out.putInt(enrolled.size());
+                for (String courseCode : enrolled) {
+                    Grade grade = student.getGrade(courseCode);
+                    Semester chargedSemester = student.getChargedSemester(courseCode);
+                    out.putInt(courseRefs.get(courseCode));
+                    out.putByte(grade != null ? (byte) grade.ordinal() : NONE);
+                    out.putShort((short) student.getCreditsForCourse(courseCode));
+                    out.putByte(chargedSemester != null ? (byte) chargedSemester.ordinal() : NONE);
+                    out.putShort((short) student.getChargedCredits(courseCode));
+                }
+            }
+            
+            out.finish();
+            channel.force(true);
+        }
+    }
+    
+    static boolean isReadable(int version) {
+        return version >= MIN_READ_VERSION && version <= VERSION;
+    }
+    
+    // Maps the file, checks the trailer and loads it into the (empty) services
+    static void read(Path path, StudentService studentService, CourseService courseService) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot has an invalid size (" + size + " bytes): " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            
+            int bodyLength = (int) size - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            ByteBuffer body = buffer.duplicate();
+            body.limit(bodyLength);
+            crc.update(body);
+            if ((int) crc.getValue() != buffer.getInt(bodyLength)) {
+                throw new IOException("Snapshot checksum mismatch: " + path);
+            }
+            buffer.limit(bodyLength);
+            
+            int magic = buffer.getInt();
+            int version = buffer.getInt();
+            if (magic != MAGIC || !isReadable(version)) {
+                throw new IOException("Unrecognized snapshot file: " + path);
+            }
+            buffer.getLong(); // creation time, informational
+            
+            Input in = new Input(buffer);
+            String[] instructorIds = new String[in.count()];
+            for (int i = 0; i < instructorIds.length; i++) {
+                instructorIds[i] = in.getString();
+            }
+            
+            Course[] courses = new Course[in.count()];
+            for (int i = 0; i < courses.length; i++) {
+                Course.Builder builder = new Course.Builder(in.getString(), in.getString());
+                int credits = buffer.getInt();
+                int instructorRef = buffer.getInt();
+                if (instructorRef >= 0) builder.instructor(instructorIds[instructorRef]);
+                byte semester = buffer.get();
+                if (semester >= 0) builder.semester(Semester.values()[semester]);
+                builder.department(in.getString());
+                courses[i] = builder.build();
+                // As written, including credits the builder would refuse
+                courses[i].setCredits(credits);
+                courses[i].setActive(buffer.get() != 0);
+                if (version >= 3) courses[i].setCapacity(buffer.getInt());
+            }
+            reportRejections("course", courseService.restoreAll(Arrays.asList(courses)));
+            
+            int studentCount = in.count();
+            List<Student> students = new ArrayList<>(studentCount);
+            int[][] courseRefs = new int[studentCount][];
+            byte[][] grades = new byte[studentCount][];
+            // Left null for files written before enrollments carried their credits
+            short[][] gradeCredits = version >= 4 ? new short[studentCount][] : null;
+            byte[][] chargedSemesters = version >= 4 ? new byte[studentCount][] : null;
+            short[][] chargedCredits = version >= 4 ? new short[studentCount][] : null;
+            for (int i = 0; i < studentCount; i++) {
+                String id = in.getString();
+                String regNo = in.getString();
+                Name name = new Name(in.getString(), in.getString());
+                String email = in.getString();
+                LocalDate dateOfBirth = LocalDate.ofEpochDay(buffer.getLong());
+                Student student = new Student(id, regNo, name, email, dateOfBirth);
+                student.setActive(buffer.get() != 0);
+                students.add(student);
+                
+                int enrollments = in.count();
+                courseRefs[i] = new int[enrollments];
+                grades[i] = new byte[enrollments];
+                if (version >= 4) {
+                    gradeCredits[i] = new short[enrollments];
+                    chargedSemesters[i] = new byte[enrollments];
+                    chargedCredits[i] = new short[enrollments];
+                }
+                for (int e = 0; e < enrollments; e++) {
+                    int courseRef = buffer.getInt();
+                    if (courseRef < 0 || courseRef >= courses.length) {
+                        throw new IOException("Invalid course reference in snapshot: " + courseRef);
+                    }
+                    courseRefs[i][e] = courseRef;
+                    grades[i][e] = buffer.get();
+                    if (version >= 4) {
+                        gradeCredits[i][e] = buffer.getShort();
+                        chargedSemesters[i][e] = buffer.get();
+                        chargedCredits[i][e] = buffer.getShort();
+                    }
+                }
+            }
+            reportRejections("student", studentService.restoreAll(students));
+            
+            // Students lock independently, so their enrollments can be restored in parallel
+            IntStream.range(0, studentCount).parallel().forEach(i -> {
+                String studentId = students.get(i).getId();
+                if (version >= 4) {
+                    restoreEnrollments(studentService, studentId, courses, courseRefs[i], grades[i],
+                                       gradeCredits[i], chargedSemesters[i], chargedCredits[i]);
+                } else {
+                    restoreEnrollments(studentService, studentId, courses, courseRefs[i], grades[i]);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Out-of-range references or lengths mean the file is not what its header claims
+            throw new IOException("Corrupt snapshot file: " + path, e);
+        }
+    }
+    
+    // Version 4: credits as recorded, whatever the course says now
+    private static void restoreEnrollments(StudentService studentService, String studentId, Course[] courses,
+                                           int[] courseRefs, byte[] grades, short[] gradeCredits,
+                                           byte[] chargedSemesters, short[] chargedCredits) {
+        for (int e = 0; e < courseRefs.length; e++) {
+            String courseCode = courses[courseRefs[e]].getCode();
+            try {
+                // Limits were enforced when the enrollment was first accepted
+                Semester chargedSemester = chargedSemesters[e] >= 0 ? Semester.values()[chargedSemesters[e]] : null;
+                studentService.restoreEnrollment(studentId, courseCode, chargedSemester, chargedCredits[e]);
+                if (grades[e] >= 0) {
+                    studentService.restoreGrade(studentId, courseCode, Grade.values()[grades[e]], gradeCredits[e]);
+                }
+            } catch (ValidationException ex) {
+                skipped(studentId, courseCode, ex);
+            }
+        }
+    }
+    
+    // Versions 2 and 3: charged and graded at the course's credits
+    private static void restoreEnrollments(StudentService studentService, String studentId, Course[] courses,
+                                           int[] courseRefs, byte[] grades) {
+        for (int e = 0; e < courseRefs.length; e++) {
+            String courseCode = courses[courseRefs[e]].getCode();
+            try {
+                studentService.restoreEnrollment(studentId, courseCode);
+                if (grades[e] >= 0) {
+                    studentService.assignGrade(studentId, courseCode, Grade.values()[grades[e]]);
+                }
+            } catch (ValidationException ex) {
+                skipped(studentId, courseCode, ex);
+            }
+        }
+    }
+    
+    private static void skipped(String studentId, String courseCode, ValidationException e) {
+        System.err.println("Skipping snapshot enrollment " + studentId + "/" + courseCode + ": " + e.getMessage());
+    }
+    
+    private static void reportRejections(String kind, BulkWriteResult result) {
+        for (BulkWriteResult.Rejection rejection : result.getRejections()) {
+            System.err.println("Skipping snapshot " + kind + " " + rejection.getId() + ": " + rejection.getReason());
+        }
+    }
+    
+    // Buffered channel writer that keeps a running checksum of everything written
+    private static final class Output {
+        private final FileChannel channel;
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+        
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+        
+        void putShort(short value) throws IOException {
+            ensure(Short.BYTES);
+            buffer.putShort(value);
+        }
+        
+        void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+        
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+        
+        // Flushes the body, then appends the checksum trailer
+        void finish() throws IOException {
+            flush();
+            buffer.putInt((int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return;
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+        
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+    
+    // Length-prefixed reads from the mapped file, reusing one scratch array for string bytes
+    private static final class Input {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[256];
+        
+        Input(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        int count() throws IOException {
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining()) {
+                throw new IOException("Invalid element count in snapshot: " + count);
+            }
+            return count;
+        }
+        
+        String getString() throws IOException {
+            int length = buffer.getInt();
+            if (length == -1) return null;
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Invalid string length in snapshot: " + length);
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package edu.ccrm.io;
+
+import edu.ccrm.config.AppConfig;
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.MutationLog;
+import edu.ccrm.service.StudentService;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Durable storage for StudentService and CourseService under the configured data folder.
+ *
+ * Every service mutation is appended to a write-ahead log segment (group-committed, see
+ * WriteAheadLog). Every snapshot.interval records the log is rotated to a new generation and a
+ * snapshot of the full state is written (see SnapshotFile); older segments and snapshots are then
+ * deleted. On open, the newest snapshot is loaded and only the segments from its generation on are replayed.
+ *
+ * Usage: StorageEngine.open(studentService, courseService) before serving requests; close() on shutdown.
+ */
+public class StorageEngine implements MutationLog, Closeable {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("wal-(\\d{16})\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{16})\\.dat");
+    private static final int LEGACY_SNAPSHOT_VERSION = 1; // WAL frames after the header
+    
+    private final Path directory;
+    private final StudentService studentService;
+    private final CourseService courseService;
+    private final int snapshotInterval;
+    private final WriteAheadLog log;
+    private final ExecutorService snapshotExecutor;
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    private volatile long generation;
+    private volatile long lastSnapshotSeq;
+    
+    private StorageEngine(Path directory, StudentService studentService, CourseService courseService,
+                          int snapshotInterval, long generation) throws IOException {
+        this.directory = directory;
+        this.studentService = studentService;
+        this.courseService = courseService;
+        this.snapshotInterval = snapshotInterval;
+        this.generation = generation;
+        this.log = new WriteAheadLog(directory, generation);
+        this.snapshotExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ccrm-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public static StorageEngine open(StudentService studentService, CourseService courseService) throws IOException {
+        AppConfig config = AppConfig.getInstance();
+        return open(config.getDataFolderPath(), studentService, courseService, config.getSnapshotInterval());
+    }
+    
+    // Recovers state into the (empty) services, then attaches the engine as their mutation log
+    public static StorageEngine open(Path directory, StudentService studentService, CourseService courseService,
+                                     int snapshotInterval) throws IOException {
+        Files.createDirectories(directory);
+        long snapshotGeneration = loadNewestSnapshot(directory, studentService, courseService);
+        
+        long lastGeneration = snapshotGeneration;
+        long replayed = 0;
+        for (long segment : listGenerations(directory, SEGMENT_NAME)) {
+            if (segment < snapshotGeneration) continue;
+            Path segmentPath = WriteAheadLog.segmentPath(directory, segment);
+            if (Files.size(segmentPath) == 0) {
+                Files.delete(segmentPath); // Left by a run that logged nothing
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(segmentPath), 64 * 1024))) {
+                replayed += WalRecords.replay(in, studentService, courseService);
+            }
+            lastGeneration = Math.max(lastGeneration, segment);
+        }
+        System.out.println("Storage recovered from " + directory.toAbsolutePath()
+                           + " (snapshot generation " + snapshotGeneration + ", " + replayed + " log records)");
+        
+        // Append to a fresh segment so a torn tail in an old one is never extended
+        StorageEngine engine = new StorageEngine(directory, studentService, courseService,
+                                                 snapshotInterval, lastGeneration + 1);
+        studentService.setMutationLog(engine);
+        courseService.setMutationLog(engine);
+        return engine;
+    }
+    
+    @Override
+    public long studentSaved(Student student) {
+        return append(WalRecords.studentSaved(student));
+    }
+    
+    @Override
+    public long studentDeleted(String studentId) {
+        return append(WalRecords.studentDeleted(studentId));
+    }
+    
+    @Override
+    public long courseSaved(Course course) {
+        return append(WalRecords.courseSaved(course));
+    }
+    
+    @Override
+    public long instructorAssigned(String courseCode, String instructorId) {
+        return append(WalRecords.instructorAssigned(courseCode, instructorId));
+    }
+    
+    @Override
+    public long enrolled(String studentId, String courseCode, Semester chargedSemester, int chargedCredits) {
+        return append(WalRecords.enrolled(studentId, courseCode, chargedSemester, chargedCredits));
+    }
+    
+    @Override
+    public long unenrolled(String studentId, String courseCode) {
+        return append(WalRecords.unenrolled(studentId, courseCode));
+    }
+    
+    @Override
+    public long gradeAssigned(String studentId, String courseCode, Grade grade, int credits) {
+        return append(WalRecords.gradeAssigned(studentId, courseCode, grade, credits));
+    }
+    
+    @Override
+    public void awaitDurable(long ticket) {
+        if (ticket <= 0) return;
+        try {
+            log.awaitDurable(ticket);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write-ahead log failure", e);
+        }
+    }
+    
+    private long append(byte[] frame) {
+        try {
+            long seq = log.append(frame);
+            if (snapshotInterval > 0 && seq - lastSnapshotSeq >= snapshotInterval
+                    && snapshotRunning.compareAndSet(false, true)) {
+                lastSnapshotSeq = seq;
+                snapshotExecutor.execute(this::snapshotQuietly);
+            }
+            return seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write-ahead log failure", e);
+        }
+    }
+    
+    /**
+     * Rotates the log and writes a snapshot for the new generation.
+     * The snapshot is fuzzy (taken while writes continue); replaying the new segment on top of it
+     * converges because every log record is idempotent.
+     */
+    public synchronized void snapshot() throws IOException {
+        long next = generation + 1;
+        log.rotate(next);
+        generation = next;
+        
+        Path target = directory.resolve(String.format("snapshot-%016d.dat", next));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        SnapshotFile.write(temp, studentService, courseService);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        
+        // Everything before this generation is now covered by the snapshot
+        for (long old : listGenerations(directory, SEGMENT_NAME)) {
+            if (old < next) Files.deleteIfExists(WriteAheadLog.segmentPath(directory, old));
+        }
+        for (long old : listGenerations(directory, SNAPSHOT_NAME)) {
+            if (old < next) Files.deleteIfExists(directory.resolve(String.format("snapshot-%016d.dat", old)));
+        }
+    }
+    
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            System.err.println("Snapshot failed: " + e.getMessage());
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+    
+    // Returns the generation of the snapshot loaded, or 0 when there is none
+    private static long loadNewestSnapshot(Path directory, StudentService studentService,
+                                           CourseService courseService) throws IOException {
+        List<Long> snapshots = listGenerations(directory, SNAPSHOT_NAME);
+        if (snapshots.isEmpty()) {
+            return 0;
+        }
+        long newest = snapshots.get(snapshots.size() - 1);
+        Path path = directory.resolve(String.format("snapshot-%016d.dat", newest));
+        int version;
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            if (in.readInt() != SnapshotFile.MAGIC) {
+                throw new IOException("Unrecognized snapshot file: " + path);
+            }
+            version = in.readInt();
+        }
+        
+        long started = System.nanoTime();
+        if (SnapshotFile.isReadable(version)) {
+            SnapshotFile.read(path, studentService, courseService);
+        } else if (version == LEGACY_SNAPSHOT_VERSION) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+                in.skipBytes(2 * Integer.BYTES);
+                WalRecords.replay(in, studentService, courseService);
+            }
+        } else {
+            throw new IOException("Unsupported snapshot version " + version + ": " + path);
+        }
+        System.out.println("Loaded snapshot " + path.getFileName() + " (format v" + version + ") in "
+                           + (System.nanoTime() - started) / 1_000_000 + " ms");
+        return newest;
+    }
+    
+    private static List<Long> listGenerations(Path directory, Pattern pattern) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        studentService.setMutationLog(MutationLog.NONE);
+        courseService.setMutationLog(MutationLog.NONE);
+        snapshotExecutor.shutdown();
+        try {
+            snapshotExecutor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+}
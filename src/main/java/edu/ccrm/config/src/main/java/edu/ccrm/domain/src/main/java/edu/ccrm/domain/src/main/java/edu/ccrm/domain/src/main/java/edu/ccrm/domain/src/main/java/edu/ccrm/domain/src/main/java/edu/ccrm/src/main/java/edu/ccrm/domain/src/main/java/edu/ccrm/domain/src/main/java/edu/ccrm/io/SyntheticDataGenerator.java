@@ -0,0 +1,392 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Seeded generator of campus-scale test data.
+ * Every entity is a pure function of (seed, index): the same seed gives the same dataset whether it is
+ * generated sequentially or in parallel, streamed to CSV or loaded into the services. Generation runs
+ * in windows of blocks on the common fork-join pool, so memory stays constant however many rows are
+ * produced.
+ *
+ * Usage:
+ *   SyntheticDataGenerator generator = new SyntheticDataGenerator.Builder(42).students(1_000_000).build();
+ *   generator.populate(studentService, courseService);                   // or
+ *   generator.exportStudentsToCSV(fileOperations, "students.csv", false);
+ */
+public class SyntheticDataGenerator {
+    private static final int BLOCK_SIZE = 16_384;
+    
+    private static final String[][] DEPARTMENTS = {
+        {"Computer Science", "CS"}, {"Mathematics", "MA"}, {"Physics", "PH"}, {"Chemistry", "CH"},
+        {"Biology", "BI"}, {"Economics", "EC"}, {"History", "HI"}, {"Literature", "LI"},
+        {"Psychology", "PS"}, {"Electrical Engineering", "EE"}, {"Mechanical Engineering", "ME"},
+        {"Philosophy", "PL"}
+    };
+    private static final String[] TOPICS = {
+        "Foundations", "Methods", "Systems", "Theory", "Analysis", "Design", "Applications",
+        "Modelling", "Research Seminar", "Laboratory", "Topics", "Practice"
+    };
+    private static final String[] LEVELS = {"Introduction to", "Intermediate", "Advanced", "Graduate"};
+    private static final String[] FIRST_NAMES = {
+        "Aarav", "Aditi", "Alex", "Amara", "Ananya", "Arjun", "Ben", "Chen", "Chloe", "Daniel",
+        "Diya", "Elena", "Ethan", "Fatima", "Gabriel", "Hana", "Isha", "Ivan", "Jun", "Kabir",
+        "Kavya", "Leila", "Liam", "Maya", "Mei", "Mohammed", "Nia", "Noah", "Olivia", "Omar",
+        "Priya", "Rahul", "Rohan", "Sakura", "Sara", "Sofia", "Tariq", "Uma", "Vikram", "Wei",
+        "Yara", "Yusuf", "Zara", "Zoe"
+    };
+    private static final String[] LAST_NAMES = {
+        "Agarwal", "Ahmed", "Brown", "Chaurasia", "Chen", "Das", "Diaz", "Garcia", "Gupta", "Hernandez",
+        "Iyer", "Johnson", "Kapoor", "Khan", "Kim", "Kumar", "Lee", "Lopez", "Martin", "Mehta",
+        "Miller", "Nair", "Nguyen", "Okafor", "Patel", "Rao", "Reddy", "Rossi", "Sato", "Shah",
+        "Sharma", "Singh", "Smith", "Tanaka", "Verma", "Wang", "Williams", "Wilson", "Yadav", "Zhang"
+    };
+    // Cumulative weights for S, A, B, C, D, E, F
+    private static final int[] GRADE_WEIGHTS = {5, 20, 45, 70, 85, 95, 100};
+    
+    // Independent random streams per entity type, so adding one kind of data never shifts another
+    private static final long STUDENT_STREAM = 0x5354554445L;
+    private static final long COURSE_STREAM = 0x434F555253L;
+    private static final long INSTRUCTOR_STREAM = 0x494E535452L;
+    private static final long ENROLLMENT_STREAM = 0x454E524F4CL;
+    
+    private final long seed;
+    private final long studentCount;
+    private final int courseCount;
+    private final int instructorCount;
+    private final int minCoursesPerStudent;
+    private final int maxCoursesPerStudent;
+    private final double gradedFraction;
+    
+    private SyntheticDataGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.studentCount = builder.students;
+        this.courseCount = builder.courses;
+        this.instructorCount = builder.instructors > 0 ? builder.instructors
+                                                       : Math.max(DEPARTMENTS.length, builder.courses / 4);
+        this.minCoursesPerStudent = builder.minCoursesPerStudent;
+        this.maxCoursesPerStudent = builder.maxCoursesPerStudent;
+        this.gradedFraction = builder.gradedFraction;
+    }
+    
+    public static class Builder {
+        private final long seed;
+        private long students = 10_000;
+        private int courses = 500;
+        private int instructors;
+        private int minCoursesPerStudent = 3;
+        private int maxCoursesPerStudent = 6;
+        private double gradedFraction = 0.8;
+        
+        public Builder(long seed) {
+            this.seed = seed;
+        }
+        
+        public Builder students(long students) {
+            if (students < 0) throw new IllegalArgumentException("Student count cannot be negative");
+            this.students = students;
+            return this;
+        }
+        
+        public Builder courses(int courses) {
+            if (courses <= 0) throw new IllegalArgumentException("Course count must be positive");
+            this.courses = courses;
+            return this;
+        }
+        
+        // Defaults to one instructor per four courses
+        public Builder instructors(int instructors) {
+            if (instructors <= 0) throw new IllegalArgumentException("Instructor count must be positive");
+            this.instructors = instructors;
+            return this;
+        }
+        
+        public Builder coursesPerStudent(int min, int max) {
+            if (min < 0 || max < min) throw new IllegalArgumentException("Invalid courses per student range");
+            this.minCoursesPerStudent = min;
+            this.maxCoursesPerStudent = max;
+            return this;
+        }
+        
+        // Share of enrollments that already carry a grade; the rest are in progress
+        public Builder gradedFraction(double gradedFraction) {
+            if (gradedFraction < 0 || gradedFraction > 1) {
+                throw new IllegalArgumentException("Graded fraction must be between 0 and 1");
+            }
+            this.gradedFraction = gradedFraction;
+            return this;
+        }
+        
+        public SyntheticDataGenerator build() {
+            return new SyntheticDataGenerator(this);
+        }
+    }
+    
+    public static class GenerationSummary {
+        private final long students;
+        private final int courses;
+        private final long enrollments;
+        private final long grades;
+        private final long skippedEnrollments;
+        private final long elapsedMillis;
+        
+        GenerationSummary(long students, int courses, long enrollments, long grades,
+                          long skippedEnrollments, long elapsedMillis) {
+            this.students = students;
+            this.courses = courses;
+            this.enrollments = enrollments;
+            this.grades = grades;
+            this.skippedEnrollments = skippedEnrollments;
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        public long getStudents() { return students; }
+        public int getCourses() { return courses; }
+        public long getEnrollments() { return enrollments; }
+        public long getGrades() { return grades; }
+        public long getSkippedEnrollments() { return skippedEnrollments; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        
+        @Override
+        public String toString() {
+            return String.format("%d students, %d courses, %d enrollments (%d skipped), %d grades in %d ms",
+                               students, courses, enrollments, skippedEnrollments, grades, elapsedMillis);
+        }
+    }
+    
+    public Student student(long index) {
+        SplittableRandom random = random(STUDENT_STREAM, index);
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String email = (firstName + "." + lastName).toLowerCase(Locale.ROOT) + index + "@campus.edu";
+        LocalDate dateOfBirth = LocalDate.of(1996, 1, 1).plusDays(random.nextInt(10 * 365));
+        
+        Student student = new Student(padded("S", index, 8),
+                                      padded("REG" + (2019 + random.nextInt(6)), index, 7),
+                                      new Name(firstName, lastName), email, dateOfBirth);
+        if (random.nextInt(100) < 3) {
+            student.setActive(false);
+        }
+        return student;
+    }
+    
+    // Courses are spread round-robin over departments and semesters; codes look like CS1042
+    public Course course(int index) {
+        SplittableRandom random = random(COURSE_STREAM, index);
+        int department = index % DEPARTMENTS.length;
+        int number = index / DEPARTMENTS.length;
+        int level = Math.min(LEVELS.length - 1, random.nextInt(10) / 3);
+        
+        String title = LEVELS[level] + " " + DEPARTMENTS[department][0] + " " + TOPICS[random.nextInt(TOPICS.length)];
+        int credits = 2 + Math.min(2, random.nextInt(5)); // Mostly 4-credit courses, some 2 and 3
+        Course course = new Course.Builder(DEPARTMENTS[department][1] + (1000 + number), title)
+                .credits(credits)
+                .instructor(instructorId(departmentInstructor(department, random)))
+                .semester(Semester.values()[number % Semester.values().length])
+                .department(DEPARTMENTS[department][0])
+                .build();
+        if (random.nextInt(100) < 2) {
+            course.setActive(false);
+        }
+        return course;
+    }
+    
+    public Instructor instructor(int index) {
+        SplittableRandom random = random(INSTRUCTOR_STREAM, index);
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return new Instructor(instructorId(index), padded("EMP", index, 6),
+                              new Name(firstName, lastName),
+                              (firstName + "." + lastName).toLowerCase(Locale.ROOT) + index + "@faculty.campus.edu",
+                              LocalDate.of(1960, 1, 1).plusDays(random.nextInt(30 * 365)),
+                              DEPARTMENTS[index % DEPARTMENTS.length][0]);
+    }
+    
+    // Course indexes student #index enrolls in; popular (low-numbered) courses are picked more often
+    public int[] enrollmentsFor(long index) {
+        SplittableRandom random = random(ENROLLMENT_STREAM, index);
+        int count = minCoursesPerStudent + random.nextInt(maxCoursesPerStudent - minCoursesPerStudent + 1);
+        int home = random.nextInt(DEPARTMENTS.length);
+        int[] picks = new int[Math.min(count, courseCount)];
+        for (int i = 0; i < picks.length; i++) {
+            int pick;
+            do {
+                // Two thirds in the student's home department, skewed toward its introductory courses
+                if (random.nextInt(3) < 2) {
+                    int perDepartment = Math.max(1, (courseCount - home + DEPARTMENTS.length - 1) / DEPARTMENTS.length);
+                    double skewed = random.nextDouble() * random.nextDouble();
+                    pick = Math.min(courseCount - 1, home + DEPARTMENTS.length * (int) (skewed * perDepartment));
+                } else {
+                    pick = random.nextInt(courseCount);
+                }
+            } while (contains(picks, i, pick));
+            picks[i] = pick;
+        }
+        return picks;
+    }
+    
+    // Grade for the n-th enrollment of student #index, or null while the course is in progress
+    public Grade gradeFor(long index, int enrollment) {
+        SplittableRandom random = random(ENROLLMENT_STREAM ^ 0x4752414445L, index * 31 + enrollment);
+        if (random.nextDouble() >= gradedFraction) {
+            return null;
+        }
+        int roll = random.nextInt(100);
+        int grade = 0;
+        while (roll >= GRADE_WEIGHTS[grade]) grade++;
+        return Grade.values()[grade];
+    }
+    
+    public Stream<Student> students() {
+        return LongStream.range(0, studentCount).mapToObj(this::student);
+    }
+    
+    public Stream<Course> courses() {
+        return IntStream.range(0, courseCount).mapToObj(this::course);
+    }
+    
+    public Stream<Instructor> instructors() {
+        return IntStream.range(0, instructorCount).mapToObj(this::instructor);
+    }
+    
+    public long exportStudentsToCSV(FileOperations fileOperations, String filename, boolean gzip) throws IOException {
+        return fileOperations.exportStudentsToCSV(new BlockIterator<>(studentCount, this::student), filename, gzip);
+    }
+    
+    public long exportCoursesToCSV(FileOperations fileOperations, String filename, boolean gzip) throws IOException {
+        return fileOperations.exportCoursesToCSV(new BlockIterator<>(courseCount, i -> course((int) i)), filename, gzip);
+    }
+    
+    /**
+     * Loads the dataset into the services: all courses, then students block by block, each block
+     * followed by its enrollments and grades (in parallel, students lock independently).
+     * Enrollments that break the configured credit limit are skipped and counted.
+     */
+    public GenerationSummary populate(StudentService studentService, CourseService courseService) throws IOException {
+        long startTime = System.currentTimeMillis();
+        courseService.saveAll(courses().collect(Collectors.toList()));
+        
+        String[] courseCodes = new String[courseCount];
+        for (int i = 0; i < courseCount; i++) {
+            courseCodes[i] = course(i).getCode();
+        }
+        
+        AtomicLong enrolled = new AtomicLong();
+        AtomicLong graded = new AtomicLong();
+        AtomicLong skipped = new AtomicLong();
+        int window = BLOCK_SIZE * Runtime.getRuntime().availableProcessors();
+        for (long blockStart = 0; blockStart < studentCount; blockStart += window) {
+            long start = blockStart;
+            long end = Math.min(studentCount, start + window);
+            List<Student> block = LongStream.range(start, end).parallel()
+                    .mapToObj(this::student)
+                    .collect(Collectors.toList());
+            studentService.saveAll(block);
+            
+            LongStream.range(start, end).parallel().forEach(index -> {
+                String studentId = block.get((int) (index - start)).getId();
+                int[] picks = enrollmentsFor(index);
+                for (int n = 0; n < picks.length; n++) {
+                    try {
+                        studentService.enrollStudent(studentId, courseCodes[picks[n]]);
+                        enrolled.incrementAndGet();
+                        Grade grade = gradeFor(index, n);
+                        if (grade != null) {
+                            studentService.assignGrade(studentId, courseCodes[picks[n]], grade);
+                            graded.incrementAndGet();
+                        }
+                    } catch (ValidationException e) {
+                        skipped.incrementAndGet();
+                    }
+                }
+            });
+        }
+        
+        return new GenerationSummary(studentCount, courseCount, enrolled.get(), graded.get(), skipped.get(),
+                                     System.currentTimeMillis() - startTime);
+    }
+    
+    private int departmentInstructor(int department, SplittableRandom random) {
+        // Instructors belong to department (index % departments); pick one of that department's
+        int perDepartment = Math.max(1, (instructorCount - department + DEPARTMENTS.length - 1) / DEPARTMENTS.length);
+        int index = department + DEPARTMENTS.length * random.nextInt(perDepartment);
+        return index < instructorCount ? index : random.nextInt(instructorCount);
+    }
+    
+    private static String instructorId(int index) {
+        return padded("I", index, 6);
+    }
+    
+    // prefix + index zero-padded to width digits; String.format is far too slow at millions of rows
+    private static String padded(String prefix, long index, int width) {
+        String digits = Long.toString(index);
+        StringBuilder result = new StringBuilder(prefix.length() + Math.max(width, digits.length()));
+        result.append(prefix);
+        for (int i = digits.length(); i < width; i++) {
+            result.append('0');
+        }
+        return result.append(digits).toString();
+    }
+    
+    private SplittableRandom random(long stream, long index) {
+        return new SplittableRandom(mix(seed ^ mix(stream + index * 0x9E3779B97F4A7C15L)));
+    }
+    
+    // SplitMix64 finalizer: neighbouring indexes get unrelated random streams
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+    
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+    
+    // Yields entities in index order while generating a window of blocks ahead in parallel
+    private static class BlockIterator<T> implements Iterator<T> {
+        private final long total;
+        private final LongFunction<T> factory;
+        private final int window = BLOCK_SIZE * Runtime.getRuntime().availableProcessors();
+        private List<T> buffer = Collections.emptyList();
+        private int position;
+        private long next;
+        
+        BlockIterator(long total, LongFunction<T> factory) {
+            this.total = total;
+            this.factory = factory;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return position < buffer.size() || next < total;
+        }
+        
+        @Override
+        public T next() {
+            if (position == buffer.size()) {
+                if (next >= total) throw new NoSuchElementException();
+                long end = Math.min(total, next + window);
+                buffer = LongStream.range(next, end).parallel().mapToObj(factory).collect(Collectors.toList());
+                position = 0;
+                next = end;
+            }
+            return buffer.get(position++);
+        }
+    }
+}
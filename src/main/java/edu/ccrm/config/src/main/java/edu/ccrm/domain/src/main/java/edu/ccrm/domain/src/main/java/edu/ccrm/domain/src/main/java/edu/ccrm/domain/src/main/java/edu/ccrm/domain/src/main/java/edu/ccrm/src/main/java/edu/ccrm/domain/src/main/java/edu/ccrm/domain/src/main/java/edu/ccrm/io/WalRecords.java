@@ -0,0 +1,249 @@
+package edu.ccrm.io;
+
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import edu.ccrm.util.ValidationException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.zip.CRC32;
+
+/**
+ * Binary encoding of service mutations for the write-ahead log.
+ * Frame layout: [int payloadLength][int crc32(payload)][payload], payload = [byte type][fields].
+ * A frame with a bad length or checksum marks the torn tail of a log.
+ */
+final class WalRecords {
+    static final byte STUDENT_SAVED = 1;
+    static final byte STUDENT_DELETED = 2;
+    static final byte COURSE_SAVED = 3;
+    static final byte INSTRUCTOR_ASSIGNED = 4;
+    static final byte ENROLLED = 5;
+    static final byte UNENROLLED = 6;
+    static final byte GRADE_ASSIGNED = 7;
+    
+    static final int FRAME_HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+    
+    private WalRecords() {
+    }
+    
+    // Encodes one payload into a complete frame
+    @FunctionalInterface
+    interface PayloadWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+    
+    static byte[] frame(byte type, PayloadWriter writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0); // length placeholder
+            out.writeInt(0); // crc placeholder
+            out.writeByte(type);
+            writer.write(out);
+            out.flush();
+            
+            byte[] frame = bytes.toByteArray();
+            int payloadLength = frame.length - FRAME_HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(frame, FRAME_HEADER_BYTES, payloadLength);
+            ByteBuffer header = ByteBuffer.wrap(frame, 0, FRAME_HEADER_BYTES);
+            header.putInt(payloadLength);
+            header.putInt((int) crc.getValue());
+            return frame;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ByteArrayOutputStream does not throw
+        }
+    }
+    
+    static byte[] studentSaved(Student student) {
+        return frame(STUDENT_SAVED, out -> {
+            out.writeUTF(student.getId());
+            out.writeUTF(student.getRegNo());
+            out.writeUTF(student.getName().getFirstName());
+            out.writeUTF(student.getName().getLastName());
+            out.writeUTF(student.getEmail());
+            out.writeLong(student.getDateOfBirth().toEpochDay());
+            out.writeBoolean(student.isActive());
+        });
+    }
+    
+    static byte[] studentDeleted(String studentId) {
+        return frame(STUDENT_DELETED, out -> out.writeUTF(studentId));
+    }
+    
+    static byte[] courseSaved(Course course) {
+        return frame(COURSE_SAVED, out -> {
+            out.writeUTF(course.getCode());
+            out.writeUTF(course.getTitle());
+            out.writeInt(course.getCredits());
+            writeNullable(out, course.getInstructorId());
+            out.writeByte(course.getSemester() != null ? course.getSemester().ordinal() : -1);
+            writeNullable(out, course.getDepartment());
+            out.writeBoolean(course.isActive());
+            out.writeInt(course.getCapacity());
+        });
+    }
+    
+    static byte[] instructorAssigned(String courseCode, String instructorId) {
+        return frame(INSTRUCTOR_ASSIGNED, out -> {
+            out.writeUTF(courseCode);
+            writeNullable(out, instructorId);
+        });
+    }
+    
+    static byte[] enrolled(String studentId, String courseCode, Semester chargedSemester, int chargedCredits) {
+        return frame(ENROLLED, out -> {
+            out.writeUTF(studentId);
+            out.writeUTF(courseCode);
+            out.writeByte(chargedSemester != null ? chargedSemester.ordinal() : -1);
+            out.writeInt(chargedCredits);
+        });
+    }
+    
+    static byte[] unenrolled(String studentId, String courseCode) {
+        return frame(UNENROLLED, out -> {
+            out.writeUTF(studentId);
+            out.writeUTF(courseCode);
+        });
+    }
+    
+    static byte[] gradeAssigned(String studentId, String courseCode, Grade grade, int credits) {
+        return frame(GRADE_ASSIGNED, out -> {
+            out.writeUTF(studentId);
+            out.writeUTF(courseCode);
+            out.writeByte(grade.ordinal());
+            out.writeInt(credits);
+        });
+    }
+    
+    /**
+     * Replays frames from the stream into the services until end of stream or a torn frame.
+     * Every record type is idempotent against newer state, so replay on top of a fuzzy
+     * snapshot converges. Returns the number of records applied.
+     */
+    static long replay(DataInputStream in, StudentService studentService, CourseService courseService)
+            throws IOException {
+        long applied = 0;
+        byte[] payload = new byte[256];
+        CRC32 crc = new CRC32();
+        while (true) {
+            int length;
+            int checksum;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                return applied;
+            }
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                return applied;
+            }
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+            try {
+                in.readFully(payload, 0, length);
+            } catch (EOFException e) {
+                return applied;
+            }
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                return applied;
+            }
+            
+            apply(new DataInputStream(new ByteArrayInputStream(payload, 0, length)), studentService, courseService);
+            applied++;
+        }
+    }
+    
+    private static void apply(DataInputStream in, StudentService studentService, CourseService courseService)
+            throws IOException {
+        byte type = in.readByte();
+        try {
+            switch (type) {
+                case STUDENT_SAVED: {
+                    String id = in.readUTF();
+                    String regNo = in.readUTF();
+                    Name name = new Name(in.readUTF(), in.readUTF());
+                    String email = in.readUTF();
+                    LocalDate dateOfBirth = LocalDate.ofEpochDay(in.readLong());
+                    Student student = new Student(id, regNo, name, email, dateOfBirth);
+                    student.setActive(in.readBoolean());
+                    // Also logged for setter changes; restore() keeps an existing student's enrollments and grades
+                    studentService.restore(student);
+                    break;
+                }
+                case STUDENT_DELETED:
+                    studentService.delete(in.readUTF());
+                    break;
+                case COURSE_SAVED: {
+                    Course.Builder builder = new Course.Builder(in.readUTF(), in.readUTF());
+                    int credits = in.readInt();
+                    builder.instructor(readNullable(in));
+                    int semester = in.readByte();
+                    if (semester >= 0) builder.semester(Semester.values()[semester]);
+                    builder.department(readNullable(in));
+                    Course course = builder.build();
+                    // As recorded, including credits the builder would refuse
+                    course.setCredits(credits);
+                    course.setActive(in.readBoolean());
+                    // Logs written before capacities existed end here
+                    if (in.available() > 0) course.setCapacity(in.readInt());
+                    courseService.restore(course);
+                    break;
+                }
+                case INSTRUCTOR_ASSIGNED:
+                    courseService.assignInstructor(in.readUTF(), readNullable(in));
+                    break;
+                case ENROLLED: {
+                    // Limits were enforced when the enrollment was first accepted
+                    String studentId = in.readUTF();
+                    String courseCode = in.readUTF();
+                    // Logs written before charges were recorded end here; those charge the course as it is
+                    if (in.available() > 0) {
+                        int semester = in.readByte();
+                        studentService.restoreEnrollment(studentId, courseCode,
+                                                         semester >= 0 ? Semester.values()[semester] : null, in.readInt());
+                    } else {
+                        studentService.restoreEnrollment(studentId, courseCode);
+                    }
+                    break;
+                }
+                case UNENROLLED:
+                    studentService.unenrollStudent(in.readUTF(), in.readUTF());
+                    break;
+                case GRADE_ASSIGNED: {
+                    String studentId = in.readUTF();
+                    String courseCode = in.readUTF();
+                    Grade grade = Grade.values()[in.readByte()];
+                    // Logs written before grade credits were recorded end here
+                    if (in.available() > 0) {
+                        studentService.restoreGrade(studentId, courseCode, grade, in.readInt());
+                    } else {
+                        studentService.assignGrade(studentId, courseCode, grade);
+                    }
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown log record type: " + type);
+            }
+        } catch (ValidationException e) {
+            // Already reflected in the snapshot (e.g. a repeated enrollment); nothing to redo
+        }
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
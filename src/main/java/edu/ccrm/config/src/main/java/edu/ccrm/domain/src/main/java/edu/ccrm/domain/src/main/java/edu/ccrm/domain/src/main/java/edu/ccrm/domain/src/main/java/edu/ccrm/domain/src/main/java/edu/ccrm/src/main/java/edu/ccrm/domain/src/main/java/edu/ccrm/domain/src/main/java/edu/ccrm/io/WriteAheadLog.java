@@ -0,0 +1,180 @@
+package edu.ccrm.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log segment writer with group commit.
+ * Appenders copy their frame into a shared buffer and get a sequence number; a single
+ * writer thread drains the buffer, writes it and calls force() once for the whole group,
+ * then wakes everyone whose sequence is covered. One fsync serves many operations.
+ */
+class WriteAheadLog implements Closeable {
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    
+    private final Path directory;
+    private final Object lock = new Object();
+    private final Thread writer;
+    
+    // Guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    private long appendedSeq;
+    private long durableSeq;
+    private long rotateTo = -1;
+    private long generation;
+    private boolean closed;
+    private IOException failure;
+    
+    // Owned by the writer thread
+    private FileChannel channel;
+    
+    WriteAheadLog(Path directory, long generation) throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = openSegment(generation);
+        this.writer = new Thread(this::runWriter, "ccrm-wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+    
+    static Path segmentPath(Path directory, long generation) {
+        return directory.resolve(String.format("wal-%016d.log", generation));
+    }
+    
+    // Queues a frame and returns its sequence number; does not wait for disk
+    long append(byte[] frame) throws IOException {
+        synchronized (lock) {
+            checkUsable();
+            if (pending.remaining() < frame.length) {
+                pending = grow(pending, frame.length);
+            }
+            pending.put(frame);
+            lock.notifyAll();
+            return ++appendedSeq;
+        }
+    }
+    
+    // Blocks until every frame up to seq has been forced to disk
+    void awaitDurable(long seq) throws IOException {
+        synchronized (lock) {
+            while (durableSeq < seq) {
+                if (failure != null) throw failure;
+                if (closed) throw new IOException("Write-ahead log is closed");
+                waitOnLock();
+            }
+        }
+    }
+    
+    // Switches to a new segment; frames queued after this call land in the new segment
+    void rotate(long newGeneration) throws IOException {
+        synchronized (lock) {
+            checkUsable();
+            rotateTo = newGeneration;
+            lock.notifyAll();
+            while (generation != newGeneration) {
+                if (failure != null) throw failure;
+                waitOnLock();
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (failure != null) throw failure;
+        }
+    }
+    
+    private void runWriter() {
+        try {
+            while (true) {
+                ByteBuffer batch;
+                long batchSeq;
+                long nextGeneration;
+                synchronized (lock) {
+                    while (pending.position() == 0 && rotateTo < 0 && !closed) {
+                        waitOnLock();
+                    }
+                    if (pending.position() == 0 && rotateTo < 0 && closed) {
+                        break;
+                    }
+                    batch = pending;
+                    pending = spare;
+                    spare = batch;
+                    batchSeq = appendedSeq;
+                    nextGeneration = rotateTo;
+                    rotateTo = -1;
+                }
+                
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+                batch.clear();
+                
+                if (nextGeneration >= 0) {
+                    channel.close();
+                    channel = openSegment(nextGeneration);
+                }
+                
+                synchronized (lock) {
+                    durableSeq = batchSeq;
+                    if (nextGeneration >= 0) {
+                        generation = nextGeneration;
+                    }
+                    lock.notifyAll();
+                }
+            }
+            channel.close();
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+        }
+    }
+    
+    private FileChannel openSegment(long segmentGeneration) throws IOException {
+        Files.createDirectories(directory);
+        return FileChannel.open(segmentPath(directory, segmentGeneration),
+                                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    private void checkUsable() throws IOException {
+        if (failure != null) throw failure;
+        if (closed) throw new IOException("Write-ahead log is closed");
+    }
+    
+    private void waitOnLock() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+        }
+    }
+    
+    private static ByteBuffer grow(ByteBuffer buffer, int extra) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        larger.put(buffer);
+        return larger;
+    }
+}
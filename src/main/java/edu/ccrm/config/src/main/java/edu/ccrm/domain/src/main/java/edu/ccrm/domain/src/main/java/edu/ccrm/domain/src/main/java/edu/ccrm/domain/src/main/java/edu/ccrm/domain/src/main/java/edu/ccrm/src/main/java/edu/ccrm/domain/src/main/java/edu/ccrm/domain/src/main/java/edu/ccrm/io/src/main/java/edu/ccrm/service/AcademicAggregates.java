@@ -0,0 +1,248 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Course;
+import edu.ccrm.domain.Grade;
+import edu.ccrm.domain.Semester;
+import edu.ccrm.domain.Student;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Grade distributions, pass rates, average grade points and enrollment counts per course,
+ * department, semester and instructor, kept current as enrollments and grades change so a
+ * dashboard reads any of them in O(1) instead of scanning every student.
+ *
+ * Each figure is a fixed row of counters: one per Grade, then enrolled, graded credits and
+ * credit-weighted grade points. A course row remembers which department, semester and instructor
+ * it was counted under; changes to the course go through that row's monitor, which also moves its
+ * counts when the course is re-filed, so group rows never see a change twice or not at all.
+ * Reads are lock-free and may be off by changes in flight.
+ *
+ * Maintained by StudentService and CourseService; verify() recounts everything in parallel from
+ * the students' own records as a check.
+ */
+public class AcademicAggregates {
+    static final int GRADE_COUNT = Grade.values().length;
+    static final int ENROLLED = GRADE_COUNT;
+    static final int GRADED_CREDITS = GRADE_COUNT + 1;
+    static final int GRADE_POINT_HUNDREDTHS = GRADE_COUNT + 2;
+    static final int SLOTS = GRADE_COUNT + 3;
+    
+    private final Map<String, CourseTally> byCourse = new ConcurrentHashMap<>();
+    private final Map<String, Tally> byDepartment = new ConcurrentHashMap<>();
+    private final Map<String, Tally> byInstructor = new ConcurrentHashMap<>();
+    private final Tally[] bySemester = new Tally[Semester.values().length];
+    
+    AcademicAggregates() {
+        for (int i = 0; i < bySemester.length; i++) {
+            bySemester[i] = new Tally();
+        }
+    }
+    
+    // One row of counters; group rows are shared by many courses, so every cell is atomic
+    private static class Tally {
+        final AtomicLongArray slots = new AtomicLongArray(SLOTS);
+        
+        void add(long[] delta, int sign) {
+            for (int i = 0; i < SLOTS; i++) {
+                if (delta[i] != 0) {
+                    slots.addAndGet(i, sign * delta[i]);
+                }
+            }
+        }
+        
+        long[] snapshot() {
+            long[] copy = new long[SLOTS];
+            for (int i = 0; i < SLOTS; i++) {
+                copy[i] = slots.get(i);
+            }
+            return copy;
+        }
+    }
+    
+    // A course row plus the group rows its counts are currently filed under (null = not filed)
+    private static final class CourseTally extends Tally {
+        Tally department;
+        Tally semester;
+        Tally instructor;
+        
+        synchronized void apply(long[] delta) {
+            add(delta, 1);
+            if (department != null) department.add(delta, 1);
+            if (semester != null) semester.add(delta, 1);
+            if (instructor != null) instructor.add(delta, 1);
+        }
+        
+        synchronized void file(Tally department, Tally semester, Tally instructor) {
+            if (department == this.department && semester == this.semester && instructor == this.instructor) {
+                return;
+            }
+            long[] counts = snapshot();
+            move(counts, this.department, department);
+            move(counts, this.semester, semester);
+            move(counts, this.instructor, instructor);
+            this.department = department;
+            this.semester = semester;
+            this.instructor = instructor;
+        }
+        
+        private static void move(long[] counts, Tally from, Tally to) {
+            if (from == to) return;
+            if (from != null) from.add(counts, -1);
+            if (to != null) to.add(counts, 1);
+        }
+    }
+    
+    public GradeDistribution forCourse(String courseCode) {
+        return read(courseCode != null ? byCourse.get(courseCode) : null);
+    }
+    
+    // Case-insensitive, like CourseService.findByDepartment()
+    public GradeDistribution forDepartment(String department) {
+        return read(department != null ? byDepartment.get(CourseService.departmentKey(department)) : null);
+    }
+    
+    public GradeDistribution forSemester(Semester semester) {
+        return read(semester != null ? bySemester[semester.ordinal()] : null);
+    }
+    
+    public GradeDistribution forInstructor(String instructorId) {
+        return read(instructorId != null ? byInstructor.get(instructorId) : null);
+    }
+    
+    // Every department seen so far, keyed in lower case
+    public Map<String, GradeDistribution> byDepartment() {
+        Map<String, GradeDistribution> result = new TreeMap<>();
+        byDepartment.forEach((key, tally) -> result.put(key, read(tally)));
+        return result;
+    }
+    
+    public Map<Semester, GradeDistribution> bySemester() {
+        Map<Semester, GradeDistribution> result = new EnumMap<>(Semester.class);
+        for (Semester semester : Semester.values()) {
+            result.put(semester, read(bySemester[semester.ordinal()]));
+        }
+        return result;
+    }
+    
+    public Map<String, GradeDistribution> byInstructor() {
+        Map<String, GradeDistribution> result = new TreeMap<>();
+        byInstructor.forEach((key, tally) -> result.put(key, read(tally)));
+        return result;
+    }
+    
+    private static GradeDistribution read(Tally tally) {
+        return tally != null ? new GradeDistribution(tally.snapshot()) : GradeDistribution.EMPTY;
+    }
+    
+    // Files (or re-files) the course under its current department, semester and instructor
+    void courseChanged(Course course) {
+        courseTally(course.getCode()).file(
+                groupTally(byDepartment, CourseService.departmentKey(course.getDepartment())),
+                course.getSemester() != null ? bySemester[course.getSemester().ordinal()] : null,
+                groupTally(byInstructor, course.getInstructorId()));
+    }
+    
+    void enrolled(String courseCode) {
+        long[] delta = new long[SLOTS];
+        delta[ENROLLED] = 1;
+        courseTally(courseCode).apply(delta);
+    }
+    
+    // The grade and credits the enrollment carried when it was dropped (grade null if ungraded)
+    void unenrolled(String courseCode, Grade grade, int credits) {
+        long[] delta = new long[SLOTS];
+        delta[ENROLLED] = -1;
+        count(delta, grade, credits, -1);
+        courseTally(courseCode).apply(delta);
+    }
+    
+    void graded(String courseCode, Grade previous, int previousCredits, Grade grade, int credits) {
+        long[] delta = new long[SLOTS];
+        count(delta, previous, previousCredits, -1);
+        count(delta, grade, credits, 1);
+        courseTally(courseCode).apply(delta);
+    }
+    
+    private static void count(long[] row, Grade grade, int credits, int sign) {
+        if (grade == null) return;
+        row[grade.ordinal()] += sign;
+        row[GRADED_CREDITS] += sign * credits;
+        row[GRADE_POINT_HUNDREDTHS] += sign * Math.round(grade.getGradePoint() * 100) * credits;
+    }
+    
+    private CourseTally courseTally(String courseCode) {
+        return byCourse.computeIfAbsent(courseCode, code -> new CourseTally());
+    }
+    
+    private static Tally groupTally(Map<String, Tally> groups, String key) {
+        return key != null ? groups.computeIfAbsent(key, k -> new Tally()) : null;
+    }
+    
+    /**
+     * Recounts every figure from the students' own records (in parallel) and filing from the
+     * catalog, and compares with the maintained ones. Returns one line per figure that differs;
+     * empty means consistent. Only meaningful while no enrollments or grades are changing.
+     */
+    List<String> verify(Collection<Student> students, Function<String, Course> catalog) {
+        Map<String, long[]> recounted = students.parallelStream().collect(HashMap::new,
+                (rows, student) -> recount(rows, student),
+                (left, right) -> right.forEach((code, row) -> left.merge(code, row, AcademicAggregates::sum)));
+        
+        Map<String, long[]> departments = new HashMap<>();
+        Map<String, long[]> instructors = new HashMap<>();
+        long[][] semesters = new long[bySemester.length][SLOTS];
+        recounted.forEach((code, row) -> {
+            Course course = catalog.apply(code);
+            if (course == null) return;
+            String department = CourseService.departmentKey(course.getDepartment());
+            if (department != null) departments.merge(department, row.clone(), AcademicAggregates::sum);
+            if (course.getInstructorId() != null) instructors.merge(course.getInstructorId(), row.clone(), AcademicAggregates::sum);
+            if (course.getSemester() != null) sum(semesters[course.getSemester().ordinal()], row);
+        });
+        
+        List<String> mismatches = new ArrayList<>();
+        compare("course", byCourse, recounted, mismatches);
+        compare("department", byDepartment, departments, mismatches);
+        compare("instructor", byInstructor, instructors, mismatches);
+        for (Semester semester : Semester.values()) {
+            GradeDistribution expected = new GradeDistribution(semesters[semester.ordinal()]);
+            GradeDistribution actual = forSemester(semester);
+            if (!expected.equals(actual)) {
+                mismatches.add("semester " + semester.name() + ": maintained " + actual + ", recounted " + expected);
+            }
+        }
+        return mismatches;
+    }
+    
+    private static void recount(Map<String, long[]> rows, Student student) {
+        for (String courseCode : student.getEnrolledCourses()) {
+            long[] row = rows.computeIfAbsent(courseCode, code -> new long[SLOTS]);
+            row[ENROLLED]++;
+            count(row, student.getGrade(courseCode), student.getCreditsForCourse(courseCode), 1);
+        }
+    }
+    
+    private static long[] sum(long[] into, long[] row) {
+        for (int i = 0; i < SLOTS; i++) {
+            into[i] += row[i];
+        }
+        return into;
+    }
+    
+    private static void compare(String kind, Map<String, ? extends Tally> maintained, Map<String, long[]> recounted,
+                                List<String> mismatches) {
+        Set<String> keys = new TreeSet<>(maintained.keySet());
+        keys.addAll(recounted.keySet());
+        for (String key : keys) {
+            GradeDistribution actual = read(maintained.get(key));
+            long[] row = recounted.get(key);
+            GradeDistribution expected = row != null ? new GradeDistribution(row) : GradeDistribution.EMPTY;
+            if (!expected.equals(actual)) {
+                mismatches.add(kind + " " + key + ": maintained " + actual + ", recounted " + expected);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.ccrm.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of StudentService.enrollAll: one row per request, in request order
+public class BatchEnrollmentResult {
+    private final List<Row> rows;
+    private final int enrolled;
+    private final long elapsedMillis;
+    
+    BatchEnrollmentResult(List<Row> rows, long elapsedMillis) {
+        this.rows = Collections.unmodifiableList(rows);
+        this.enrolled = (int) rows.stream().filter(Row::isEnrolled).count();
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public static class Row {
+        private final int lineNumber;
+        private final String studentId;
+        private final String courseCode;
+        private final String reason;
+        
+        // reason is null when the enrollment was applied
+        public Row(int lineNumber, String studentId, String courseCode, String reason) {
+            this.lineNumber = lineNumber;
+            this.studentId = studentId;
+            this.courseCode = courseCode;
+            this.reason = reason;
+        }
+        
+        public int getLineNumber() { return lineNumber; }
+        public String getStudentId() { return studentId; }
+        public String getCourseCode() { return courseCode; }
+        public String getReason() { return reason; }
+        public boolean isEnrolled() { return reason == null; }
+        
+        @Override
+        public String toString() {
+            return "line " + lineNumber + " (" + studentId + ", " + courseCode + "): "
+                   + (reason == null ? "enrolled" : reason);
+        }
+    }
+    
+    public List<Row> getRows() { return rows; }
+    public int getEnrolledCount() { return enrolled; }
+    public int getRejectedCount() { return rows.size() - enrolled; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    
+    public List<Row> getRejections() {
+        List<Row> rejections = new ArrayList<>(getRejectedCount());
+        for (Row row : rows) {
+            if (!row.isEnrolled()) {
+                rejections.add(row);
+            }
+        }
+        return rejections;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("BatchEnrollmentResult[requests=%d, enrolled=%d, rejected=%d, time=%dms]",
+                           rows.size(), enrolled, getRejectedCount(), elapsedMillis);
+    }
+}
@@ -0,0 +1,53 @@
+package edu.ccrm.service;
+
+import java.util.*;
+import java.util.function.Function;
+
+// Single validation pass over a saveAll() batch; later duplicates of an ID are rejected
+class BulkBatch<T> {
+    private final Map<String, T> accepted;
+    private final List<BulkWriteResult.Rejection> rejections = new ArrayList<>();
+    
+    private BulkBatch(int expectedSize) {
+        this.accepted = new LinkedHashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+    }
+    
+    // validator returns a rejection reason, or null when the entity is acceptable
+    static <T> BulkBatch<T> validate(Collection<? extends T> entities, Function<T, String> idOf,
+                                     Function<T, String> validator) {
+        BulkBatch<T> batch = new BulkBatch<>(entities.size());
+        int position = 0;
+        for (T entity : entities) {
+            if (entity == null) {
+                batch.reject(position++, null, "Entity cannot be null");
+                continue;
+            }
+            
+            String id = idOf.apply(entity);
+            String reason = id == null ? "ID cannot be null" : validator.apply(entity);
+            if (reason == null && batch.accepted.containsKey(id)) {
+                reason = "Duplicate ID in batch";
+            }
+            
+            if (reason != null) {
+                batch.reject(position, id, reason);
+            } else {
+                batch.accepted.put(id, entity);
+            }
+            position++;
+        }
+        return batch;
+    }
+    
+    private void reject(int position, String id, String reason) {
+        rejections.add(new BulkWriteResult.Rejection(position, id, reason));
+    }
+    
+    Map<String, T> accepted() {
+        return accepted;
+    }
+    
+    BulkWriteResult toResult(int updated) {
+        return new BulkWriteResult(accepted.size() - updated, updated, rejections);
+    }
+}
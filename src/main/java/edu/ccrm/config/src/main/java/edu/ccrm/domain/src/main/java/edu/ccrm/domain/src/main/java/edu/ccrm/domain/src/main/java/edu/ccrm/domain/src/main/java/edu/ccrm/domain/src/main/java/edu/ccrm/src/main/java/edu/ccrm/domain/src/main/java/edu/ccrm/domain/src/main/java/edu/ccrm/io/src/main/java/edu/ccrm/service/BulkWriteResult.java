@@ -0,0 +1,50 @@
+package edu.ccrm.service;
+
+import java.util.Collections;
+import java.util.List;
+
+// Outcome of Persistable.saveAll: how many records were inserted, updated or rejected
+public class BulkWriteResult {
+    private final int inserted;
+    private final int updated;
+    private final List<Rejection> rejections;
+    
+    public BulkWriteResult(int inserted, int updated, List<Rejection> rejections) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.rejections = Collections.unmodifiableList(rejections);
+    }
+    
+    public static class Rejection {
+        private final int position;
+        private final String id;
+        private final String reason;
+        
+        public Rejection(int position, String id, String reason) {
+            this.position = position;
+            this.id = id;
+            this.reason = reason;
+        }
+        
+        public int getPosition() { return position; }
+        public String getId() { return id; }
+        public String getReason() { return reason; }
+        
+        @Override
+        public String toString() {
+            return String.format("#%d (%s): %s", position, id, reason);
+        }
+    }
+    
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    public int getRejected() { return rejections.size(); }
+    public int getAccepted() { return inserted + updated; }
+    public List<Rejection> getRejections() { return rejections; }
+    
+    @Override
+    public String toString() {
+        return String.format("BulkWriteResult[inserted=%d, updated=%d, rejected=%d]", 
+                           inserted, updated, rejections.size());
+    }
+}
@@ -0,0 +1,100 @@
+package edu.ccrm.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seat count and waitlist for one course. Seats are claimed with a compare-and-set on the count,
+ * so students racing for the last seat of a section never take a lock and the count never passes
+ * the capacity. The waitlist is a FIFO queue of tickets; leaving removes the ticket from the
+ * live map and the queue skips it when it reaches the head.
+ */
+class CourseSeats {
+    private final AtomicInteger taken = new AtomicInteger();
+    private final Queue<Ticket> queue = new ConcurrentLinkedQueue<>();
+    // Student ID -> its live ticket; a ticket still queued but not in here has left
+    private final Map<String, Ticket> waiting = new ConcurrentHashMap<>();
+    
+    // Identity matters: a student who leaves and rejoins gets a new ticket at the back
+    private static final class Ticket {
+        final String studentId;
+        
+        Ticket(String studentId) {
+            this.studentId = studentId;
+        }
+    }
+    
+    // Claims a seat if one is free; capacity 0 means unlimited
+    boolean tryReserve(int capacity) {
+        if (capacity <= 0) {
+            taken.incrementAndGet();
+            return true;
+        }
+        int current;
+        do {
+            current = taken.get();
+            if (current >= capacity) {
+                return false;
+            }
+        } while (!taken.compareAndSet(current, current + 1));
+        return true;
+    }
+    
+    // Counts a seat regardless of capacity (restoring enrollments that were accepted earlier)
+    void forceReserve() {
+        taken.incrementAndGet();
+    }
+    
+    void release() {
+        taken.decrementAndGet();
+    }
+    
+    int taken() {
+        return taken.get();
+    }
+    
+    // False if the student is already waiting
+    boolean join(String studentId) {
+        Ticket ticket = new Ticket(studentId);
+        if (waiting.putIfAbsent(studentId, ticket) != null) {
+            return false;
+        }
+        queue.add(ticket);
+        return true;
+    }
+    
+    boolean leave(String studentId) {
+        return waiting.remove(studentId) != null;
+    }
+    
+    boolean hasWaiting() {
+        return !waiting.isEmpty();
+    }
+    
+    // Removes and returns the student at the head of the line, or null if no one is waiting
+    String pollWaiting() {
+        Ticket ticket;
+        while ((ticket = queue.poll()) != null) {
+            if (waiting.remove(ticket.studentId, ticket)) {
+                return ticket.studentId;
+            }
+        }
+        return null;
+    }
+    
+    // Waiting student IDs, head of the line first
+    List<String> waitlist() {
+        List<String> result = new ArrayList<>(waiting.size());
+        for (Ticket ticket : queue) {
+            if (waiting.get(ticket.studentId) == ticket) {
+                result.add(ticket.studentId);
+            }
+        }
+        return result;
+    }
+}
@@ -1,37 +1,185 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.metrics.OperationTimer;
 import edu.ccrm.util.ValidationException;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CourseService implements Persistable<Course>, Searchable<Course> {
+    // Course codes are unique, so this is a total order and safe for page cursors
+    private static final Comparator<Course> BY_CODE = Comparator.comparing(Course::getCode);
+    private static final OperationTimer SAVE_TIMER = Metrics.getInstance().timer("course.save");
+    private static final OperationTimer SAVE_ALL_TIMER = Metrics.getInstance().timer("course.saveAll");
+    private static final OperationTimer SEARCH_TIMER = Metrics.getInstance().timer("course.search");
+    private static final OperationTimer FILTER_TIMER = Metrics.getInstance().timer("course.filterPage");
+    
+    private static final int LOCK_STRIPES = 256;
+    
     private final Map<String, Course> courses = new ConcurrentHashMap<>();
+    // Saves and change events for one course code are serialized on its stripe
+    private final Object[] courseLocks = new Object[LOCK_STRIPES];
+    // Single saves and readers share it; saveAll() holds it exclusively, so a batch appears all at once
+    private final StoreLock storeLock = new StoreLock();
+    
+    // Secondary indexes, kept in sync through save() and Course change events
+    private final SecondaryIndex<String, Course> byDepartment = new SecondaryIndex<>();
+    private final SecondaryIndex<Semester, Course> bySemester = new SecondaryIndex<>();
+    private final SecondaryIndex<String, Course> byInstructor = new SecondaryIndex<>();
+    private final Course.ChangeListener indexUpdater = this::onCourseChanged;
+    // Report figures per course/department/semester/instructor; StudentService feeds enrollments and grades
+    private final AcademicAggregates aggregates = new AcademicAggregates();
+    private volatile MutationLog mutationLog = MutationLog.NONE;
+    
+    public CourseService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            courseLocks[i] = new Object();
+        }
+        
+        // Gauges follow the most recently created service
+        Metrics.getInstance().gauge("courses.count", () -> courses.size());
+        Metrics.getInstance().gauge("courseCodes.dictionary", CourseCodes::size);
+    }
+    
+    public AcademicAggregates getAggregates() {
+        return aggregates;
+    }
+    
+    // Attach a durable log (see StorageEngine); mutations made before this are not logged
+    public void setMutationLog(MutationLog mutationLog) {
+        this.mutationLog = Objects.requireNonNull(mutationLog, "Mutation log cannot be null");
+    }
     
     @Override
     public void save(Course course) throws IOException {
-        Objects.requireNonNull(course, "Course cannot be null");
-        courses.put(course.getCode(), course);
+        store(course, true, this::validate);
     }
     
     @Override
-    public void saveAll(List<Course> courseList) throws IOException {
-        for (Course course : courseList) {
-            save(course);
+    public boolean saveIfAbsent(Course course) throws IOException {
+        return store(course, false, this::validate);
+    }
+    
+    /**
+     * Puts back a course recorded earlier (snapshot or log replay) exactly as it was recorded:
+     * nothing is validated, since it was accepted once already and later rules must not drop it.
+     */
+    public void restore(Course course) throws IOException {
+        store(course, true, unchecked -> null);
+    }
+    
+    // validator as in saveAll(); a rejected course is an IllegalArgumentException here
+    private boolean store(Course course, boolean overwrite, Function<Course, String> validator) throws IOException {
+        long start = SAVE_TIMER.start();
+        try {
+            Objects.requireNonNull(course, "Course cannot be null");
+            String rejection = validator.apply(course);
+            if (rejection != null) {
+                throw new IllegalArgumentException(rejection);
+            }
+            long ticket;
+            storeLock.lockShared();
+            try {
+                // Two saves of one code would otherwise unindex each other's course half-way
+                synchronized (lockFor(course.getCode())) {
+                    Course previous = overwrite ? courses.put(course.getCode(), course)
+                                                : courses.putIfAbsent(course.getCode(), course);
+                    if (!overwrite && previous != null) {
+                        return false;
+                    }
+                    if (previous != null) {
+                        unindex(previous);
+                    }
+                    index(course);
+                    ticket = mutationLog.courseSaved(course);
+                }
+            } finally {
+                storeLock.unlockShared();
+            }
+            mutationLog.awaitDurable(ticket);
+            return true;
+        } catch (RuntimeException e) {
+            SAVE_TIMER.failed();
+            throw e;
+        } finally {
+            SAVE_TIMER.stop(start);
         }
     }
     
+    @Override
+    public BulkWriteResult saveAll(List<Course> courseList) throws IOException {
+        return storeAll(courseList, this::validate);
+    }
+    
+    // Bulk form of restore(): only null entities and repeated codes are rejected
+    public BulkWriteResult restoreAll(List<Course> courseList) throws IOException {
+        return storeAll(courseList, unchecked -> null);
+    }
+    
+    private BulkWriteResult storeAll(List<Course> courseList, Function<Course, String> validator) throws IOException {
+        long start = SAVE_ALL_TIMER.start();
+        try {
+            BulkBatch<Course> batch = BulkBatch.validate(courseList, Course::getCode, validator);
+            Collection<Course> accepted = batch.accepted().values();
+            int updated = 0;
+            long ticket = 0;
+            
+            storeLock.beginBatch();
+            try {
+                // Written in place, no copy of the store: readers wait for the batch to finish, and
+                // indexes follow once every course is in
+                for (Course course : accepted) {
+                    Course previous;
+                    synchronized (lockFor(course.getCode())) {
+                        previous = courses.put(course.getCode(), course);
+                    }
+                    if (previous != null) {
+                        updated++;
+                        unindex(previous);
+                    }
+                    ticket = mutationLog.courseSaved(course);
+                }
+                
+                byDepartment.addAll(accepted, course -> departmentKey(course.getDepartment()));
+                bySemester.addAll(accepted, Course::getSemester);
+                byInstructor.addAll(accepted, Course::getInstructorId);
+                accepted.forEach(course -> {
+                    aggregates.courseChanged(course);
+                    course.addChangeListener(indexUpdater);
+                });
+            } finally {
+                storeLock.endBatch();
+            }
+            mutationLog.awaitDurable(ticket);
+            return batch.toResult(updated);
+        } catch (RuntimeException e) {
+            SAVE_ALL_TIMER.failed();
+            throw e;
+        } finally {
+            SAVE_ALL_TIMER.stop(start);
+        }
+    }
+    
+    private String validate(Course course) {
+        if (course.getCredits() <= 0) return "Credits must be positive";
+        if (course.getTitle() == null || course.getTitle().isBlank()) return "Title cannot be blank";
+        return null;
+    }
+    
     @Override
     public Course findById(String code) {
-        return courses.get(code);
+        return storeLock.readOptimistically(() -> courses.get(code));
     }
     
     @Override
     public List<Course> findAll() {
-        return new ArrayList<>(courses.values());
+        return storeLock.read(() -> new ArrayList<>(courses.values()));
     }
     
     @Override
@@ -44,27 +192,60 @@ public class CourseService implements Persistable<Course>, Searchable<Course> {
     
     @Override
     public boolean exists(String code) {
-        return courses.containsKey(code);
+        return storeLock.readOptimistically(() -> courses.containsKey(code));
     }
     
     @Override
     public List<Course> search(Predicate<Course> criteria) {
-        return courses.values().stream()
-                .filter(criteria)
-                .collect(Collectors.toList());
+        long start = SEARCH_TIMER.start();
+        try {
+            return storeLock.read(() -> searchStream(criteria).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            SEARCH_TIMER.failed();
+            throw e;
+        } finally {
+            SEARCH_TIMER.stop(start);
+        }
+    }
+    
+    // Weakly consistent: consumed during a saveAll() it may show part of the batch. search(), topK()
+    // and searchPage() consume it under the store lock and see a batch whole or not at all
+    @Override
+    public Stream<Course> stream() {
+        return courses.values().stream();
+    }
+    
+    @Override
+    public List<Course> topK(Predicate<Course> criteria, Comparator<? super Course> order, int k) {
+        return storeLock.read(() -> Searchable.super.topK(criteria, order, k));
+    }
+    
+    @Override
+    public Page<Course> searchPage(Predicate<Course> criteria, Comparator<? super Course> order,
+                                   Page.Cursor<Course> after, int limit) {
+        return storeLock.read(() -> Searchable.super.searchPage(criteria, order, after, limit));
     }
     
     public List<Course> findByInstructor(String instructorId) {
-        return search(course -> Objects.equals(course.getInstructorId(), instructorId));
+        if (instructorId == null) {
+            // Unassigned courses are not indexed
+            return search(course -> course.getInstructorId() == null);
+        }
+        return storeLock.read(() -> new ArrayList<>(byInstructor.get(instructorId)));
     }
     
     public List<Course> findByDepartment(String department) {
-        return search(course -> course.getDepartment() != null && 
-                               course.getDepartment().equalsIgnoreCase(department));
+        if (department == null) {
+            return new ArrayList<>();
+        }
+        return storeLock.read(() -> new ArrayList<>(byDepartment.get(departmentKey(department))));
     }
     
     public List<Course> findBySemester(Semester semester) {
-        return search(course -> Objects.equals(course.getSemester(), semester));
+        if (semester == null) {
+            return search(course -> course.getSemester() == null);
+        }
+        return storeLock.read(() -> new ArrayList<>(bySemester.get(semester)));
     }
     
     public List<Course> getActiveCourses() {
@@ -81,12 +262,103 @@ public class CourseService implements Persistable<Course>, Searchable<Course> {
     
     // Stream API demonstration for filtering and sorting
     public List<Course> getCoursesFilteredAndSorted(String department, Semester semester) {
-        return courses.values().stream()
+        return storeLock.read(() -> filterCandidates(department, semester).stream()
                 .filter(course -> course.isActive())
-                .filter(course -> department == null || 
-                        (course.getDepartment() != null && course.getDepartment().equalsIgnoreCase(department)))
-                .filter(course -> semester == null || Objects.equals(course.getSemester(), semester))
-                .sorted(Comparator.comparing(Course::getCode))
-                .collect(Collectors.toList());
+                .sorted(BY_CODE)
+                .collect(Collectors.toList()));
+    }
+    
+    // Paged form for listing screens: only the requested page is ordered, never the whole match set
+    public Page<Course> getCoursesFilteredAndSorted(String department, Semester semester,
+                                                    Page.Cursor<Course> after, int limit) {
+        long start = FILTER_TIMER.start();
+        try {
+            return storeLock.read(() -> Searchable.page(filterCandidates(department, semester).stream()
+                                                                .filter(Course::isActive), BY_CODE, after, limit));
+        } catch (RuntimeException e) {
+            FILTER_TIMER.failed();
+            throw e;
+        } finally {
+            FILTER_TIMER.stop(start);
+        }
+    }
+    
+    private Collection<Course> filterCandidates(String department, Semester semester) {
+        Collection<Course> candidates;
+        if (department != null && semester != null) {
+            candidates = SecondaryIndex.intersect(byDepartment.get(departmentKey(department)),
+                                                  bySemester.get(semester));
+        } else if (department != null) {
+            candidates = byDepartment.get(departmentKey(department));
+        } else if (semester != null) {
+            candidates = bySemester.get(semester);
+        } else {
+            candidates = courses.values();
+        }
+        return candidates;
+    }
+    
+    private void index(Course course) {
+        byDepartment.add(departmentKey(course.getDepartment()), course);
+        bySemester.add(course.getSemester(), course);
+        byInstructor.add(course.getInstructorId(), course);
+        aggregates.courseChanged(course);
+        course.addChangeListener(indexUpdater);
+    }
+    
+    private void unindex(Course course) {
+        course.removeChangeListener(indexUpdater);
+        byDepartment.remove(departmentKey(course.getDepartment()), course);
+        bySemester.remove(course.getSemester(), course);
+        byInstructor.remove(course.getInstructorId(), course);
+    }
+    
+    private void onCourseChanged(Course course, Course.Property property, Object oldValue, Object newValue) {
+        long ticket;
+        // Setters notify after releasing the course's monitor, so two changes can arrive out of
+        // order. Each event drops the value it replaced and files the current one, under the
+        // code's stripe so no event can file a value another has already dropped, or file a
+        // course that a save has just replaced and unindexed
+        synchronized (lockFor(course.getCode())) {
+            if (courses.get(course.getCode()) != course) {
+                return; // Stale instance that has been replaced
+            }
+            
+            // Setter calls (including delete() and assignInstructor()) are persisted from here
+            ticket = property == Course.Property.INSTRUCTOR
+                    ? mutationLog.instructorAssigned(course.getCode(), course.getInstructorId())
+                    : mutationLog.courseSaved(course);
+            
+            switch (property) {
+                case DEPARTMENT:
+                    byDepartment.remove(departmentKey((String) oldValue), course);
+                    byDepartment.add(departmentKey(course.getDepartment()), course);
+                    aggregates.courseChanged(course);
+                    break;
+                case SEMESTER:
+                    bySemester.remove((Semester) oldValue, course);
+                    bySemester.add(course.getSemester(), course);
+                    aggregates.courseChanged(course);
+                    break;
+                case INSTRUCTOR:
+                    byInstructor.remove((String) oldValue, course);
+                    byInstructor.add(course.getInstructorId(), course);
+                    aggregates.courseChanged(course);
+                    break;
+                default:
+                    break;
+            }
+        }
+        mutationLog.awaitDurable(ticket);
+    }
+    
+    private Object lockFor(String code) {
+        int hash = code.hashCode();
+        return courseLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+    
+    // Department lookups are case-insensitive
+    static String departmentKey(String department) {
+        return department != null ? department.toLowerCase(Locale.ROOT) : null;
     }
 }
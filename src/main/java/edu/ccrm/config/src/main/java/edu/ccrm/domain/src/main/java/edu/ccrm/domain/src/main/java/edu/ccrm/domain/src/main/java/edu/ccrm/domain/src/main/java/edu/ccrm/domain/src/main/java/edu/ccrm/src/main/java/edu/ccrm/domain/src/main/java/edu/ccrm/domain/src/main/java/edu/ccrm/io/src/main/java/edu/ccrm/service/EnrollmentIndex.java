@@ -0,0 +1,107 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.CourseCodes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Course rosters for StudentService. Each student ID is numbered once with a dense slot, and each
+ * roster is an int set of those slots keyed by the course's dictionary ref, so an enrollment costs
+ * a few bytes here. The per-student side (courses, grades, dates) lives on Student itself.
+ */
+class EnrollmentIndex {
+    private final Map<String, Integer> slotsById = new ConcurrentHashMap<>();
+    private volatile String[] idsBySlot = new String[1024];
+    private int nextSlot;
+    // Course ref -> student slots; rosters are never dropped, so a reference stays valid once handed out
+    private final Map<Integer, IntHashSet> rosters = new ConcurrentHashMap<>();
+    
+    public boolean add(String studentId, String courseCode) {
+        int slot = slotFor(studentId);
+        IntHashSet roster = rosters.computeIfAbsent(CourseCodes.encode(courseCode), ref -> new IntHashSet());
+        synchronized (roster) {
+            return roster.add(slot);
+        }
+    }
+    
+    public boolean remove(String studentId, String courseCode) {
+        Integer slot = slotsById.get(studentId);
+        IntHashSet roster = rosterOf(courseCode);
+        if (slot == null || roster == null) return false;
+        synchronized (roster) {
+            return roster.remove(slot);
+        }
+    }
+    
+    public boolean contains(String studentId, String courseCode) {
+        Integer slot = slotsById.get(studentId);
+        IntHashSet roster = rosterOf(courseCode);
+        if (slot == null || roster == null) return false;
+        synchronized (roster) {
+            return roster.contains(slot);
+        }
+    }
+    
+    // Student IDs enrolled in the course, in no particular order
+    public List<String> roster(String courseCode) {
+        IntHashSet roster = rosterOf(courseCode);
+        if (roster == null) return new ArrayList<>();
+        int[] slots;
+        synchronized (roster) {
+            slots = roster.toArray();
+        }
+        
+        String[] ids = idsBySlot;
+        List<String> studentIds = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            studentIds.add(ids[slot]);
+        }
+        return studentIds;
+    }
+    
+    public int headcount(String courseCode) {
+        IntHashSet roster = rosterOf(courseCode);
+        if (roster == null) return 0;
+        synchronized (roster) {
+            return roster.size();
+        }
+    }
+    
+    public int size() {
+        int total = 0;
+        for (IntHashSet roster : rosters.values()) {
+            synchronized (roster) {
+                total += roster.size();
+            }
+        }
+        return total;
+    }
+    
+    private IntHashSet rosterOf(String courseCode) {
+        int ref = CourseCodes.lookup(courseCode);
+        return ref != CourseCodes.UNKNOWN ? rosters.get(ref) : null;
+    }
+    
+    private int slotFor(String studentId) {
+        Integer slot = slotsById.get(studentId);
+        return slot != null ? slot : assignSlot(studentId);
+    }
+    
+    private synchronized int assignSlot(String studentId) {
+        Integer existing = slotsById.get(studentId);
+        if (existing != null) {
+            return existing;
+        }
+        
+        // The ID is in the array before its slot is visible through the map (same as CourseCodes)
+        int slot = nextSlot++;
+        String[] ids = idsBySlot;
+        if (slot == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[slot] = studentId;
+        idsBySlot = ids;
+        slotsById.put(studentId, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.ccrm.service;
+
+import java.util.Objects;
+
+// One row of a batch enrollment file; the line number ties it back to its row in the result report
+public class EnrollmentRequest {
+    private final int lineNumber;
+    private final String studentId;
+    private final String courseCode;
+    
+    public EnrollmentRequest(int lineNumber, String studentId, String courseCode) {
+        this.lineNumber = lineNumber;
+        this.studentId = Objects.requireNonNull(studentId, "Student ID cannot be null");
+        this.courseCode = Objects.requireNonNull(courseCode, "Course code cannot be null");
+    }
+    
+    public int getLineNumber() { return lineNumber; }
+    public String getStudentId() { return studentId; }
+    public String getCourseCode() { return courseCode; }
+    
+    @Override
+    public String toString() {
+        return String.format("EnrollmentRequest[line=%d, student=%s, course=%s]", lineNumber, studentId, courseCode);
+    }
+}
@@ -0,0 +1,106 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Student;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * Active students with at least one graded course, kept in GPA order (ties by ID) so leaderboard,
+ * probation and range queries walk only the part of the order they return. Students without
+ * grades have no meaningful GPA and are left out rather than ranked at 0.0.
+ */
+class GpaIndex {
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>();
+    // Student ID -> its current entry, so an update finds the one to replace
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    private static final class Entry implements Comparable<Entry> {
+        final double gpa;
+        final String id;
+        final Student student;
+        
+        Entry(double gpa, String id, Student student) {
+            this.gpa = gpa;
+            this.id = id;
+            this.student = student;
+        }
+        
+        @Override
+        public int compareTo(Entry other) {
+            int byGpa = Double.compare(gpa, other.gpa);
+            return byGpa != 0 ? byGpa : id.compareTo(other.id);
+        }
+    }
+    
+    // Re-reads the student's GPA; the new position is in place before the old one goes
+    public void update(Student student) {
+        String id = student.getId();
+        entries.compute(id, (key, current) -> {
+            Entry next = student.isActive() && student.getGradedCredits() > 0
+                    ? new Entry(student.calculateGPA(), id, student)
+                    : null;
+            if (next != null && current != null && next.compareTo(current) == 0) {
+                // Same position; only a replaced instance needs swapping in
+                if (next.student != current.student) {
+                    ranking.remove(current);
+                    ranking.add(next);
+                }
+                return next;
+            }
+            if (next != null) {
+                ranking.add(next);
+            }
+            if (current != null) {
+                ranking.remove(current);
+            }
+            return next;
+        });
+    }
+    
+    // Drops the student only if this instance is the one indexed (it may already be replaced)
+    public void remove(Student student) {
+        entries.computeIfPresent(student.getId(), (key, current) -> {
+            if (current.student != student) {
+                return current;
+            }
+            ranking.remove(current);
+            return null;
+        });
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    // Highest GPAs first; stops after k students that pass the scope, so a sparse scope walks most of the order
+    public List<Student> top(int k, Predicate<Student> scope) {
+        return collect(ranking.descendingSet(), k, scope);
+    }
+    
+    // Lowest GPAs first
+    public List<Student> bottom(int k, Predicate<Student> scope) {
+        return collect(ranking, k, scope);
+    }
+    
+    // GPA in [min, max), lowest first
+    public List<Student> range(double min, double max, Predicate<Student> scope) {
+        if (!(min < max)) return new ArrayList<>();
+        NavigableSet<Entry> slice = ranking.subSet(new Entry(min, "", null), true, new Entry(max, "", null), false);
+        return collect(slice, Integer.MAX_VALUE, scope);
+    }
+    
+    private static List<Student> collect(Iterable<Entry> order, int k, Predicate<Student> scope) {
+        List<Student> result = new ArrayList<>(Math.min(k, 64));
+        // A student mid-update can briefly appear at both its old and new position
+        Set<String> seen = new HashSet<>();
+        for (Iterator<Entry> it = order.iterator(); it.hasNext() && result.size() < k; ) {
+            Entry entry = it.next();
+            if (seen.add(entry.id) && scope.test(entry.student)) {
+                result.add(entry.student);
+            }
+        }
+        return result;
+    }
+}
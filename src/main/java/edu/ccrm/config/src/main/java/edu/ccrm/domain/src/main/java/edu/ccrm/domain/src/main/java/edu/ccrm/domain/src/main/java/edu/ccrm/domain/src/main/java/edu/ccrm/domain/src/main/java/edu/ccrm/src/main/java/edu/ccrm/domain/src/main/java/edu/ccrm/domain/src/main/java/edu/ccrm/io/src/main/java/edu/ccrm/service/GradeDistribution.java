@@ -0,0 +1,61 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.Grade;
+import java.util.Arrays;
+
+// Enrollment and grade figures for one course, department, semester or instructor, as of one read
+public final class GradeDistribution {
+    static final GradeDistribution EMPTY = new GradeDistribution(new long[AcademicAggregates.SLOTS]);
+    
+    private final long[] slots;
+    
+    GradeDistribution(long[] slots) {
+        this.slots = slots;
+    }
+    
+    public long getCount(Grade grade) { return slots[grade.ordinal()]; }
+    public long getEnrolled() { return slots[AcademicAggregates.ENROLLED]; }
+    public long getGradedCredits() { return slots[AcademicAggregates.GRADED_CREDITS]; }
+    
+    public long getGraded() {
+        long graded = 0;
+        for (int i = 0; i < AcademicAggregates.GRADE_COUNT; i++) {
+            graded += slots[i];
+        }
+        return graded;
+    }
+    
+    public long getFailed() { return slots[Grade.F.ordinal()]; }
+    public long getPassed() { return getGraded() - getFailed(); }
+    
+    // Share of graded enrollments that passed; 0 when nothing is graded
+    public double getPassRate() {
+        long graded = getGraded();
+        return graded > 0 ? (double) getPassed() / graded : 0.0;
+    }
+    
+    // Credit-weighted, same formula as a student's GPA
+    public double getAverageGradePoint() {
+        long credits = getGradedCredits();
+        return credits > 0 ? slots[AcademicAggregates.GRADE_POINT_HUNDREDTHS] / 100.0 / credits : 0.0;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        return this == obj || obj instanceof GradeDistribution && Arrays.equals(slots, ((GradeDistribution) obj).slots);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(slots);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("GradeDistribution[enrolled=").append(getEnrolled());
+        for (Grade grade : Grade.values()) {
+            text.append(", ").append(grade.name()).append('=').append(getCount(grade));
+        }
+        return text.append(String.format(", passRate=%.3f, avg=%.2f]", getPassRate(), getAverageGradePoint())).toString();
+    }
+}
@@ -0,0 +1,100 @@
+package edu.ccrm.service;
+
+import java.util.Arrays;
+
+// Open-addressing set of non-negative ints (linear probing, no boxing); not thread-safe
+class IntHashSet {
+    private static final int FREE = -1;
+    
+    private int[] table;
+    private int size;
+    
+    public IntHashSet() {
+        table = newTable(8);
+    }
+    
+    public boolean add(int value) {
+        if ((size + 1) * 4 > table.length * 3) {
+            rehash(table.length * 2);
+        }
+        int mask = table.length - 1;
+        int i = home(value, mask);
+        while (table[i] != FREE) {
+            if (table[i] == value) return false;
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+        size++;
+        return true;
+    }
+    
+    public boolean contains(int value) {
+        return indexOf(value) >= 0;
+    }
+    
+    public boolean remove(int value) {
+        int i = indexOf(value);
+        if (i < 0) return false;
+        
+        // Backward-shift deletion: pull later entries of the probe run into the gap, no tombstones
+        int mask = table.length - 1;
+        int gap = i;
+        for (int j = (gap + 1) & mask; table[j] != FREE; j = (j + 1) & mask) {
+            int home = home(table[j], mask);
+            boolean movable = gap <= j ? (home <= gap || home > j) : (home <= gap && home > j);
+            if (movable) {
+                table[gap] = table[j];
+                gap = j;
+            }
+        }
+        table[gap] = FREE;
+        size--;
+        return true;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int[] toArray() {
+        int[] values = new int[size];
+        int n = 0;
+        for (int value : table) {
+            if (value != FREE) {
+                values[n++] = value;
+            }
+        }
+        return values;
+    }
+    
+    private int indexOf(int value) {
+        int mask = table.length - 1;
+        for (int i = home(value, mask); table[i] != FREE; i = (i + 1) & mask) {
+            if (table[i] == value) return i;
+        }
+        return -1;
+    }
+    
+    private void rehash(int capacity) {
+        int[] old = table;
+        table = newTable(capacity);
+        size = 0;
+        for (int value : old) {
+            if (value != FREE) {
+                add(value);
+            }
+        }
+    }
+    
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, FREE);
+        return table;
+    }
+    
+    // Dense slot numbers would cluster under linear probing, so scramble them first
+    private static int home(int value, int mask) {
+        int h = value * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,24 @@
+package edu.ccrm.service;
+
+import edu.ccrm.domain.*;
+
+/**
+ * Receives every committed service mutation, in order per entity (e.g. a write-ahead log).
+ * Each call returns a ticket; awaitDurable(ticket) blocks until that mutation is on disk,
+ * so services can record under their locks and wait for durability outside them.
+ */
+public interface MutationLog {
+    MutationLog NONE = new MutationLog() {};
+    
+    default long studentSaved(Student student) { return 0; }
+    default long studentDeleted(String studentId) { return 0; }
+    default long courseSaved(Course course) { return 0; }
+    default long instructorAssigned(String courseCode, String instructorId) { return 0; }
+    // What the enrollment counts against the semester's credit load (semester null = none)
+    default long enrolled(String studentId, String courseCode, Semester chargedSemester, int chargedCredits) { return 0; }
+    default long unenrolled(String studentId, String courseCode) { return 0; }
+    // Credits the grade is weighted with in the GPA
+    default long gradeAssigned(String studentId, String courseCode, Grade grade, int credits) { return 0; }
+    
+    default void awaitDurable(long ticket) { }
+}
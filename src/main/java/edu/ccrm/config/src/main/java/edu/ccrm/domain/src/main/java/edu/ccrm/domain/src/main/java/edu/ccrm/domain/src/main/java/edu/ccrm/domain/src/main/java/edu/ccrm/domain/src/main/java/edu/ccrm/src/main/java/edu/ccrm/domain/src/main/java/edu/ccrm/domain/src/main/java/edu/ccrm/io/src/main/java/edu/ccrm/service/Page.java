@@ -0,0 +1,47 @@
+package edu.ccrm.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+// One page of a Searchable.searchPage() query, plus where the next page starts
+public class Page<T> {
+    private final List<T> items;
+    private final Cursor<T> next;
+    
+    Page(List<T> items, Cursor<T> next) {
+        this.items = Collections.unmodifiableList(items);
+        this.next = next;
+    }
+    
+    /**
+     * Resume point for the following page: the last entity handed out. The next query returns what
+     * sorts after it under the same order, so entities saved or removed between pages shift nothing,
+     * but the order must be total (end it with a unique key such as the id or code).
+     */
+    public static final class Cursor<T> {
+        private final T last;
+        
+        Cursor(T last) {
+            this.last = last;
+        }
+        
+        // Rebuilds a cursor from an entity the caller resolved, e.g. from an ID sent back by a client
+        public static <T> Cursor<T> after(T last) {
+            return new Cursor<>(Objects.requireNonNull(last, "Cursor entity cannot be null"));
+        }
+        
+        T last() { return last; }
+    }
+    
+    public List<T> getItems() { return items; }
+    public int size() { return items.size(); }
+    public boolean hasNext() { return next != null; }
+    // null on the last page
+    public Cursor<T> getNextCursor() { return next; }
+    
+    @Override
+    public String toString() {
+        return String.format("Page[items=%d, hasNext=%s]", items.size(), hasNext());
+    }
+}
@@ -0,0 +1,73 @@
+package edu.ccrm.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Multi-valued lookup (key -> entities) kept alongside a service's primary map
+class SecondaryIndex<K, T> {
+    private final Map<K, Set<T>> index = new ConcurrentHashMap<>();
+
+    public void add(K key, T entity) {
+        if (key == null) return;
+        index.compute(key, (k, bucket) -> {
+            Set<T> target = bucket != null ? bucket : ConcurrentHashMap.newKeySet();
+            target.add(entity);
+            return target;
+        });
+    }
+
+    public void remove(K key, T entity) {
+        if (key == null) return;
+        index.computeIfPresent(key, (k, bucket) -> {
+            bucket.remove(entity);
+            return bucket.isEmpty() ? null : bucket;
+        });
+    }
+
+    // Batch form of add(): groups by key first so each bucket is touched once
+    public void addAll(Collection<? extends T> entities, Function<? super T, ? extends K> keyOf) {
+        Map<K, List<T>> grouped = new HashMap<>();
+        for (T entity : entities) {
+            K key = keyOf.apply(entity);
+            if (key != null) {
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(entity);
+            }
+        }
+        grouped.forEach((key, group) -> index.compute(key, (k, bucket) -> {
+            Set<T> target = bucket != null ? bucket : ConcurrentHashMap.newKeySet(group.size());
+            target.addAll(group);
+            return target;
+        }));
+    }
+
+    public Set<T> get(K key) {
+        Set<T> bucket = key != null ? index.get(key) : null;
+        return bucket != null ? Collections.unmodifiableSet(bucket) : Collections.emptySet();
+    }
+
+    public int count(K key) {
+        return get(key).size();
+    }
+
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    public void clear() {
+        index.clear();
+    }
+
+    // Walks the smaller bucket and probes the larger one
+    public static <T> List<T> intersect(Set<T> first, Set<T> second) {
+        Set<T> smaller = first.size() <= second.size() ? first : second;
+        Set<T> larger = smaller == first ? second : first;
+        List<T> result = new ArrayList<>(smaller.size());
+        for (T entity : smaller) {
+            if (larger.contains(entity)) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+}
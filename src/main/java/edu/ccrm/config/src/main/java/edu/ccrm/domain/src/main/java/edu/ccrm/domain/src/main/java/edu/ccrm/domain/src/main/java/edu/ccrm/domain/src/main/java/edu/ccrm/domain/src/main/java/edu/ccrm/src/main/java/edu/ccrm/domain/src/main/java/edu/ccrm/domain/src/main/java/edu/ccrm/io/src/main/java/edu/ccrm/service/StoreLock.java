@@ -0,0 +1,56 @@
+package edu.ccrm.service;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Makes a saveAll() batch visible all at once. Single saves and readers share the read side, so
+ * they never wait for each other; a batch holds the write side while it writes into the live
+ * store and its indexes, so readers see either none of it or all of it. Point lookups read
+ * optimistically against a batch counter (odd while a batch is being written) and only take the
+ * lock when a batch overlapped them.
+ */
+final class StoreLock {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long batches;
+
+    void lockShared() {
+        lock.readLock().lock();
+    }
+
+    void unlockShared() {
+        lock.readLock().unlock();
+    }
+
+    void beginBatch() {
+        lock.writeLock().lock();
+        batches++;
+    }
+
+    void endBatch() {
+        batches++;
+        lock.writeLock().unlock();
+    }
+
+    // For readers that walk the store or an index
+    <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // For single lookups: no lock unless a batch was being written meanwhile
+    <T> T readOptimistically(Supplier<T> reader) {
+        long seen = batches;
+        if ((seen & 1) == 0) {
+            T value = reader.get();
+            if (batches == seen) {
+                return value;
+            }
+        }
+        return read(reader);
+    }
+}
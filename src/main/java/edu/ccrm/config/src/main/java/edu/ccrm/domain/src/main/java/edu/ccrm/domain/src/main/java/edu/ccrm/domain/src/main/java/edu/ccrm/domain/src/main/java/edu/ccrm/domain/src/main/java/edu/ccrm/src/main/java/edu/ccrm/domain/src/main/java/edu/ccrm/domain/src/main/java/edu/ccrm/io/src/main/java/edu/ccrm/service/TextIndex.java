@@ -0,0 +1,212 @@
+package edu.ccrm.service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+// Case-folded prefix and substring lookup over short text terms (names, emails, registration numbers)
+class TextIndex<T> {
+    static final int GRAM_LENGTH = 3;
+    
+    // Folded term -> the one entity carrying it, or a Shared holder once several do
+    private final Map<String, Object> entitiesByTerm = new ConcurrentHashMap<>();
+    // Terms in sorted order for prefix scans: a bulk-built array plus a small sorted delta.
+    // New terms only queue up on add(); they are sorted when the next prefix query needs them,
+    // so a bulk load pays for one sort instead of a skip-list insert per term.
+    // Removed terms stay behind until the next rebuild and are skipped at lookup.
+    private volatile String[] sortedBase = new String[0];
+    private final NavigableSet<String> sortedRecent = new ConcurrentSkipListSet<>();
+    private final Queue<String> unsortedTerms = new ConcurrentLinkedQueue<>();
+    // Trigram -> terms containing it; only terms added for substring matching
+    private final SecondaryIndex<String, String> termsByGram = new SecondaryIndex<>();
+    
+    // Holder for a term shared by several entities (common first names, email domains)
+    private static final class Shared<T> {
+        final Set<T> entities = ConcurrentHashMap.newKeySet();
+    }
+    
+    public void add(String term, T entity, boolean substring) {
+        if (term == null || term.isEmpty()) return;
+        entitiesByTerm.compute(term, (key, current) -> {
+            if (substring && (current == null || !hasGrams(term))) {
+                addGrams(term);
+            }
+            if (current == null) {
+                unsortedTerms.add(term);
+                return entity;
+            }
+            if (current instanceof Shared) {
+                sharedEntities(current).add(entity);
+                return current;
+            }
+            if (current.equals(entity)) {
+                return current;
+            }
+            Shared<T> shared = new Shared<>();
+            shared.entities.add(cast(current));
+            shared.entities.add(entity);
+            return shared;
+        });
+    }
+    
+    public void remove(String term, T entity) {
+        if (term == null || term.isEmpty()) return;
+        entitiesByTerm.computeIfPresent(term, (key, current) -> {
+            boolean empty;
+            if (current instanceof Shared) {
+                Set<T> entities = sharedEntities(current);
+                entities.remove(entity);
+                empty = entities.isEmpty();
+            } else {
+                empty = current.equals(entity);
+            }
+            if (!empty) {
+                return current;
+            }
+            sortedRecent.remove(term);
+            removeGrams(term);
+            return null;
+        });
+    }
+    
+    // Entities with a term starting with the folded prefix; lazy, may repeat an entity
+    public Stream<T> withPrefix(String prefix) {
+        if (prefix.isEmpty()) return Stream.empty();
+        if (!unsortedTerms.isEmpty()) {
+            sortPendingTerms();
+        }
+        String[] base = sortedBase;
+        String upper = prefix + Character.MAX_VALUE;
+        int from = insertionPoint(base, prefix);
+        int to = insertionPoint(base, upper);
+        return Stream.concat(Arrays.stream(base, from, to), sortedRecent.subSet(prefix, true, upper, false).stream())
+                .flatMap(this::entitiesOf);
+    }
+    
+    /**
+     * Entities with a substring-indexed term containing the folded fragment; lazy, may repeat an entity.
+     * Candidate terms come from the fragment's rarest trigram. Fragments shorter than a trigram
+     * would match nearly everything, so they fall back to prefix matching.
+     */
+    public Stream<T> containing(String fragment) {
+        if (fragment.length() < GRAM_LENGTH) {
+            return withPrefix(fragment);
+        }
+        Set<String> candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= fragment.length(); i++) {
+            Set<String> terms = termsByGram.get(fragment.substring(i, i + GRAM_LENGTH));
+            if (candidates == null || terms.size() < candidates.size()) {
+                candidates = terms;
+            }
+        }
+        return candidates.stream()
+                .filter(term -> term.contains(fragment))
+                .flatMap(this::entitiesOf);
+    }
+    
+    public int termCount() {
+        return entitiesByTerm.size();
+    }
+    
+    public static String fold(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+    
+    // Folded runs of letters and digits, e.g. "Mary-Ann.O'Neil@x.edu" -> mary, ann, o, neil, x, edu
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>(4);
+        if (text == null) return tokens;
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(fold(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+    
+    // Small batches go into the delta; once it outgrows an eighth of the base, everything is re-sorted
+    private synchronized void sortPendingTerms() {
+        List<String> pending = new ArrayList<>();
+        for (String term; (term = unsortedTerms.poll()) != null; ) {
+            pending.add(term);
+        }
+        String[] base = sortedBase;
+        if (sortedRecent.size() + pending.size() <= Math.max(1024, base.length / 8)) {
+            sortedRecent.addAll(pending);
+            return;
+        }
+        
+        List<String> all = new ArrayList<>(base.length + sortedRecent.size() + pending.size());
+        all.addAll(Arrays.asList(base));
+        all.addAll(sortedRecent);
+        all.addAll(pending);
+        String[] rebuilt = all.stream()
+                .filter(entitiesByTerm::containsKey)
+                .sorted()
+                .distinct()
+                .toArray(String[]::new);
+        sortedBase = rebuilt;
+        sortedRecent.clear();
+    }
+    
+    private static int insertionPoint(String[] sorted, String key) {
+        int index = Arrays.binarySearch(sorted, key);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    /**
+     * Whether the text has a word-start match of the folded word (or a match anywhere, for substring
+     * matching), checked in place; the per-candidate counterpart of the index lookups above.
+     */
+    public static boolean matches(String text, String word, boolean substring) {
+        if (text == null) return false;
+        for (int i = 0; i + word.length() <= text.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1));
+            if ((substring || wordStart) && text.regionMatches(true, i, word, 0, word.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Stream<T> entitiesOf(String term) {
+        Object current = entitiesByTerm.get(term);
+        if (current == null) return Stream.empty();
+        if (current instanceof Shared) return sharedEntities(current).stream();
+        return Stream.of(cast(current));
+    }
+    
+    private void addGrams(String term) {
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            termsByGram.add(term.substring(i, i + GRAM_LENGTH), term);
+        }
+    }
+    
+    // A term first added for prefix matching only may later need its trigrams
+    private boolean hasGrams(String term) {
+        return term.length() < GRAM_LENGTH || termsByGram.get(term.substring(0, GRAM_LENGTH)).contains(term);
+    }
+    
+    private void removeGrams(String term) {
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            termsByGram.remove(term.substring(i, i + GRAM_LENGTH), term);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Set<T> sharedEntities(Object holder) {
+        return ((Shared<T>) holder).entities;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private T cast(Object entity) {
+        return (T) entity;
+    }
+}
@@ -5,7 +5,9 @@ import java.util.List;
 
 public interface Persistable<T> {
     void save(T entity) throws IOException;
-    void saveAll(List<T> entities) throws IOException;
+    // Saves only if nothing is stored under the entity's ID yet; false if something is
+    boolean saveIfAbsent(T entity) throws IOException;
+    BulkWriteResult saveAll(List<T> entities) throws IOException;
     T findById(String id);
     List<T> findAll();
     void delete(String id);
@@ -1,13 +1,73 @@
 package edu.ccrm.service;
 
-import java.util.List;
+import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 public interface Searchable<T> {
     List<T> search(Predicate<T> criteria);
     
+    // Lazy view over every entity; nothing is copied until the caller consumes it
+    Stream<T> stream();
+    
+    default Stream<T> searchStream(Predicate<T> criteria) {
+        return stream().filter(criteria);
+    }
+    
     default List<T> searchByField(String fieldValue, java.util.function.Function<T, String> fieldExtractor) {
-        return search(entity -> fieldExtractor.apply(entity).toLowerCase()
-                                            .contains(fieldValue.toLowerCase()));
+        String needle = fieldValue.toLowerCase();
+        return search(entity -> fieldExtractor.apply(entity).toLowerCase().contains(needle));
+    }
+    
+    // The first k matches under the order, without sorting (or copying) the rest
+    default List<T> topK(Predicate<T> criteria, Comparator<? super T> order, int k) {
+        return topK(searchStream(criteria), order, k);
+    }
+    
+    /**
+     * One page of matches in the given order, starting after the cursor (null for the first page).
+     * Each page is a single pass with a bounded heap, so deep pages cost no more than the first.
+     */
+    default Page<T> searchPage(Predicate<T> criteria, Comparator<? super T> order, Page.Cursor<T> after, int limit) {
+        return page(searchStream(criteria), order, after, limit);
+    }
+    
+    static <T> Page<T> page(Stream<T> candidates, Comparator<? super T> order, Page.Cursor<T> after, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        if (after != null) {
+            T last = after.last();
+            candidates = candidates.filter(entity -> order.compare(entity, last) > 0);
+        }
+        
+        // One extra entity tells whether another page exists
+        List<T> items = topK(candidates, order, limit + 1);
+        if (items.size() <= limit) {
+            return new Page<>(items, null);
+        }
+        items.remove(limit);
+        return new Page<>(items, new Page.Cursor<>(items.get(limit - 1)));
+    }
+    
+    // Keeps the k best in a heap ordered worst-first, so each candidate costs O(log k)
+    static <T> List<T> topK(Stream<? extends T> candidates, Comparator<? super T> order, int k) {
+        if (k <= 0) return new ArrayList<>();
+        PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+        candidates.sequential().forEach(entity -> {
+            if (heap.size() < k) {
+                heap.add(entity);
+            } else if (order.compare(entity, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entity);
+            }
+        });
+        
+        List<T> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
     }
 }
@@ -1,38 +1,207 @@
 package edu.ccrm.service;
 
+import edu.ccrm.config.AppConfig;
 import edu.ccrm.domain.*;
+import edu.ccrm.metrics.EnrollmentEvent;
+import edu.ccrm.metrics.GradeEvent;
+import edu.ccrm.metrics.Metrics;
+import edu.ccrm.metrics.OperationTimer;
 import edu.ccrm.util.ValidationException;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class StudentService implements Persistable<Student>, Searchable<Student> {
+    private static final OperationTimer SAVE_TIMER = Metrics.getInstance().timer("student.save");
+    private static final OperationTimer SAVE_ALL_TIMER = Metrics.getInstance().timer("student.saveAll");
+    private static final OperationTimer SEARCH_TIMER = Metrics.getInstance().timer("student.search");
+    private static final OperationTimer SEARCH_TEXT_TIMER = Metrics.getInstance().timer("student.searchText");
+    private static final OperationTimer ENROLL_TIMER = Metrics.getInstance().timer("student.enroll");
+    private static final OperationTimer ENROLL_BATCH_TIMER = Metrics.getInstance().timer("student.enrollAll");
+    private static final OperationTimer UNENROLL_TIMER = Metrics.getInstance().timer("student.unenroll");
+    private static final OperationTimer GRADE_TIMER = Metrics.getInstance().timer("student.assignGrade");
+    private static final OperationTimer GRADE_BATCH_TIMER = Metrics.getInstance().timer("student.assignGrades");
+    
     private final Map<String, Student> students = new ConcurrentHashMap<>();
-    private final Map<String, Enrollment> enrollments = new ConcurrentHashMap<>();
+    // Single saves and readers share it; saveAll() holds it exclusively, so a batch appears all at once
+    private final StoreLock storeLock = new StoreLock();
+    private final EnrollmentIndex enrollments = new EnrollmentIndex();
+    // Type-ahead lookup over names, emails and registration numbers; kept current by indexUpdater
+    private final TextIndex<Student> textIndex = new TextIndex<>();
+    // Active, graded students in GPA order for leaderboard and probation queries
+    private final GpaIndex gpaIndex = new GpaIndex();
+    private final Person.ChangeListener indexUpdater = this::onStudentChanged;
+    
+    private static final int LOCK_STRIPES = 256;
+    // Credits argument meaning "as the course says now" rather than a recorded value
+    private static final int COURSE_CREDITS = -1;
+    private final Object[] studentLocks = new Object[LOCK_STRIPES];
+    private final CourseService courseService;
+    // Course code -> seat count and waitlist; seats are claimed lock-free, see CourseSeats
+    private final Map<String, CourseSeats> seats = new ConcurrentHashMap<>();
+    // Shared with the CourseService when there is one, so course filing and grades meet in one place
+    private final AcademicAggregates aggregates;
+    private volatile MutationLog mutationLog = MutationLog.NONE;
+    
+    public StudentService() {
+        this(null);
+    }
+    
+    // With a CourseService, enrollment uses real course credits and semesters
+    public StudentService(CourseService courseService) {
+        this.courseService = courseService;
+        this.aggregates = courseService != null ? courseService.getAggregates() : new AcademicAggregates();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            studentLocks[i] = new Object();
+        }
+        
+        // Gauges follow the most recently created service
+        Metrics metrics = Metrics.getInstance();
+        metrics.gauge("students.count", () -> students.size());
+        metrics.gauge("enrollments.count", enrollments::size);
+        metrics.gauge("students.textIndex.terms", textIndex::termCount);
+    }
+    
+    // Attach a durable log (see StorageEngine); mutations made before this are not logged
+    public void setMutationLog(MutationLog mutationLog) {
+        this.mutationLog = Objects.requireNonNull(mutationLog, "Mutation log cannot be null");
+    }
     
     @Override
     public void save(Student student) throws IOException {
-        Objects.requireNonNull(student, "Student cannot be null");
-        students.put(student.getId(), student);
+        store(student, true, this::validate);
+    }
+    
+    @Override
+    public boolean saveIfAbsent(Student student) throws IOException {
+        return store(student, false, this::validate);
+    }
+    
+    /**
+     * Puts back a student recorded earlier (snapshot or log replay) exactly as it was recorded:
+     * nothing is validated, since it was accepted once already and later rules must not drop it.
+     */
+    public void restore(Student student) throws IOException {
+        store(student, true, unchecked -> null);
+    }
+    
+    // validator as in saveAll(); a rejected student is an IllegalArgumentException here
+    private boolean store(Student student, boolean overwrite, Function<Student, String> validator) throws IOException {
+        long start = SAVE_TIMER.start();
+        try {
+            Objects.requireNonNull(student, "Student cannot be null");
+            String rejection = validator.apply(student);
+            if (rejection != null) {
+                throw new IllegalArgumentException(rejection);
+            }
+            long ticket;
+            storeLock.lockShared();
+            try {
+                // Under the student's lock so no enrollment or grade lands on the outgoing instance
+                synchronized (lockFor(student.getId())) {
+                    if (!overwrite && students.containsKey(student.getId())) {
+                        return false;
+                    }
+                    Student previous = replace(students, student);
+                    if (previous != null) {
+                        unindex(previous);
+                    }
+                    index(student);
+                    ticket = mutationLog.studentSaved(student);
+                }
+            } finally {
+                storeLock.unlockShared();
+            }
+            mutationLog.awaitDurable(ticket);
+            return true;
+        } catch (RuntimeException e) {
+            SAVE_TIMER.failed();
+            throw e;
+        } finally {
+            SAVE_TIMER.stop(start);
+        }
     }
     
     @Override
-    public void saveAll(List<Student> studentList) throws IOException {
-        for (Student student : studentList) {
-            save(student);
+    public BulkWriteResult saveAll(List<Student> studentList) throws IOException {
+        return storeAll(studentList, this::validate);
+    }
+    
+    // Bulk form of restore(): only null entities and repeated IDs are rejected
+    public BulkWriteResult restoreAll(List<Student> studentList) throws IOException {
+        return storeAll(studentList, unchecked -> null);
+    }
+    
+    private BulkWriteResult storeAll(List<Student> studentList, Function<Student, String> validator)
+            throws IOException {
+        long start = SAVE_ALL_TIMER.start();
+        try {
+            BulkBatch<Student> batch = BulkBatch.validate(studentList, Student::getId, validator);
+            Collection<Student> accepted = batch.accepted().values();
+            int updated = 0;
+            long ticket = 0;
+            
+            storeLock.beginBatch();
+            try {
+                // Written in place, no copy of the store: readers wait for the batch to finish, and
+                // indexes follow once every student is in
+                for (Student student : accepted) {
+                    Student previous;
+                    synchronized (lockFor(student.getId())) {
+                        previous = replace(students, student);
+                    }
+                    if (previous != null) {
+                        updated++;
+                        unindex(previous);
+                    }
+                    ticket = mutationLog.studentSaved(student);
+                }
+                // The text index is concurrent, so a large batch is indexed in parallel
+                accepted.parallelStream().forEach(this::index);
+            } finally {
+                storeLock.endBatch();
+            }
+            // One durability wait for the whole batch
+            mutationLog.awaitDurable(ticket);
+            return batch.toResult(updated);
+        } catch (RuntimeException e) {
+            SAVE_ALL_TIMER.failed();
+            throw e;
+        } finally {
+            SAVE_ALL_TIMER.stop(start);
         }
     }
     
+    // A re-saved student keeps its enrollments, grades and credit charges, which the indexes still count
+    private static Student replace(Map<String, Student> store, Student student) {
+        Student previous = store.get(student.getId());
+        if (previous != null && previous != student) {
+            student.inheritCourseRecord(previous);
+        }
+        store.put(student.getId(), student);
+        return previous;
+    }
+    
+    private String validate(Student student) {
+        if (student.getRegNo() == null || student.getRegNo().isBlank()) return "Registration number cannot be blank";
+        if (student.getEmail() == null || !student.getEmail().contains("@")) return "Invalid email: " + student.getEmail();
+        return null;
+    }
+    
+    // Code holding a student's lock reads the map directly instead: a batch waits for that lock
     @Override
     public Student findById(String id) {
-        return students.get(id);
+        return storeLock.readOptimistically(() -> students.get(id));
     }
     
     @Override
     public List<Student> findAll() {
-        return new ArrayList<>(students.values());
+        return storeLock.read(() -> new ArrayList<>(students.values()));
     }
     
     @Override
@@ -45,74 +214,719 @@ public class StudentService implements Persistable<Student>, Searchable<Student>
     
     @Override
     public boolean exists(String id) {
-        return students.containsKey(id);
+        return storeLock.readOptimistically(() -> students.containsKey(id));
     }
     
     @Override
     public List<Student> search(Predicate<Student> criteria) {
-        return students.values().stream()
-                .filter(criteria)
-                .collect(Collectors.toList());
+        long start = SEARCH_TIMER.start();
+        try {
+            return storeLock.read(() -> searchStream(criteria).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            SEARCH_TIMER.failed();
+            throw e;
+        } finally {
+            SEARCH_TIMER.stop(start);
+        }
+    }
+    
+    // Weakly consistent: consumed during a saveAll() it may show part of the batch. search(), topK()
+    // and searchPage() consume it under the store lock and see a batch whole or not at all
+    @Override
+    public Stream<Student> stream() {
+        return students.values().stream();
+    }
+    
+    @Override
+    public List<Student> topK(Predicate<Student> criteria, Comparator<? super Student> order, int k) {
+        return storeLock.read(() -> Searchable.super.topK(criteria, order, k));
+    }
+    
+    @Override
+    public Page<Student> searchPage(Predicate<Student> criteria, Comparator<? super Student> order,
+                                    Page.Cursor<Student> after, int limit) {
+        return storeLock.read(() -> Searchable.super.searchPage(criteria, order, after, limit));
+    }
+    
+    public void enrollStudent(String studentId, String courseCode) throws ValidationException {
+        enrollStudent(studentId, courseCode, AppConfig.getInstance().getMaxCreditsPerSemester());
     }
     
     public void enrollStudent(String studentId, String courseCode, int maxCreditsPerSemester) 
             throws ValidationException {
-        Student student = findById(studentId);
-        if (student == null) {
-            throw new ValidationException("Student not found: " + studentId);
-        }
-        
-        if (student.getEnrolledCourses().contains(courseCode)) {
-            throw new ValidationException("Student already enrolled in course: " + courseCode);
+        enroll(studentId, courseCode, maxCreditsPerSemester, SeatMode.RESERVE);
+    }
+    
+    /**
+     * Enrolls the student if the course has a free seat, otherwise puts them at the back of the
+     * course's waitlist. Returns true if enrolled, false if waitlisted. Waitlisted students are
+     * enrolled in order as seats free up, subject to the usual checks at that time; one who no
+     * longer qualifies (e.g. over the credit limit) is dropped from the list and the seat goes to
+     * the next. The waitlist is held in memory only.
+     */
+    public boolean enrollOrWaitlist(String studentId, String courseCode) throws ValidationException {
+        if (enroll(studentId, courseCode, AppConfig.getInstance().getMaxCreditsPerSemester(), SeatMode.WAITLIST)) {
+            return true;
         }
-        
-        // Business rule: Check max credits per semester
-        int currentCredits = getCurrentSemesterCredits(studentId);
-        if (currentCredits >= maxCreditsPerSemester) {
-            throw new ValidationException("Maximum credit limit exceeded for semester");
+        // A seat may have freed between the full check and joining; no one else would notice it
+        promoteWaitlisted(courseCode);
+        return findById(studentId).isEnrolledIn(courseCode);
+    }
+    
+    // Re-applies an enrollment accepted earlier (snapshot or log replay): no credit or seat limits
+    public void restoreEnrollment(String studentId, String courseCode) throws ValidationException {
+        enroll(studentId, courseCode, Integer.MAX_VALUE, SeatMode.FORCE, null, COURSE_CREDITS);
+    }
+    
+    // Same, charging what the enrollment was originally charged rather than the course as it is now
+    public void restoreEnrollment(String studentId, String courseCode, Semester chargedSemester, int chargedCredits)
+            throws ValidationException {
+        enroll(studentId, courseCode, Integer.MAX_VALUE, SeatMode.FORCE, chargedSemester, chargedCredits);
+    }
+    
+    // How enroll() accounts for the seat
+    private enum SeatMode {
+        RESERVE,  // claim a free seat or fail
+        WAITLIST, // claim a free seat or join the waitlist
+        HELD,     // the caller already claimed it
+        FORCE     // count it even past capacity
+    }
+    
+    private boolean enroll(String studentId, String courseCode, int maxCreditsPerSemester, SeatMode seatMode)
+            throws ValidationException {
+        return enroll(studentId, courseCode, maxCreditsPerSemester, seatMode, null, COURSE_CREDITS);
+    }
+    
+    // Returns false only in WAITLIST mode, when the student was waitlisted instead
+    private boolean enroll(String studentId, String courseCode, int maxCreditsPerSemester, SeatMode seatMode,
+                           Semester chargedSemester, int chargedCredits) throws ValidationException {
+        long start = ENROLL_TIMER.start();
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.begin();
+        try {
+            Course course = null;
+            if (courseService != null) {
+                course = courseService.findById(courseCode);
+                if (course == null) {
+                    throw new ValidationException("Course not found: " + courseCode);
+                }
+            }
+            boolean recorded = chargedCredits != COURSE_CREDITS;
+            int credits = recorded ? chargedCredits : creditsOf(course);
+            Semester semester = recorded ? chargedSemester : course != null ? course.getSemester() : null;
+            int capacity = course != null ? course.getCapacity() : 0;
+            CourseSeats courseSeats = seatsFor(courseCode);
+            long ticket;
+            
+            // Check-and-enroll is atomic per student; different students never contend on one lock,
+            // and students competing for one course meet only at the seat count
+            synchronized (lockFor(studentId)) {
+                // Read under the lock: a concurrent save() replaces the instance under it too
+                Student student = students.get(studentId);
+                if (student == null) {
+                    throw new ValidationException("Student not found: " + studentId);
+                }
+                String rejection = checkEnrollment(student, courseCode, semester, credits, maxCreditsPerSemester);
+                if (rejection != null) {
+                    throw new ValidationException(rejection);
+                }
+                
+                if (seatMode == SeatMode.FORCE) {
+                    courseSeats.forceReserve();
+                } else if (seatMode != SeatMode.HELD && !claimSeat(courseSeats, capacity)) {
+                    if (seatMode == SeatMode.RESERVE) {
+                        throw new ValidationException("Course is full: " + courseCode);
+                    }
+                    courseSeats.join(studentId);
+                    return false;
+                }
+                
+                ticket = recordEnrollment(student, courseCode, semester, credits);
+            }
+            mutationLog.awaitDurable(ticket);
+            return true;
+        } catch (ValidationException | RuntimeException e) {
+            ENROLL_TIMER.failed();
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            ENROLL_TIMER.stop(start);
+            commit(event, "enroll", studentId, courseCode);
         }
-        
-        student.enrollInCourse(courseCode);
-        Enrollment enrollment = new Enrollment(studentId, courseCode);
-        enrollments.put(studentId + "_" + courseCode, enrollment);
     }
     
     public void unenrollStudent(String studentId, String courseCode) throws ValidationException {
-        Student student = findById(studentId);
-        if (student == null) {
-            throw new ValidationException("Student not found: " + studentId);
+        long start = UNENROLL_TIMER.start();
+        EnrollmentEvent event = new EnrollmentEvent();
+        event.begin();
+        try {
+            long ticket;
+            boolean freed = false;
+            synchronized (lockFor(studentId)) {
+                Student student = students.get(studentId);
+                if (student == null) {
+                    throw new ValidationException("Student not found: " + studentId);
+                }
+                boolean wasEnrolled = student.isEnrolledIn(courseCode);
+                Grade grade = student.getGrade(courseCode);
+                int gradeCredits = student.getCreditsForCourse(courseCode);
+                // Dropping the course also drops its credit charge, whatever the course says now
+                student.unenrollFromCourse(courseCode);
+                if (enrollments.remove(studentId, courseCode)) {
+                    seatsFor(courseCode).release();
+                    freed = true;
+                    aggregates.unenrolled(courseCode, grade, gradeCredits);
+                    gpaIndex.update(student);
+                }
+                if (!wasEnrolled && !freed) {
+                    return; // Nothing was dropped, so nothing to log or wait for
+                }
+                ticket = mutationLog.unenrolled(studentId, courseCode);
+            }
+            mutationLog.awaitDurable(ticket);
+            // Outside the student's lock: promotion takes the promoted student's lock
+            if (freed) {
+                promoteWaitlisted(courseCode);
+            }
+        } catch (ValidationException | RuntimeException e) {
+            UNENROLL_TIMER.failed();
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            UNENROLL_TIMER.stop(start);
+            commit(event, "unenroll", studentId, courseCode);
         }
-        
-        student.unenrollFromCourse(courseCode);
-        enrollments.remove(studentId + "_" + courseCode);
     }
     
     public void assignGrade(String studentId, String courseCode, Grade grade) 
             throws ValidationException {
+        postGrade(studentId, courseCode, grade, COURSE_CREDITS);
+    }
+    
+    // Re-applies a grade posted earlier (snapshot or log replay) with the credits it was posted with
+    public void restoreGrade(String studentId, String courseCode, Grade grade, int credits)
+            throws ValidationException {
+        postGrade(studentId, courseCode, grade, credits);
+    }
+    
+    private void postGrade(String studentId, String courseCode, Grade grade, int gradeCredits)
+            throws ValidationException {
+        long start = GRADE_TIMER.start();
+        GradeEvent event = new GradeEvent();
+        event.begin();
+        try {
+            int credits = gradeCredits != COURSE_CREDITS ? gradeCredits : creditsOf(courseCode);
+            long ticket;
+            synchronized (lockFor(studentId)) {
+                Student student = students.get(studentId);
+                if (student == null) {
+                    throw new ValidationException("Student not found: " + studentId);
+                }
+                if (!student.isEnrolledIn(courseCode)) {
+                    throw new ValidationException("Student not enrolled in course: " + courseCode);
+                }
+                
+                Grade previous = student.getGrade(courseCode);
+                int previousCredits = student.getCreditsForCourse(courseCode);
+                student.assignGrade(courseCode, grade, credits);
+                aggregates.graded(courseCode, previous, previousCredits, grade, credits);
+                gpaIndex.update(student);
+                ticket = mutationLog.gradeAssigned(studentId, courseCode, grade, credits);
+            }
+            mutationLog.awaitDurable(ticket);
+        } catch (ValidationException | RuntimeException e) {
+            GRADE_TIMER.failed();
+            event.failure = e.getMessage();
+            throw e;
+        } finally {
+            GRADE_TIMER.stop(start);
+            commit(event, studentId, courseCode, grade);
+        }
+    }
+    
+    // Caller holds the student's lock; returns why the enrollment is refused, or null if it may go ahead
+    private static String checkEnrollment(Student student, String courseCode, Semester semester, int credits,
+                                          int maxCreditsPerSemester) {
+        if (student.isEnrolledIn(courseCode)) {
+            return "Student already enrolled in course: " + courseCode;
+        }
+        // Business rule: Check max credits per semester
+        if (student.getCreditsCarried(semester) + credits > maxCreditsPerSemester) {
+            return "Maximum credit limit exceeded for semester";
+        }
+        return null;
+    }
+    
+    // Caller holds the student's lock and has claimed the seat; returns the log ticket
+    private long recordEnrollment(Student student, String courseCode, Semester semester, int credits) {
+        // Joining the waitlist also happens under this lock, so no one is ever enrolled and waiting
+        seatsFor(courseCode).leave(student.getId());
+        student.enrollInCourse(courseCode, semester, credits);
+        enrollments.add(student.getId(), courseCode);
+        aggregates.enrolled(courseCode);
+        return mutationLog.enrolled(student.getId(), courseCode, semester, credits);
+    }
+    
+    public BatchEnrollmentResult enrollAll(List<EnrollmentRequest> requests) {
+        return enrollAll(requests, AppConfig.getInstance().getMaxCreditsPerSemester());
+    }
+    
+    /**
+     * Applies a batch of enrollment requests under the same rules as enrollStudent() and reports
+     * the outcome of every row. Requests are grouped by student; groups are checked and applied in
+     * parallel, each under a single acquisition of its student's lock, in the order the student's
+     * rows appear. So a student's later rows see the credits taken by earlier ones, and a repeated
+     * row is rejected as already enrolled. Full courses reject rather than waitlist. There is one
+     * durability wait for the whole batch.
+     */
+    public BatchEnrollmentResult enrollAll(List<EnrollmentRequest> requests, int maxCreditsPerSemester) {
+        long start = ENROLL_BATCH_TIMER.start();
+        long began = System.currentTimeMillis();
+        try {
+            // Positions of each student's requests, in request order
+            Map<String, List<Integer>> byStudent = IntStream.range(0, requests.size()).parallel().boxed()
+                    .collect(Collectors.groupingBy(i -> requests.get(i).getStudentId()));
+            
+            // Rejection reason per request, null once applied; each group writes only its own positions
+            String[] outcomes = new String[requests.size()];
+            long ticket = byStudent.entrySet().parallelStream()
+                    .mapToLong(group -> enrollGroup(group.getKey(), group.getValue(), requests, outcomes,
+                                                    maxCreditsPerSemester))
+                    .max()
+                    .orElse(0);
+            mutationLog.awaitDurable(ticket);
+            
+            List<BatchEnrollmentResult.Row> rows = new ArrayList<>(requests.size());
+            for (int i = 0; i < outcomes.length; i++) {
+                EnrollmentRequest request = requests.get(i);
+                rows.add(new BatchEnrollmentResult.Row(request.getLineNumber(), request.getStudentId(),
+                                                       request.getCourseCode(), outcomes[i]));
+            }
+            return new BatchEnrollmentResult(rows, System.currentTimeMillis() - began);
+        } catch (RuntimeException e) {
+            ENROLL_BATCH_TIMER.failed();
+            throw e;
+        } finally {
+            ENROLL_BATCH_TIMER.stop(start);
+        }
+    }
+    
+    // Returns the highest log ticket written for the group, 0 if none
+    private long enrollGroup(String studentId, List<Integer> positions, List<EnrollmentRequest> requests,
+                             String[] outcomes, int maxCreditsPerSemester) {
+        // Course lookups happen before taking the lock
+        Course[] courses = new Course[positions.size()];
+        for (int k = 0; k < courses.length; k++) {
+            courses[k] = courseService != null ? courseService.findById(requests.get(positions.get(k)).getCourseCode()) : null;
+        }
+        
+        long ticket = 0;
+        synchronized (lockFor(studentId)) {
+            Student student = students.get(studentId);
+            if (student == null) {
+                for (int position : positions) {
+                    outcomes[position] = "Student not found: " + studentId;
+                }
+                return 0;
+            }
+            for (int k = 0; k < courses.length; k++) {
+                int position = positions.get(k);
+                String courseCode = requests.get(position).getCourseCode();
+                Course course = courses[k];
+                if (courseService != null && course == null) {
+                    outcomes[position] = "Course not found: " + courseCode;
+                    continue;
+                }
+                
+                int credits = creditsOf(course);
+                Semester semester = course != null ? course.getSemester() : null;
+                String rejection = checkEnrollment(student, courseCode, semester, credits, maxCreditsPerSemester);
+                if (rejection == null && !claimSeat(seatsFor(courseCode), course != null ? course.getCapacity() : 0)) {
+                    rejection = "Course is full: " + courseCode;
+                }
+                if (rejection != null) {
+                    outcomes[position] = rejection;
+                    continue;
+                }
+                ticket = recordEnrollment(student, courseCode, semester, credits);
+            }
+        }
+        return ticket;
+    }
+    
+    // While anyone is waiting, a new arrival does not jump the line even if a seat is momentarily free
+    private static boolean claimSeat(CourseSeats courseSeats, int capacity) {
+        if (capacity > 0 && courseSeats.hasWaiting()) {
+            return false;
+        }
+        return courseSeats.tryReserve(capacity);
+    }
+    
+    /**
+     * Fills free seats from the head of the course's waitlist and returns how many students were
+     * enrolled. Runs automatically when a seat is dropped; call it after raising a capacity.
+     */
+    public int promoteWaitlisted(String courseCode) {
+        CourseSeats courseSeats = seats.get(courseCode);
+        if (courseSeats == null) {
+            return 0;
+        }
+        int maxCredits = AppConfig.getInstance().getMaxCreditsPerSemester();
+        int promoted = 0;
+        // Claim the seat first, then hand it down the line until someone can take it
+        while (courseSeats.hasWaiting() && courseSeats.tryReserve(capacityOf(courseCode))) {
+            boolean placed = false;
+            try {
+                String studentId;
+                while (!placed && (studentId = courseSeats.pollWaiting()) != null) {
+                    try {
+                        placed = enroll(studentId, courseCode, maxCredits, SeatMode.HELD);
+                    } catch (ValidationException e) {
+                        // No longer eligible; they lose their place
+                    }
+                }
+            } finally {
+                if (!placed) {
+                    courseSeats.release();
+                }
+            }
+            if (placed) {
+                promoted++;
+            }
+        }
+        return promoted;
+    }
+    
+    // False if the student was not waiting
+    public boolean leaveWaitlist(String studentId, String courseCode) {
+        CourseSeats courseSeats = seats.get(courseCode);
+        return courseSeats != null && courseSeats.leave(studentId);
+    }
+    
+    // Waiting student IDs, next to be enrolled first
+    public List<String> getWaitlist(String courseCode) {
+        CourseSeats courseSeats = seats.get(courseCode);
+        return courseSeats != null ? courseSeats.waitlist() : new ArrayList<>();
+    }
+    
+    // Seats currently claimed; equals the headcount once in-flight enrollments settle
+    public int getSeatsTaken(String courseCode) {
+        CourseSeats courseSeats = seats.get(courseCode);
+        return courseSeats != null ? courseSeats.taken() : 0;
+    }
+    
+    private CourseSeats seatsFor(String courseCode) {
+        return seats.computeIfAbsent(courseCode, code -> new CourseSeats());
+    }
+    
+    private int capacityOf(String courseCode) {
+        Course course = courseService != null ? courseService.findById(courseCode) : null;
+        return course != null ? course.getCapacity() : 0;
+    }
+    
+    // Event fields are only filled in when a recording has the event enabled
+    private static void commit(EnrollmentEvent event, String action, String studentId, String courseCode) {
+        if (event.shouldCommit()) {
+            event.action = action;
+            event.studentId = studentId;
+            event.courseCode = courseCode;
+            event.commit();
+        }
+    }
+    
+    private static void commit(GradeEvent event, String studentId, String courseCode, Grade grade) {
+        if (event.shouldCommit()) {
+            event.studentId = studentId;
+            event.courseCode = courseCode;
+            event.grade = grade != null ? grade.name() : null;
+            event.commit();
+        }
+    }
+    
+    // Bulk grade posting for one course; walks only that course's roster
+    public int assignGrades(String courseCode, Map<String, Grade> gradesByStudent) {
+        long start = GRADE_BATCH_TIMER.start();
+        try {
+            int credits = creditsOf(courseCode);
+            int posted = 0;
+            long ticket = 0;
+            for (String studentId : enrollments.roster(courseCode)) {
+                Grade grade = gradesByStudent.get(studentId);
+                if (grade == null) {
+                    continue;
+                }
+                
+                synchronized (lockFor(studentId)) {
+                    Student student = students.get(studentId);
+                    if (student != null && student.isEnrolledIn(courseCode)) {
+                        Grade previous = student.getGrade(courseCode);
+                        int previousCredits = student.getCreditsForCourse(courseCode);
+                        student.assignGrade(courseCode, grade, credits);
+                        aggregates.graded(courseCode, previous, previousCredits, grade, credits);
+                        gpaIndex.update(student);
+                        ticket = mutationLog.gradeAssigned(studentId, courseCode, grade, credits);
+                        posted++;
+                    }
+                }
+            }
+            mutationLog.awaitDurable(ticket);
+            return posted;
+        } catch (RuntimeException e) {
+            GRADE_BATCH_TIMER.failed();
+            throw e;
+        } finally {
+            GRADE_BATCH_TIMER.stop(start);
+        }
+    }
+    
+    // Enrollments are views over the student's own record, created on demand
+    public Enrollment getEnrollment(String studentId, String courseCode) {
+        Student student = findById(studentId);
+        return student != null && student.isEnrolledIn(courseCode) ? new Enrollment(student, courseCode) : null;
+    }
+    
+    public List<Enrollment> getEnrollmentsForStudent(String studentId) {
         Student student = findById(studentId);
         if (student == null) {
-            throw new ValidationException("Student not found: " + studentId);
+            return new ArrayList<>();
         }
-        
-        if (!student.getEnrolledCourses().contains(courseCode)) {
-            throw new ValidationException("Student not enrolled in course: " + courseCode);
+        List<Enrollment> result = new ArrayList<>(student.getEnrolledCourseCount());
+        for (String courseCode : student.getEnrolledCourses()) {
+            result.add(new Enrollment(student, courseCode));
         }
-        
-        student.assignGrade(courseCode, grade);
-        Enrollment enrollment = enrollments.get(studentId + "_" + courseCode);
-        if (enrollment != null) {
-            enrollment.setGrade(grade);
+        return result;
+    }
+    
+    public List<Enrollment> getCourseRoster(String courseCode) {
+        List<Enrollment> result = new ArrayList<>();
+        for (Student student : getEnrolledStudents(courseCode)) {
+            result.add(new Enrollment(student, courseCode));
+        }
+        return result;
+    }
+    
+    public List<Student> getEnrolledStudents(String courseCode) {
+        List<String> roster = enrollments.roster(courseCode);
+        List<Student> result = new ArrayList<>(roster.size());
+        for (String studentId : roster) {
+            Student student = findById(studentId);
+            if (student != null) {
+                result.add(student);
+            }
         }
+        return result;
+    }
+    
+    /**
+     * GPA leaderboard queries over active students with at least one grade, answered from an
+     * ordered index in O(log n + k) rather than by computing and sorting every GPA. Students carry
+     * no department, so scoped variants take a filter and walk the order until k students pass it.
+     * A scoped query is therefore linear in the worst case: its cost is the number of students
+     * ranked above the k-th match, so for a scope that few students pass (a sparse department or
+     * cohort) it approaches a walk of the whole index.
+     */
+    public List<Student> topByGpa(int k) {
+        return topByGpa(k, student -> true);
     }
     
-    private int getCurrentSemesterCredits(String studentId) {
-        // Simplified: assume 3 credits per course
+    public List<Student> topByGpa(int k, Predicate<Student> scope) {
+        return storeLock.read(() -> gpaIndex.top(k, scope));
+    }
+    
+    public List<Student> bottomByGpa(int k) {
+        return bottomByGpa(k, student -> true);
+    }
+    
+    public List<Student> bottomByGpa(int k, Predicate<Student> scope) {
+        return storeLock.read(() -> gpaIndex.bottom(k, scope));
+    }
+    
+    // E.g. the dean's list as topPercentByGpa(1.0)
+    public List<Student> topPercentByGpa(double percent) {
+        if (percent <= 0 || percent > 100) throw new IllegalArgumentException("Percent must be in (0, 100]: " + percent);
+        return storeLock.read(() -> gpaIndex.top((int) Math.ceil(gpaIndex.size() * percent / 100), student -> true));
+    }
+    
+    // GPA in [min, max), lowest first; e.g. probation as findByGpaRange(0.0, 5.0)
+    public List<Student> findByGpaRange(double minGpa, double maxGpa) {
+        return storeLock.read(() -> gpaIndex.range(minGpa, maxGpa, student -> true));
+    }
+    
+    public AcademicAggregates getAggregates() {
+        return aggregates;
+    }
+    
+    // Recounts the aggregates from every student's record and lists any figure that has drifted
+    public List<String> verifyAggregates() {
+        return aggregates.verify(findAll(), courseCode -> courseService != null ? courseService.findById(courseCode) : null);
+    }
+    
+    public int getCourseHeadcount(String courseCode) {
+        return enrollments.headcount(courseCode);
+    }
+    
+    // Credits a student currently carries in the given semester (null = courses without a semester)
+    public int getSemesterCredits(String studentId, Semester semester) {
         Student student = findById(studentId);
-        return student != null ? student.getEnrolledCourses().size() * 3 : 0;
+        return student != null ? student.getCreditsCarried(semester) : 0;
+    }
+    
+    private Object lockFor(String studentId) {
+        int hash = studentId.hashCode();
+        return studentLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+    
+    private static int creditsOf(Course course) {
+        // Without course data, fall back to the standard 3-credit course
+        return course != null && course.getCredits() > 0 ? course.getCredits() : Student.DEFAULT_COURSE_CREDITS;
+    }
+    
+    private int creditsOf(String courseCode) {
+        return creditsOf(courseService != null ? courseService.findById(courseCode) : null);
     }
     
     public List<Student> findByRegNo(String regNo) {
-        return search(student -> student.getRegNo().equalsIgnoreCase(regNo));
+        if (regNo == null) return new ArrayList<>();
+        return storeLock.read(() -> textIndex.withPrefix(TextIndex.fold(regNo))
+                .filter(student -> regNo.equalsIgnoreCase(student.getRegNo()))
+                .distinct()
+                .collect(Collectors.toList()));
+    }
+    
+    /**
+     * Type-ahead search over first/last name, email and registration number, case-insensitive.
+     * Every word of the query must match: inside a name part (prefix only for one- or two-letter
+     * words), or as a prefix of a word of the email's local part or of the registration number.
+     * E.g. "mit REG2023" or "priya.s". Results are unordered and capped at the limit.
+     */
+    public List<Student> searchText(String query, int limit) {
+        long start = SEARCH_TEXT_TIMER.start();
+        try {
+            List<String> words = TextIndex.tokens(query);
+            if (words.isEmpty() || limit <= 0) return new ArrayList<>();
+            
+            // The longest word is the most selective, so it drives the lookup; the rest filter
+            String driver = Collections.max(words, Comparator.comparingInt(String::length));
+            Set<Student> found = new LinkedHashSet<>();
+            storeLock.read(() -> {
+                collectMatches(textIndex.containing(driver), words, found, limit);
+                if (driver.length() >= TextIndex.GRAM_LENGTH) {
+                    // Email and registration number terms are only reachable by prefix
+                    collectMatches(textIndex.withPrefix(driver), words, found, limit);
+                }
+                return found;
+            });
+            return new ArrayList<>(found);
+        } catch (RuntimeException e) {
+            SEARCH_TEXT_TIMER.failed();
+            throw e;
+        } finally {
+            SEARCH_TEXT_TIMER.stop(start);
+        }
+    }
+    
+    // Sequential and short-circuiting, so only as many candidates are checked as it takes to fill the limit
+    private static void collectMatches(Stream<Student> candidates, List<String> words, Set<Student> found, int limit) {
+        if (found.size() >= limit) return;
+        candidates.filter(student -> !found.contains(student))
+                .filter(student -> words.stream().allMatch(word -> matchesWord(student, word)))
+                .limit(limit - found.size())
+                .forEachOrdered(found::add);
+    }
+    
+    private static boolean matchesWord(Student student, String word) {
+        boolean substring = word.length() >= TextIndex.GRAM_LENGTH;
+        Name name = student.getName();
+        return TextIndex.matches(name.getFirstName(), word, substring)
+                || TextIndex.matches(name.getLastName(), word, substring)
+                || TextIndex.matches(localPart(student.getEmail()), word, false)
+                || student.getRegNo() != null && student.getRegNo().regionMatches(true, 0, word, 0, word.length());
+    }
+    
+    private void index(Student student) {
+        addTerms(nameTerms(student.getName()), student, true);
+        addTerms(emailTerms(student.getEmail()), student, false);
+        textIndex.add(TextIndex.fold(student.getRegNo()), student, false);
+        gpaIndex.update(student);
+        student.addChangeListener(indexUpdater);
+    }
+    
+    private void unindex(Student student) {
+        student.removeChangeListener(indexUpdater);
+        removeTerms(nameTerms(student.getName()), student);
+        removeTerms(emailTerms(student.getEmail()), student);
+        textIndex.remove(TextIndex.fold(student.getRegNo()), student);
+        gpaIndex.remove(student);
+    }
+    
+    private void onStudentChanged(Person person, Person.Property property, Object oldValue, Object newValue) {
+        Student student = (Student) person;
+        long ticket;
+        // Setters notify after releasing the student's monitor, so two changes can arrive out of
+        // order. Each event drops the terms of the value it replaced and indexes the current one,
+        // under the student's lock so no event can index a value another has already dropped
+        synchronized (lockFor(student.getId())) {
+            if (students.get(student.getId()) != student) {
+                return; // Stale instance that has been replaced
+            }
+            
+            // Setter calls (including delete()) are persisted from here
+            ticket = property == Person.Property.ACTIVE && !student.isActive()
+                    ? mutationLog.studentDeleted(student.getId())
+                    : mutationLog.studentSaved(student);
+            
+            switch (property) {
+                case NAME:
+                    removeTerms(nameTerms((Name) oldValue), student);
+                    addTerms(nameTerms(student.getName()), student, true);
+                    break;
+                case EMAIL:
+                    removeTerms(emailTerms((String) oldValue), student);
+                    addTerms(emailTerms(student.getEmail()), student, false);
+                    break;
+                case REG_NO:
+                    textIndex.remove(TextIndex.fold((String) oldValue), student);
+                    textIndex.add(TextIndex.fold(student.getRegNo()), student, false);
+                    break;
+                case ACTIVE:
+                    gpaIndex.update(student);
+                    break;
+                default:
+                    break;
+            }
+        }
+        mutationLog.awaitDurable(ticket);
+    }
+    
+    // Name parts are substring-searchable; email parts and registration numbers only by prefix,
+    // which keeps the trigram table down to the (short, highly shared) name vocabulary.
+    // The email domain is left out: it is shared by nearly everyone and selects nothing.
+    private static List<String> emailTerms(String email) {
+        return TextIndex.tokens(localPart(email));
+    }
+    
+    private static String localPart(String email) {
+        int at = email != null ? email.indexOf('@') : -1;
+        return at >= 0 ? email.substring(0, at) : email;
+    }
+    
+    private static List<String> nameTerms(Name name) {
+        if (name == null) return new ArrayList<>();
+        List<String> terms = TextIndex.tokens(name.getFirstName());
+        terms.addAll(TextIndex.tokens(name.getLastName()));
+        return terms;
+    }
+    
+    private void addTerms(List<String> terms, Student student, boolean substring) {
+        for (String term : terms) {
+            textIndex.add(term, student, substring);
+        }
+    }
+    
+    private void removeTerms(List<String> terms, Student student) {
+        for (String term : terms) {
+            textIndex.remove(term, student);
+        }
     }
     
     public List<Student> getActiveStudents() {
@@ -1,18 +1,59 @@
 package edu.ccrm.service;
 
 import edu.ccrm.domain.*;
+import edu.ccrm.metrics.TranscriptRenderEvent;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class TranscriptService {
     private final StudentService studentService;
     private final CourseService courseService;
     
+    private static final int BATCH_WINDOW_PER_THREAD = 256;
+    private static final String RULE = "=".repeat(60);
+    private static final String THIN_RULE = "-".repeat(60);
+    private static final Pattern UNSAFE_FILE_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+    
+    // One StringBuilder per worker thread, reused for every transcript it renders
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(2048));
+    
     public TranscriptService(StudentService studentService, CourseService courseService) {
         this.studentService = studentService;
         this.courseService = courseService;
     }
     
+    // Full transcript text for one student (same layout as the batch writers), or null if unknown
+    public String renderTranscript(String studentId) {
+        Student student = studentService.findById(studentId);
+        if (student == null) {
+            return null;
+        }
+        Map<String, Course> catalog = new HashMap<>();
+        for (String courseCode : student.getGrades().keySet()) {
+            Course course = courseService.findById(courseCode);
+            if (course != null) {
+                catalog.put(courseCode, course);
+            }
+        }
+        return render(student, catalog).toString();
+    }
+    
     public void printTranscript(String studentId) {
         Student student = studentService.findById(studentId);
         if (student == null) {
@@ -38,8 +79,6 @@ public class TranscriptService {
             System.out.printf("%-10s %-30s %-8s %-6s%n", "Course", "Title", "Credits", "Grade");
             System.out.println("-".repeat(60));
             
-            double totalGradePoints = 0;
-            int totalCredits = 0;
             
             for (Map.Entry<String, Grade> entry : grades.entrySet()) {
                 String courseCode = entry.getKey();
@@ -47,18 +86,16 @@ public class TranscriptService {
                 Course course = courseService.findById(courseCode);
                 
                 String courseTitle = course != null ? course.getTitle() : "Unknown";
-                int credits = course != null ? course.getCredits() : 3;
+                // Credits as recorded when the grade was posted, so totals agree with Student.calculateGPA()
+                int credits = student.getCreditsForCourse(courseCode);
                 
                 System.out.printf("%-10s %-30s %-8d %-6s%n", 
                                 courseCode, courseTitle, credits, grade.name());
-                
-                totalGradePoints += grade.getGradePoint() * credits;
-                totalCredits += credits;
             }
             
             System.out.println("-".repeat(60));
-            System.out.printf("Total Credits: %d%n", totalCredits);
-            System.out.printf("GPA: %.2f%n", totalCredits > 0 ? totalGradePoints / totalCredits : 0.0);
+            System.out.printf("Total Credits: %d%n", student.getGradedCredits());
+            System.out.printf("GPA: %.2f%n", student.calculateGPA());
         }
         
         System.out.println("=".repeat(60));
@@ -113,12 +150,255 @@ public class TranscriptService {
         
         Student student = studentService.findById(studentId);
         if (student != null) {
-            Map<String, Course> courseMap = courseService.findAll().stream()
+            // Only the student's own courses, not the whole catalog
+            Map<String, Course> courseMap = student.getGrades().keySet().stream()
+                    .map(courseService::findById)
+                    .filter(Objects::nonNull)
                     .collect(Collectors.toMap(Course::getCode, course -> course));
             formatter.format(student, courseMap);
         }
     }
     
+    public static class BatchResult {
+        private final int transcripts;
+        private final int failed;
+        private final long charsWritten;
+        private final long elapsedMillis;
+        
+        BatchResult(int transcripts, int failed, long charsWritten, long elapsedMillis) {
+            this.transcripts = transcripts;
+            this.failed = failed;
+            this.charsWritten = charsWritten;
+            this.elapsedMillis = elapsedMillis;
+        }
+        
+        public int getTranscripts() { return transcripts; }
+        public int getFailed() { return failed; }
+        public long getCharsWritten() { return charsWritten; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        
+        public double getTranscriptsPerSecond() {
+            return elapsedMillis > 0 ? transcripts * 1000.0 / elapsedMillis : transcripts;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("%d transcripts (%d failed), %d chars in %d ms (%.0f/s)",
+                               transcripts, failed, charsWritten, elapsedMillis, getTranscriptsPerSecond());
+        }
+    }
+    
+    /**
+     * Writes one transcript file per matching student (<studentId>.txt, see fileNameFor) into the
+     * directory, rendering on a fork-join pool of the given parallelism. All transcripts of the run
+     * resolve course titles against one catalog snapshot taken at the start. A student whose
+     * transcript cannot be rendered or written is reported and counted as failed.
+     */
+    public BatchResult writeTranscriptFiles(Predicate<Student> filter, Path directory, int parallelism)
+            throws IOException {
+        Files.createDirectories(directory);
+        List<Student> students = studentService.search(filter);
+        Map<String, Course> catalog = catalogSnapshot();
+        BatchProgress progress = new BatchProgress(students.size());
+        AtomicInteger failed = new AtomicInteger();
+        AtomicLong chars = new AtomicLong();
+        
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            await(pool, () -> students.parallelStream().forEach(student -> {
+                Path file = directory.resolve(fileNameFor(student.getId()));
+                try {
+                    StringBuilder buffer = render(student, catalog);
+                    try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                        out.append(buffer);
+                    }
+                    chars.addAndGet(buffer.length());
+                } catch (IOException | RuntimeException e) {
+                    failed.incrementAndGet();
+                    System.err.println("Could not write transcript for " + student.getId() + ": " + e.getMessage());
+                }
+                progress.completed();
+            }));
+        } finally {
+            pool.shutdown();
+        }
+        
+        return progress.finish(failed.get(), chars.get());
+    }
+    
+    /**
+     * Writes the transcripts of all matching students into one file, in student order.
+     * Students are rendered in parallel a window at a time and written sequentially, so memory
+     * is bounded by the window rather than the number of students. A student whose transcript
+     * cannot be rendered is left out, reported and counted as failed; a write error fails the run.
+     */
+    public BatchResult writeCombinedTranscripts(Predicate<Student> filter, Path file, int parallelism)
+            throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        List<Student> students = new ArrayList<>(studentService.search(filter));
+        students.sort(Comparator.comparing(Student::getId));
+        Map<String, Course> catalog = catalogSnapshot();
+        BatchProgress progress = new BatchProgress(students.size());
+        int window = Math.max(1, parallelism) * BATCH_WINDOW_PER_THREAD;
+        AtomicInteger failed = new AtomicInteger();
+        long chars = 0;
+        
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            String[] rendered = new String[Math.min(window, students.size())];
+            for (int start = 0; start < students.size(); start += window) {
+                int offset = start;
+                int count = Math.min(window, students.size() - start);
+                await(pool, () -> IntStream.range(0, count).parallel().forEach(i -> {
+                    Student student = students.get(offset + i);
+                    try {
+                        rendered[i] = render(student, catalog).toString();
+                    } catch (RuntimeException e) {
+                        rendered[i] = null;
+                        failed.incrementAndGet();
+                        System.err.println("Could not render transcript for " + student.getId() + ": " + e);
+                    }
+                }));
+                for (int i = 0; i < count; i++) {
+                    if (rendered[i] != null) {
+                        out.write(rendered[i]);
+                        chars += rendered[i].length();
+                    }
+                    progress.completed();
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        
+        return progress.finish(failed.get(), chars);
+    }
+    
+    private Map<String, Course> catalogSnapshot() {
+        return courseService.findAll().stream()
+                .collect(Collectors.toMap(Course::getCode, course -> course, (first, second) -> first));
+    }
+    
+    // Renders into the calling thread's reusable buffer; the result is only valid until its next call
+    private static StringBuilder render(Student student, Map<String, Course> catalog) {
+        TranscriptRenderEvent event = new TranscriptRenderEvent();
+        event.begin();
+        StringBuilder out = RENDER_BUFFER.get();
+        out.setLength(0);
+        out.append(RULE).append('\n').append("OFFICIAL TRANSCRIPT").append('\n').append(RULE).append('\n');
+        out.append("Student: ").append(student.getName().getFullName()).append(" (").append(student.getId()).append(")\n");
+        out.append("Registration No: ").append(student.getRegNo()).append('\n');
+        out.append("Email: ").append(student.getEmail()).append('\n');
+        out.append("Status: ").append(student.isActive() ? "Active" : "Inactive").append('\n');
+        out.append(THIN_RULE).append('\n').append("ACADEMIC RECORD").append('\n').append(THIN_RULE).append('\n');
+        
+        Map<String, Grade> grades = student.getGrades();
+        if (grades.isEmpty()) {
+            out.append("No grades recorded.\n");
+        } else {
+            pad(out, "Course", 11);
+            pad(out, "Title", 31);
+            pad(out, "Credits", 9).append("Grade\n").append(THIN_RULE).append('\n');
+            for (Map.Entry<String, Grade> entry : new TreeMap<>(grades).entrySet()) {
+                Course course = catalog.get(entry.getKey());
+                pad(out, entry.getKey(), 11);
+                pad(out, course != null ? course.getTitle() : "Unknown", 31);
+                pad(out, Integer.toString(student.getCreditsForCourse(entry.getKey())), 9);
+                out.append(entry.getValue().name()).append('\n');
+            }
+            out.append(THIN_RULE).append('\n');
+            out.append("Total Credits: ").append(student.getGradedCredits()).append('\n');
+            out.append("GPA: ");
+            appendTwoDecimals(out, student.calculateGPA()).append('\n');
+        }
+        out.append(RULE).append("\n\n");
+        
+        if (event.shouldCommit()) {
+            event.studentId = student.getId();
+            event.courses = grades.size();
+            event.chars = out.length();
+            event.commit();
+        }
+        return out;
+    }
+    
+    // Appends value left-aligned in a column of the given width (at least one trailing space)
+    private static StringBuilder pad(StringBuilder out, String value, int width) {
+        out.append(value);
+        for (int i = value.length(); i < width; i++) {
+            out.append(' ');
+        }
+        if (value.length() >= width) out.append(' ');
+        return out;
+    }
+    
+    private static StringBuilder appendTwoDecimals(StringBuilder out, double value) {
+        long hundredths = Math.round(value * 100);
+        out.append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) out.append('0');
+        return out.append(fraction);
+    }
+    
+    // <studentId>.txt. An ID with characters unsafe in file names has them replaced and gets a short
+    // hash of the raw ID after a '~', which safe IDs never contain, so two IDs never share a file
+    static String fileNameFor(String studentId) {
+        String safe = UNSAFE_FILE_CHARS.matcher(studentId).replaceAll("_");
+        if (safe.equals(studentId)) {
+            return studentId + ".txt";
+        }
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(studentId.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        StringBuilder name = new StringBuilder(safe.length() + 14).append(safe).append('~');
+        for (int i = 0; i < 4; i++) {
+            name.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+        }
+        return name.append(".txt").toString();
+    }
+    
+    // Parallel streams started inside the pool run on it, so batch jobs don't take over the common pool
+    private static void await(ForkJoinPool pool, Runnable task) throws IOException {
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Transcript batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Transcript batch failed", e.getCause());
+        }
+    }
+    
+    // Counts finished transcripts and prints progress roughly every tenth of the batch
+    private static class BatchProgress {
+        private final int total;
+        private final int step;
+        private final long startTime = System.currentTimeMillis();
+        private final AtomicInteger done = new AtomicInteger();
+        
+        BatchProgress(int total) {
+            this.total = total;
+            this.step = Math.max(1, total / 10);
+        }
+        
+        void completed() {
+            int count = done.incrementAndGet();
+            if (count % step == 0 || count == total) {
+                long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+                System.out.printf("Transcripts: %d/%d (%.0f/s)%n", count, total, count * 1000.0 / elapsed);
+            }
+        }
+        
+        BatchResult finish(int failed, long chars) {
+            return new BatchResult(done.get() - failed, failed, chars, System.currentTimeMillis() - startTime);
+        }
+    }
+    
     // Functional interface for transcript formatting
     @FunctionalInterface
     private interface TranscriptFormatter {
@@ -149,11 +149,11 @@ public class JavaFeaturesDemo {
             if (person instanceof Student) {
                 Student student = (Student) person; // Explicit downcasting
                 System.out.println("  Student GPA: " + String.format("%.2f", student.calculateGPA()));
-                System.out.println("  Enrolled courses: " + student.getEnrolledCourses().size());
+                System.out.println("  Enrolled courses: " + student.getEnrolledCourseCount());
             } else if (person instanceof Instructor) {
                 Instructor instructor = (Instructor) person; // Explicit downcasting
                 System.out.println("  Instructor department: " + instructor.getDepartment());
-                System.out.println("  Assigned courses: " + instructor.getAssignedCourses().size());
+                System.out.println("  Assigned courses: " + instructor.getAssignedCourseCount());
             }
         }
         
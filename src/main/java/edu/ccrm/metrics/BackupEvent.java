@@ -0,0 +1,33 @@
+package edu.ccrm.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one createBackup call
+@Name("edu.ccrm.Backup")
+@Label("Backup")
+@Category({"CCRM", "File I/O"})
+@StackTrace(false)
+public final class BackupEvent extends Event {
+    @Label("Backup Name")
+    public String backupName;
+    
+    @Label("Files")
+    public int files;
+    
+    @Label("New Objects")
+    @Description("Files whose content was not already in the backup store")
+    public int newObjects;
+    
+    @Label("Bytes Copied")
+    @DataAmount
+    public long bytesCopied;
+    
+    @Label("Failure")
+    public String failure;
+}
@@ -0,0 +1,36 @@
+package edu.ccrm.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one CSV export; bytes are as written to disk, after any gzip
+@Name("edu.ccrm.CsvExport")
+@Label("CSV Export")
+@Category({"CCRM", "File I/O"})
+@StackTrace(false)
+public final class CsvExportEvent extends Event {
+    @Label("File")
+    public String file;
+    
+    @Label("Entity")
+    @Description("Students or Courses")
+    public String entity;
+    
+    @Label("Rows")
+    public long rows;
+    
+    @Label("Bytes Written")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Gzip")
+    public boolean gzip;
+    
+    @Label("Failure")
+    public String failure;
+}
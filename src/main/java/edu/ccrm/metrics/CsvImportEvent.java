@@ -0,0 +1,36 @@
+package edu.ccrm.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one CSV import, covering parse and validation of every row
+@Name("edu.ccrm.CsvImport")
+@Label("CSV Import")
+@Category({"CCRM", "File I/O"})
+@StackTrace(false)
+public final class CsvImportEvent extends Event {
+    @Label("File")
+    public String file;
+    
+    @Label("Entity")
+    @Description("Student or Course")
+    public String entity;
+    
+    @Label("Accepted Rows")
+    public long acceptedRows;
+    
+    @Label("Rejected Rows")
+    public long rejectedRows;
+    
+    @Label("Bytes Read")
+    @DataAmount
+    public long bytes;
+    
+    @Label("Failure")
+    public String failure;
+}
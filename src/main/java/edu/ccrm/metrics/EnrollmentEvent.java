@@ -0,0 +1,29 @@
+package edu.ccrm.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one enrollStudent/unenrollStudent call; the duration spans the durable write
+@Name("edu.ccrm.Enrollment")
+@Label("Enrollment Change")
+@Category({"CCRM", "Enrollment"})
+@StackTrace(false)
+public final class EnrollmentEvent extends Event {
+    @Label("Action")
+    @Description("enroll or unenroll")
+    public String action;
+    
+    @Label("Student ID")
+    public String studentId;
+    
+    @Label("Course Code")
+    public String courseCode;
+    
+    @Label("Failure")
+    @Description("Validation or runtime error message; null on success")
+    public String failure;
+}
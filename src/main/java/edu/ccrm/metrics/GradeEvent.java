@@ -0,0 +1,28 @@
+package edu.ccrm.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one assignGrade call
+@Name("edu.ccrm.Grade")
+@Label("Grade Assignment")
+@Category({"CCRM", "Enrollment"})
+@StackTrace(false)
+public final class GradeEvent extends Event {
+    @Label("Student ID")
+    public String studentId;
+    
+    @Label("Course Code")
+    public String courseCode;
+    
+    @Label("Grade")
+    public String grade;
+    
+    @Label("Failure")
+    @Description("Validation or runtime error message; null on success")
+    public String failure;
+}
@@ -0,0 +1,94 @@
+package edu.ccrm.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency distribution over fixed 1-2-5 buckets from 1 microsecond to 10 seconds, plus an overflow
+ * bucket. Every cell is a striped adder, so concurrent recorders never contend on a shared word;
+ * the price is that a snapshot taken mid-recording may be off by the samples in flight.
+ */
+public final class LatencyHistogram {
+    // Inclusive upper bound of each bucket, in nanoseconds; the last bucket has no bound
+    private static final long[] BUCKET_BOUNDS = bucketBounds();
+    
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS.length + 1];
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+    
+    private static long[] bucketBounds() {
+        long[] bounds = new long[22];
+        long decade = 1_000;
+        for (int i = 0; i < bounds.length; decade *= 10) {
+            bounds[i++] = decade;
+            if (i < bounds.length) bounds[i++] = 2 * decade;
+            if (i < bounds.length) bounds[i++] = 5 * decade;
+        }
+        return bounds;
+    }
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        int slot = Arrays.binarySearch(BUCKET_BOUNDS, value);
+        buckets[slot >= 0 ? slot : -slot - 1].increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+    
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(counts, totalNanos.sum(), maxNanos.get());
+    }
+    
+    // Point-in-time copy of the counts; percentiles resolve to the upper bound of their bucket
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        
+        Snapshot(long[] counts, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = Arrays.stream(counts).sum();
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+        
+        public long getCount() { return count; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getMaxNanos() { return maxNanos; }
+        
+        public double getMeanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+        
+        // Upper bound of the bucket holding the q-th quantile, capped at the observed maximum
+        public long getPercentileNanos(double q) {
+            if (q < 0 || q > 1) throw new IllegalArgumentException("Quantile must be between 0 and 1: " + q);
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS.length ? Math.min(BUCKET_BOUNDS[i], maxNanos) : maxNanos;
+                }
+            }
+            return maxNanos;
+        }
+        
+        // Bucket bounds in nanoseconds paired with getBucketCounts(); the final count is the overflow
+        public long[] getBucketBounds() { return BUCKET_BOUNDS.clone(); }
+        public long[] getBucketCounts() { return counts.clone(); }
+    }
+}
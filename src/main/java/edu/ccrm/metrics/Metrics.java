@@ -0,0 +1,98 @@
+package edu.ccrm.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide registry of counters, gauges and operation timers (Singleton, like AppConfig).
+ * Lookups by name happen once, when a call site caches its metric in a static field; recording
+ * goes straight to striped adders and never touches the registry or a lock.
+ */
+public final class Metrics {
+    private static volatile Metrics instance;
+    
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, OperationTimer> timers = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+    
+    private Metrics() {}
+    
+    public static Metrics getInstance() {
+        if (instance == null) {
+            synchronized (Metrics.class) {
+                if (instance == null) {
+                    instance = new Metrics();
+                }
+            }
+        }
+        return instance;
+    }
+    
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(Objects.requireNonNull(name, "Metric name cannot be null"), key -> new LongAdder());
+    }
+    
+    public OperationTimer timer(String name) {
+        return timers.computeIfAbsent(Objects.requireNonNull(name, "Metric name cannot be null"), OperationTimer::new);
+    }
+    
+    // Sampled only when a snapshot is taken; registering the same name again replaces the source
+    public void gauge(String name, LongSupplier source) {
+        gauges.put(Objects.requireNonNull(name, "Metric name cannot be null"),
+                   Objects.requireNonNull(source, "Gauge source cannot be null"));
+    }
+    
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(counters, gauges, timers);
+    }
+    
+    // Writes the text form of a fresh snapshot, replacing the file in one move so readers never see half a dump
+    public void dumpTo(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Files.createDirectories(absolute.getParent());
+        Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        try (Writer out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            snapshot().writeTo(out);
+        }
+        Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // Dumps to the file every period on a daemon thread until stopReporting(); restarting replaces the schedule
+    public synchronized void startReporting(Path file, Duration period) {
+        stopReporting();
+        reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "ccrm-metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = period.toMillis();
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                dumpTo(file);
+            } catch (IOException e) {
+                System.err.println("Failed to write metrics to " + file + ": " + e.getMessage());
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+    
+    public synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdown();
+            reporter = null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package edu.ccrm.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Point-in-time values of every registered metric, sorted by name
+public final class MetricsSnapshot {
+    private final Instant takenAt = Instant.now();
+    private final Map<String, Long> counters = new TreeMap<>();
+    private final Map<String, Long> gauges = new TreeMap<>();
+    private final Map<String, LatencyHistogram.Snapshot> latencies = new TreeMap<>();
+    private final Map<String, Long> failures = new TreeMap<>();
+    
+    MetricsSnapshot(Map<String, LongAdder> counters, Map<String, LongSupplier> gauges,
+                    Map<String, OperationTimer> timers) {
+        counters.forEach((name, adder) -> this.counters.put(name, adder.sum()));
+        gauges.forEach((name, source) -> this.gauges.put(name, source.getAsLong()));
+        timers.forEach((name, timer) -> {
+            latencies.put(name, timer.snapshot());
+            failures.put(name, timer.getFailures());
+        });
+    }
+    
+    public Instant getTakenAt() { return takenAt; }
+    public Map<String, Long> getCounters() { return Collections.unmodifiableMap(counters); }
+    public Map<String, Long> getGauges() { return Collections.unmodifiableMap(gauges); }
+    public Map<String, LatencyHistogram.Snapshot> getLatencies() { return Collections.unmodifiableMap(latencies); }
+    public Map<String, Long> getFailures() { return Collections.unmodifiableMap(failures); }
+    
+    // One line per metric, e.g. "timer   student.enroll  count=120 failed=3 mean=41.2us p50<=50us p99<=200us max=1.3ms"
+    public void writeTo(Writer out) throws IOException {
+        out.write("# CCRM metrics at " + takenAt + "\n");
+        for (Map.Entry<String, Long> entry : counters.entrySet()) {
+            out.write(String.format("counter %-32s %d%n", entry.getKey(), entry.getValue()));
+        }
+        for (Map.Entry<String, Long> entry : gauges.entrySet()) {
+            out.write(String.format("gauge   %-32s %d%n", entry.getKey(), entry.getValue()));
+        }
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : latencies.entrySet()) {
+            LatencyHistogram.Snapshot latency = entry.getValue();
+            out.write(String.format("timer   %-32s count=%d failed=%d mean=%s p50<=%s p90<=%s p99<=%s max=%s%n",
+                    entry.getKey(), latency.getCount(), failures.get(entry.getKey()),
+                    formatNanos(latency.getMeanNanos()), formatNanos(latency.getPercentileNanos(0.50)),
+                    formatNanos(latency.getPercentileNanos(0.90)), formatNanos(latency.getPercentileNanos(0.99)),
+                    formatNanos(latency.getMaxNanos())));
+        }
+    }
+    
+    static String formatNanos(double nanos) {
+        if (nanos < 1_000) return String.format("%.0fns", nanos);
+        if (nanos < 1_000_000) return String.format("%.1fus", nanos / 1_000);
+        if (nanos < 1_000_000_000) return String.format("%.1fms", nanos / 1_000_000);
+        return String.format("%.2fs", nanos / 1_000_000_000);
+    }
+    
+    @Override
+    public String toString() {
+        StringWriter text = new StringWriter();
+        try {
+            writeTo(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,49 @@
+package edu.ccrm.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Calls, failures and latency of one service operation. Call sites hold the timer in a static
+ * field and bracket the operation:
+ * <pre>
+ * long start = TIMER.start();
+ * try {
+ *     ...
+ * } catch (RuntimeException e) {
+ *     TIMER.failed();
+ *     throw e;
+ * } finally {
+ *     TIMER.stop(start);
+ * }
+ * </pre>
+ */
+public final class OperationTimer {
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder failures = new LongAdder();
+    
+    OperationTimer(String name) {
+        this.name = name;
+    }
+    
+    public long start() {
+        return System.nanoTime();
+    }
+    
+    // Records the call's latency, whether or not it failed
+    public void stop(long startNanos) {
+        latency.record(System.nanoTime() - startNanos);
+    }
+    
+    public void failed() {
+        failures.increment();
+    }
+    
+    public String getName() { return name; }
+    
+    public long getFailures() { return failures.sum(); }
+    
+    public LatencyHistogram.Snapshot snapshot() {
+        return latency.snapshot();
+    }
+}
@@ -0,0 +1,23 @@
+package edu.ccrm.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for rendering one transcript, single or as part of a batch
+@Name("edu.ccrm.TranscriptRender")
+@Label("Transcript Render")
+@Category({"CCRM", "Transcript"})
+@StackTrace(false)
+public final class TranscriptRenderEvent extends Event {
+    @Label("Student ID")
+    public String studentId;
+    
+    @Label("Graded Courses")
+    public int courses;
+    
+    @Label("Characters")
+    public int chars;
+}
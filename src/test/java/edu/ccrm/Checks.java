@@ -0,0 +1,136 @@
+package edu.ccrm;
+
+import edu.ccrm.domain.InstructorCheck;
+import edu.ccrm.domain.StudentCheck;
+import edu.ccrm.io.BackupStoreCheck;
+import edu.ccrm.io.CsvImporterCheck;
+import edu.ccrm.io.StorageEngineCheck;
+import edu.ccrm.service.CourseServiceCheck;
+import edu.ccrm.service.StudentServiceCheck;
+import edu.ccrm.service.TranscriptServiceCheck;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runner and assertions for the checks under src/test/java. The project builds with plain javac
+ * (see run-checks.sh / run-checks.bat), so there is no test framework: each check class lists its
+ * cases in register(), a case fails on any exception, and any failure exits with status 1.
+ * Arguments, if given, run only the cases whose name contains one of them.
+ */
+public final class Checks {
+    @FunctionalInterface
+    public interface Case {
+        void run() throws Exception;
+    }
+    
+    private final Map<String, Case> cases = new LinkedHashMap<>();
+    
+    public void add(String name, Case check) {
+        if (cases.putIfAbsent(name, check) != null) {
+            throw new IllegalArgumentException("Duplicate check: " + name);
+        }
+    }
+    
+    public static void main(String[] args) {
+        Checks checks = new Checks();
+        StudentCheck.register(checks);
+        InstructorCheck.register(checks);
+        StudentServiceCheck.register(checks);
+        CourseServiceCheck.register(checks);
+        TranscriptServiceCheck.register(checks);
+        StorageEngineCheck.register(checks);
+        BackupStoreCheck.register(checks);
+        CsvImporterCheck.register(checks);
+        System.exit(checks.run(args) ? 0 : 1);
+    }
+    
+    private boolean run(String[] filters) {
+        int passed = 0;
+        int failed = 0;
+        for (Map.Entry<String, Case> entry : cases.entrySet()) {
+            if (!selected(entry.getKey(), filters)) continue;
+            try {
+                entry.getValue().run();
+                passed++;
+                System.out.println("PASS " + entry.getKey());
+            } catch (Throwable e) {
+                failed++;
+                System.out.println("FAIL " + entry.getKey() + ": " + e);
+                e.printStackTrace(System.out);
+            }
+        }
+        System.out.printf("%d passed, %d failed%n", passed, failed);
+        return failed == 0;
+    }
+    
+    private static boolean selected(String name, String[] filters) {
+        if (filters.length == 0) return true;
+        for (String filter : filters) {
+            if (name.contains(filter)) return true;
+        }
+        return false;
+    }
+    
+    public static void assertTrue(boolean condition) {
+        assertTrue(condition, null);
+    }
+    
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) throw failure(message, "expected true");
+    }
+    
+    public static void assertFalse(boolean condition) {
+        assertFalse(condition, null);
+    }
+    
+    public static void assertFalse(boolean condition, String message) {
+        if (condition) throw failure(message, "expected false");
+    }
+    
+    public static void assertNull(Object actual) {
+        if (actual != null) throw failure(null, "expected null but was <" + actual + ">");
+    }
+    
+    public static void assertEquals(Object expected, Object actual) {
+        assertEquals(expected, actual, null);
+    }
+    
+    public static void assertEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw failure(message, "expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+    
+    public static void assertEquals(long expected, long actual) {
+        assertEquals(expected, actual, null);
+    }
+    
+    public static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) throw failure(message, "expected <" + expected + "> but was <" + actual + ">");
+    }
+    
+    public static void assertEquals(double expected, double actual, double delta) {
+        if (Math.abs(expected - actual) > delta) {
+            throw failure(null, "expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+    
+    public static void assertNotEquals(Object unexpected, Object actual) {
+        if (Objects.equals(unexpected, actual)) throw failure(null, "expected anything but <" + actual + ">");
+    }
+    
+    public static void assertThrows(Class<? extends Throwable> expected, Case action) {
+        try {
+            action.run();
+        } catch (Throwable e) {
+            if (expected.isInstance(e)) return;
+            throw failure(null, "expected " + expected.getSimpleName() + " but got " + e);
+        }
+        throw failure(null, "expected " + expected.getSimpleName() + " but nothing was thrown");
+    }
+    
+    private static AssertionError failure(String message, String detail) {
+        return new AssertionError(message != null ? message + ": " + detail : detail);
+    }
+}
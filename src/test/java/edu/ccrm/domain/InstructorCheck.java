@@ -0,0 +1,53 @@
+package edu.ccrm.domain;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class InstructorCheck {
+    
+    public static void register(Checks checks) {
+        checks.add("InstructorCheck.concurrentAssignmentsAreNeverLost",
+                   () -> new InstructorCheck().concurrentAssignmentsAreNeverLost());
+    }
+    
+    void concurrentAssignmentsAreNeverLost() throws Exception {
+        Instructor instructor = new Instructor("I1", "EMP1", new Name("Grace", "Hopper"), "grace@campus.edu",
+                                               LocalDate.of(1970, 12, 9), "Computer Science");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        instructor.assignCourse("IN" + thread + "-" + i);
+                    }
+                    // Each thread drops its odd courses again
+                    for (int i = 1; i < 100; i += 2) {
+                        instructor.unassignCourse("IN" + thread + "-" + i);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertEquals(400, instructor.getAssignedCourseCount());
+        for (int t = 0; t < 8; t++) {
+            assertTrue(instructor.isAssignedTo("IN" + t + "-0"));
+            assertFalse(instructor.isAssignedTo("IN" + t + "-1"));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package edu.ccrm.domain;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class StudentCheck {
+    
+    public static void register(Checks checks) {
+        checks.add("StudentCheck.listenersRunAfterTheMonitorIsReleased",
+                   () -> new StudentCheck().listenersRunAfterTheMonitorIsReleased());
+        checks.add("StudentCheck.concurrentEnrollmentsAndGradesAreAllKept",
+                   () -> new StudentCheck().concurrentEnrollmentsAndGradesAreAllKept());
+    }
+    
+    void listenersRunAfterTheMonitorIsReleased() throws Exception {
+        Student student = newStudent("S1");
+        CountDownLatch inListener = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Boolean> heldMonitor = new CopyOnWriteArrayList<>();
+        student.addChangeListener((person, property, oldValue, newValue) -> {
+            heldMonitor.add(Thread.holdsLock(person));
+            if (property == Person.Property.NAME) {
+                inListener.countDown();
+                awaitQuietly(release);
+            }
+        });
+        
+        Thread renamer = new Thread(() -> student.setName(new Name("Ada", "King")));
+        renamer.start();
+        assertTrue(inListener.await(10, TimeUnit.SECONDS));
+        // A slow listener (e.g. waiting on an fsync) does not hold up other setters
+        Thread emailer = new Thread(() -> student.setEmail("ada@campus.edu"));
+        emailer.start();
+        emailer.join(10_000);
+        assertFalse(emailer.isAlive(), "setter blocked behind a listener");
+        release.countDown();
+        renamer.join(10_000);
+        
+        assertEquals(List.of(false, false), heldMonitor);
+        assertEquals("King", student.getName().getLastName());
+        assertEquals("ada@campus.edu", student.getEmail());
+    }
+    
+    void concurrentEnrollmentsAndGradesAreAllKept() throws Exception {
+        Student student = newStudent("S2");
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        String courseCode = "T" + thread + "C" + i;
+                        student.enrollInCourse(courseCode);
+                        student.assignGrade(courseCode, Grade.B, 2);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertEquals(400, student.getEnrolledCourseCount());
+        assertEquals(400, student.getGrades().size());
+        assertEquals(800, student.getGradedCredits());
+        assertEquals(Grade.B.getGradePoint(), student.calculateGPA(), 1e-9);
+    }
+    
+    private static Student newStudent(String id) {
+        return new Student(id, "REG-" + id, new Name("Ada", "Lovelace"), "ada.lovelace@campus.edu",
+                           LocalDate.of(2000, 1, 1));
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
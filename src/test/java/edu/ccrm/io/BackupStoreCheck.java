@@ -0,0 +1,83 @@
+package edu.ccrm.io;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class BackupStoreCheck {
+    
+    public static void register(Checks checks) {
+        checks.add("BackupStoreCheck.unchangedAndDuplicateContentIsStoredOnce",
+                   () -> new BackupStoreCheck().unchangedAndDuplicateContentIsStoredOnce());
+        checks.add("BackupStoreCheck.totalIsReconciledWhenBackupsChangeOutsideTheStore",
+                   () -> new BackupStoreCheck().totalIsReconciledWhenBackupsChangeOutsideTheStore());
+    }
+    
+    void unchangedAndDuplicateContentIsStoredOnce() throws Exception {
+        Path directory = Files.createTempDirectory("ccrm-backup");
+        try {
+            Path exports = Files.createDirectories(directory.resolve("exports"));
+            write(exports.resolve("students.csv"), "id,name\nS1,Ada\n");
+            write(exports.resolve("copy.csv"), "id,name\nS1,Ada\n");
+            write(exports.resolve("courses.csv"), "code,title\nCS101,Programming\n");
+            BackupStore store = new BackupStore(directory.resolve("backups"));
+            
+            BackupStore.BackupSummary first = store.backup(exports, "backup_1");
+            assertEquals(3, first.getFiles());
+            assertEquals(2, first.getNewObjects());
+            assertEquals("id,name\nS1,Ada\n", Files.readString(first.getDirectory().resolve("copy.csv")));
+            
+            write(exports.resolve("courses.csv"), "code,title\nCS101,Programming\nMA101,Calculus\n");
+            BackupStore.BackupSummary second = store.backup(exports, "backup_2");
+            assertEquals(1, second.getNewObjects());
+            assertEquals(Files.size(exports.resolve("courses.csv")), second.getBytesCopied());
+            assertEquals("code,title\nCS101,Programming\n",
+                         Files.readString(first.getDirectory().resolve("courses.csv")));
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    void totalIsReconciledWhenBackupsChangeOutsideTheStore() throws Exception {
+        Path directory = Files.createTempDirectory("ccrm-backup");
+        try {
+            Path exports = Files.createDirectories(directory.resolve("exports"));
+            write(exports.resolve("students.csv"), "id,name\nS1,Ada\nS2,Carl\n");
+            Path backups = directory.resolve("backups");
+            BackupStore store = new BackupStore(backups);
+            store.backup(exports, "backup_1");
+            long total = store.totalSize();
+            assertEquals(Files.size(exports.resolve("students.csv")), total);
+            
+            // A second instance reads the recorded total
+            assertEquals(total, new BackupStore(backups).totalSize());
+            
+            // A backup copied in by hand adds its bytes; deleting it takes them away again
+            Path manual = Files.createDirectories(backups.resolve("manual"));
+            write(manual.resolve("notes.txt"), "0123456789");
+            assertEquals(total + 10, store.totalSize());
+            deleteRecursively(manual);
+            assertEquals(total, store.totalSize());
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    private static void write(Path file, String content) throws IOException {
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+    
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package edu.ccrm.io;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CsvImporterCheck {
+    
+    public static void register(Checks checks) {
+        checks.add("CsvImporterCheck.chunksSplitWhereTheTokenizerEndsRecords",
+                   () -> new CsvImporterCheck().chunksSplitWhereTheTokenizerEndsRecords());
+    }
+    
+    void chunksSplitWhereTheTokenizerEndsRecords() throws Exception {
+        StringBuilder csv = new StringBuilder("id,name,note\n");
+        for (int i = 0; i < 400; i++) {
+            if (i % 50 == 7) {
+                // A stray quote inside an unquoted field is kept as a literal
+                csv.append(i).append(",Sam,5'11\" tall\n");
+            } else if (i % 50 == 19) {
+                csv.append(i).append(",\"Lee, Jo\",\"says \"\"hi\"\"\nacross lines\"\n");
+            } else {
+                csv.append(i).append(",Student ").append(i).append(",plain\n");
+            }
+        }
+        String text = csv.toString();
+        
+        List<String> expected = new ArrayList<>();
+        CsvTokenizer tokenizer = new CsvTokenizer(text);
+        tokenizer.next();
+        while (tokenizer.next()) {
+            expected.add(tokenizer.lineNumber() + ":" + Arrays.toString(tokenizer.toArray()));
+        }
+        assertEquals(400, expected.size());
+        
+        Path file = Files.createTempFile("ccrm-import", ".csv");
+        try {
+            Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+            // Small chunks put a boundary inside and after every stray-quote row
+            for (long chunkSize : new long[] {16, 61, 97, 256, 1024}) {
+                ImportResult<String> result = new CsvImporter(chunkSize).importFile(file, true,
+                        row -> row.lineNumber() + ":" + Arrays.toString(row.toArray()));
+                assertTrue(result.getErrors().isEmpty(), chunkSize + ": " + result.getErrors());
+                assertEquals(expected, result.getRecords());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package edu.ccrm.io;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import edu.ccrm.domain.*;
+import edu.ccrm.service.CourseService;
+import edu.ccrm.service.StudentService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+public class StorageEngineCheck {
+    
+    public static void register(Checks checks) {
+        checks.add("StorageEngineCheck.setterChangeAfterEnrollmentSurvivesReplay",
+                   () -> new StorageEngineCheck().setterChangeAfterEnrollmentSurvivesReplay());
+        checks.add("StorageEngineCheck.replayKeepsTheCreditsEnrollmentsAndGradesWereRecordedWith",
+                   () -> new StorageEngineCheck().replayKeepsTheCreditsEnrollmentsAndGradesWereRecordedWith());
+        checks.add("StorageEngineCheck.snapshotRestoresRecordsAsWritten",
+                   () -> new StorageEngineCheck().snapshotRestoresRecordsAsWritten());
+        checks.add("StorageEngineCheck.replayRestoresRecordsSavesWouldRefuse",
+                   () -> new StorageEngineCheck().replayRestoresRecordsSavesWouldRefuse());
+        checks.add("StorageEngineCheck.resavingAStudentKeepsItsEnrollments",
+                   () -> new StorageEngineCheck().resavingAStudentKeepsItsEnrollments());
+    }
+    
+    void setterChangeAfterEnrollmentSurvivesReplay() throws Exception {
+        Path directory = Files.createTempDirectory("ccrm-wal");
+        try {
+            CourseService courseService = new CourseService();
+            StudentService studentService = new StudentService(courseService);
+            try (StorageEngine engine = StorageEngine.open(directory, studentService, courseService, 1_000_000)) {
+                courseService.save(new Course.Builder("CS101", "Programming").credits(4)
+                        .semester(Semester.FALL).department("Computer Science").capacity(10).build());
+                Student student = new Student("S1", "REG1", new Name("Ada", "Lovelace"), "ada@campus.edu",
+                                              LocalDate.of(2000, 1, 1));
+                studentService.save(student);
+                studentService.enrollStudent("S1", "CS101");
+                studentService.assignGrade("S1", "CS101", Grade.A);
+                // Logged as a full student record after the enrollment
+                student.setEmail("ada.lovelace@campus.edu");
+                student.setName(new Name("Ada", "King"));
+            }
+            
+            CourseService recoveredCourses = new CourseService();
+            StudentService recovered = new StudentService(recoveredCourses);
+            StorageEngine.open(directory, recovered, recoveredCourses, 1_000_000).close();
+            
+            Student student = recovered.findById("S1");
+            assertEquals("ada.lovelace@campus.edu", student.getEmail());
+            assertEquals("King", student.getName().getLastName());
+            assertTrue(student.isEnrolledIn("CS101"), "enrollment lost on replay");
+            assertEquals(Grade.A, student.getGrade("CS101"));
+            assertEquals(Grade.A.getGradePoint(), student.calculateGPA(), 1e-9);
+            assertEquals(1, recovered.getCourseHeadcount("CS101"));
+            assertEquals(1, recovered.getSeatsTaken("CS101"));
+            assertEquals(4, recovered.getSemesterCredits("S1", Semester.FALL));
+            assertEquals(1, recovered.topByGpa(10).size());
+            assertTrue(recovered.verifyAggregates().isEmpty(), recovered.verifyAggregates().toString());
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    void replayKeepsTheCreditsEnrollmentsAndGradesWereRecordedWith() throws Exception {
+        CourseService courseService = new CourseService();
+        StudentService studentService = new StudentService(courseService);
+        // The course has changed since the enrollment and grade below were logged
+        courseService.save(new Course.Builder("CS201", "Data Structures").credits(2).semester(Semester.SPRING).build());
+        studentService.save(new Student("S1", "REG1", new Name("Ada", "Lovelace"), "ada@campus.edu",
+                                        LocalDate.of(2000, 1, 1)));
+        
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        log.write(WalRecords.enrolled("S1", "CS201", Semester.FALL, 4));
+        log.write(WalRecords.gradeAssigned("S1", "CS201", Grade.A, 4));
+        long applied = WalRecords.replay(new DataInputStream(new ByteArrayInputStream(log.toByteArray())),
+                                         studentService, courseService);
+        
+        Student student = studentService.findById("S1");
+        assertEquals(2, applied);
+        assertEquals(4, student.getChargedCredits("CS201"));
+        assertEquals(Semester.FALL, student.getChargedSemester("CS201"));
+        assertEquals(4, studentService.getSemesterCredits("S1", Semester.FALL));
+        assertEquals(0, studentService.getSemesterCredits("S1", Semester.SPRING));
+        assertEquals(4, student.getGradedCredits());
+    }
+    
+    void snapshotRestoresRecordsAsWritten() throws Exception {
+        CourseService courseService = new CourseService();
+        StudentService studentService = new StudentService(courseService);
+        Course course = new Course.Builder("CS201", "Data Structures").credits(4).semester(Semester.FALL).build();
+        courseService.save(course);
+        // Neither would pass saveAll()'s validation
+        courseService.restore(new Course.Builder("SEM0", "Seminar").build());
+        studentService.restore(new Student("S1", "REG1", new Name("Ada", "Lovelace"), "no-at-sign",
+                                           LocalDate.of(2000, 1, 1)));
+        studentService.enrollStudent("S1", "CS201");
+        studentService.assignGrade("S1", "CS201", Grade.B);
+        course.setCredits(2);
+        course.setSemester(Semester.SPRING);
+        
+        Path file = Files.createTempFile("ccrm-snapshot", ".bin");
+        try {
+            SnapshotFile.write(file, studentService, courseService);
+            CourseService recoveredCourses = new CourseService();
+            StudentService recovered = new StudentService(recoveredCourses);
+            SnapshotFile.read(file, recovered, recoveredCourses);
+            
+            assertEquals(0, recoveredCourses.findById("SEM0").getCredits());
+            Student student = recovered.findById("S1");
+            assertEquals("no-at-sign", student.getEmail());
+            assertEquals(Grade.B, student.getGrade("CS201"));
+            assertEquals(4, student.getCreditsForCourse("CS201"));
+            assertEquals(4, student.getChargedCredits("CS201"));
+            assertEquals(4, recovered.getSemesterCredits("S1", Semester.FALL));
+            assertEquals(0, recovered.getSemesterCredits("S1", Semester.SPRING));
+        } finally {
+            Files.delete(file);
+        }
+    }
+    
+    void replayRestoresRecordsSavesWouldRefuse() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        log.write(WalRecords.courseSaved(new Course.Builder("SEM0", "Seminar").build()));
+        log.write(WalRecords.studentSaved(new Student("S1", "REG1", new Name("Ada", "Lovelace"), "no-at-sign",
+                                                      LocalDate.of(2000, 1, 1))));
+        
+        CourseService courseService = new CourseService();
+        StudentService studentService = new StudentService(courseService);
+        WalRecords.replay(new DataInputStream(new ByteArrayInputStream(log.toByteArray())),
+                          studentService, courseService);
+        
+        assertEquals(0, courseService.findById("SEM0").getCredits());
+        assertEquals("no-at-sign", studentService.findById("S1").getEmail());
+    }
+    
+    void resavingAStudentKeepsItsEnrollments() throws Exception {
+        CourseService courseService = new CourseService();
+        StudentService studentService = new StudentService(courseService);
+        courseService.save(new Course.Builder("MA101", "Calculus").credits(3).semester(Semester.SPRING).build());
+        studentService.save(new Student("S2", "REG2", new Name("Carl", "Gauss"), "carl@campus.edu",
+                                        LocalDate.of(2001, 4, 30)));
+        studentService.enrollStudent("S2", "MA101");
+        
+        studentService.save(new Student("S2", "REG2", new Name("Carl", "Gauss"), "gauss@campus.edu",
+                                        LocalDate.of(2001, 4, 30)));
+        
+        Student student = studentService.findById("S2");
+        assertEquals("gauss@campus.edu", student.getEmail());
+        assertTrue(student.isEnrolledIn("MA101"));
+        assertEquals(1, studentService.getEnrolledStudents("MA101").size());
+        assertTrue(studentService.verifyAggregates().isEmpty());
+    }
+    
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package edu.ccrm.service;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import edu.ccrm.domain.Course;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class CourseServiceCheck {
+    private final CourseService courseService = new CourseService();
+    
+    public static void register(Checks checks) {
+        checks.add("CourseServiceCheck.concurrentSavesOfOneCodeLeaveOnlyTheWinnerIndexed",
+                   () -> new CourseServiceCheck().concurrentSavesOfOneCodeLeaveOnlyTheWinnerIndexed());
+    }
+    
+    void concurrentSavesOfOneCodeLeaveOnlyTheWinnerIndexed() throws Exception {
+        int writers = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            for (int round = 0; round < 500; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Course> saved = new ArrayList<>();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    Course course = new Course.Builder("CS101", "Programming").credits(3)
+                            .department("Dept" + w).instructor("I" + w).build();
+                    saved.add(course);
+                    futures.add(pool.submit(() -> {
+                        start.await();
+                        courseService.save(course);
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                
+                Course winner = courseService.findById("CS101");
+                for (Course course : saved) {
+                    if (course != winner) {
+                        // A replaced course no longer reaches the indexes
+                        course.setDepartment("Stale");
+                    }
+                }
+                assertTrue(courseService.findByDepartment("Stale").isEmpty(), "replaced course still listened to");
+                for (int w = 0; w < writers; w++) {
+                    List<Course> expected = saved.get(w) == winner ? List.of(winner) : List.of();
+                    assertEquals(expected, courseService.findByDepartment("Dept" + w), "round " + round);
+                    assertEquals(expected, courseService.findByInstructor("I" + w), "round " + round);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package edu.ccrm.service;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import edu.ccrm.domain.*;
+import edu.ccrm.util.ValidationException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class StudentServiceCheck {
+    private final CourseService courseService = new CourseService();
+    private final StudentService studentService = new StudentService(courseService);
+    
+    public static void register(Checks checks) {
+        checks.add("StudentServiceCheck.dropRefundsWhatTheEnrollmentWasCharged",
+                   () -> new StudentServiceCheck().dropRefundsWhatTheEnrollmentWasCharged());
+        checks.add("StudentServiceCheck.resavedStudentKeepsItsCreditCharges",
+                   () -> new StudentServiceCheck().resavedStudentKeepsItsCreditCharges());
+        checks.add("StudentServiceCheck.enrollingAWaitlistedStudentTakesThemOffTheWaitlist",
+                   () -> new StudentServiceCheck().enrollingAWaitlistedStudentTakesThemOffTheWaitlist());
+        checks.add("StudentServiceCheck.contendedSectionNeverHasAStudentBothEnrolledAndWaiting",
+                   () -> new StudentServiceCheck().contendedSectionNeverHasAStudentBothEnrolledAndWaiting());
+        checks.add("StudentServiceCheck.bulkGradingCountsOnlyStudentsStillEnrolled",
+                   () -> new StudentServiceCheck().bulkGradingCountsOnlyStudentsStillEnrolled());
+        checks.add("StudentServiceCheck.concurrentWorkloadWithCourseChangesStaysConsistent",
+                   () -> new StudentServiceCheck().concurrentWorkloadWithCourseChangesStaysConsistent());
+        checks.add("StudentServiceCheck.onlyOneConcurrentCreateOfAnIdSucceeds",
+                   () -> new StudentServiceCheck().onlyOneConcurrentCreateOfAnIdSucceeds());
+        checks.add("StudentServiceCheck.mutationsRacingAResaveLandOnTheStoredStudent",
+                   () -> new StudentServiceCheck().mutationsRacingAResaveLandOnTheStoredStudent());
+        checks.add("StudentServiceCheck.droppingACourseNotTakenIsNotLogged",
+                   () -> new StudentServiceCheck().droppingACourseNotTakenIsNotLogged());
+        checks.add("StudentServiceCheck.saveAppliesTheSameRulesAsSaveAll",
+                   () -> new StudentServiceCheck().saveAppliesTheSameRulesAsSaveAll());
+        checks.add("StudentServiceCheck.readersSeeABatchWholeOrNotAtAll",
+                   () -> new StudentServiceCheck().readersSeeABatchWholeOrNotAtAll());
+    }
+    
+    void dropRefundsWhatTheEnrollmentWasCharged() throws Exception {
+        Course course = new Course.Builder("PH201", "Mechanics").credits(6).semester(Semester.SPRING).build();
+        courseService.save(course);
+        addStudent("S1");
+        studentService.enrollStudent("S1", "PH201", 24);
+        assertEquals(6, studentService.getSemesterCredits("S1", Semester.SPRING));
+        
+        course.setSemester(Semester.SUMMER);
+        course.setCredits(3);
+        studentService.unenrollStudent("S1", "PH201");
+        assertEquals(0, studentService.getSemesterCredits("S1", Semester.SPRING));
+        assertEquals(0, studentService.getSemesterCredits("S1", Semester.SUMMER));
+        
+        // Enrolling again charges the course as it is now
+        studentService.enrollStudent("S1", "PH201", 24);
+        assertEquals(0, studentService.getSemesterCredits("S1", Semester.SPRING));
+        assertEquals(3, studentService.getSemesterCredits("S1", Semester.SUMMER));
+    }
+    
+    void resavedStudentKeepsItsCreditCharges() throws Exception {
+        courseService.save(new Course.Builder("PH201", "Mechanics").credits(6).semester(Semester.FALL).build());
+        addStudent("S1");
+        studentService.enrollStudent("S1", "PH201", 24);
+        
+        addStudent("S1");
+        Student resaved = studentService.findById("S1");
+        assertEquals(6, resaved.getChargedCredits("PH201"));
+        assertEquals(Semester.FALL, resaved.getChargedSemester("PH201"));
+        assertEquals(6, studentService.getSemesterCredits("S1", Semester.FALL));
+        
+        studentService.unenrollStudent("S1", "PH201");
+        assertEquals(0, studentService.getSemesterCredits("S1", Semester.FALL));
+    }
+    
+    void enrollingAWaitlistedStudentTakesThemOffTheWaitlist() throws Exception {
+        courseService.save(new Course.Builder("CH101", "Chemistry").credits(3).capacity(1).build());
+        addStudent("S1");
+        addStudent("S2");
+        assertTrue(studentService.enrollOrWaitlist("S1", "CH101"));
+        assertFalse(studentService.enrollOrWaitlist("S2", "CH101"));
+        assertEquals(List.of("S2"), studentService.getWaitlist("CH101"));
+        
+        // Any path that records the enrollment takes them off the line, here the replay path; a
+        // promotion racing the student rejoining reaches the same point
+        studentService.restoreEnrollment("S2", "CH101");
+        assertTrue(studentService.getWaitlist("CH101").isEmpty());
+        assertFalse(studentService.leaveWaitlist("S2", "CH101"));
+        
+        studentService.unenrollStudent("S1", "CH101");
+        assertEquals(1, studentService.getCourseHeadcount("CH101"));
+        assertEquals(1, studentService.getSeatsTaken("CH101"));
+        assertTrue(studentService.findById("S2").isEnrolledIn("CH101"));
+    }
+    
+    void contendedSectionNeverHasAStudentBothEnrolledAndWaiting() throws Exception {
+        courseService.save(new Course.Builder("BI101", "Biology").credits(3).capacity(4).build());
+        for (int i = 0; i < 32; i++) {
+            addStudent("S" + i);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                tasks.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 2_000; i++) {
+                        String studentId = "S" + random.nextInt(32);
+                        try {
+                            if (random.nextBoolean()) {
+                                studentService.enrollOrWaitlist(studentId, "BI101");
+                            } else {
+                                studentService.unenrollStudent(studentId, "BI101");
+                            }
+                        } catch (ValidationException e) {
+                            // Already enrolled or not enrolled
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        for (String studentId : studentService.getWaitlist("BI101")) {
+            assertFalse(studentService.findById(studentId).isEnrolledIn("BI101"), studentId + " enrolled and waitlisted");
+        }
+        int headcount = studentService.getCourseHeadcount("BI101");
+        assertTrue(headcount <= 4, "overbooked: " + headcount);
+        assertEquals(headcount, studentService.getSeatsTaken("BI101"));
+    }
+    
+    void bulkGradingCountsOnlyStudentsStillEnrolled() throws Exception {
+        courseService.save(new Course.Builder("EN101", "Composition").credits(3).build());
+        addStudent("S1");
+        addStudent("S2");
+        studentService.enrollStudent("S1", "EN101");
+        studentService.enrollStudent("S2", "EN101");
+        studentService.unenrollStudent("S2", "EN101");
+        
+        Map<String, Grade> grades = new HashMap<>();
+        grades.put("S1", Grade.B);
+        grades.put("S2", Grade.A);
+        assertEquals(1, studentService.assignGrades("EN101", grades));
+        assertEquals(Grade.B, studentService.findById("S1").getGrade("EN101"));
+        assertNull(studentService.findById("S2").getGrade("EN101"));
+    }
+    
+    void concurrentWorkloadWithCourseChangesStaysConsistent() throws Exception {
+        String[] courseCodes = new String[12];
+        for (int i = 0; i < courseCodes.length; i++) {
+            courseCodes[i] = "ST" + i;
+            courseService.save(new Course.Builder(courseCodes[i], "Stress " + i).credits(1 + i % 4)
+                    .semester(Semester.values()[i % Semester.values().length]).build());
+        }
+        String[] givenNames = {"Alpha", "Bravo", "Charlie", "Delta"};
+        String[] studentIds = new String[8];
+        for (int i = 0; i < studentIds.length; i++) {
+            studentIds[i] = addStudent("H" + i).getId();
+        }
+        
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int seed = t;
+                tasks.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        String studentId = studentIds[random.nextInt(studentIds.length)];
+                        String courseCode = courseCodes[random.nextInt(courseCodes.length)];
+                        try {
+                            switch (random.nextInt(6)) {
+                                case 0:
+                                case 1:
+                                    studentService.enrollStudent(studentId, courseCode, 12);
+                                    break;
+                                case 2:
+                                    studentService.unenrollStudent(studentId, courseCode);
+                                    break;
+                                case 3:
+                                    studentService.assignGrade(studentId, courseCode, Grade.values()[random.nextInt(5)]);
+                                    break;
+                                case 4:
+                                    studentService.findById(studentId).setName(
+                                            new Name(givenNames[random.nextInt(givenNames.length)], studentId));
+                                    break;
+                                default:
+                                    Course course = courseService.findById(courseCode);
+                                    if (random.nextBoolean()) {
+                                        course.setCredits(1 + random.nextInt(4));
+                                    } else {
+                                        course.setSemester(Semester.values()[random.nextInt(Semester.values().length)]);
+                                    }
+                                    break;
+                            }
+                        } catch (ValidationException e) {
+                            // Duplicate, credit limit or not enrolled: rejected
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        assertTrue(studentService.verifyAggregates().isEmpty(), studentService.verifyAggregates().toString());
+        for (Semester semester : Semester.values()) {
+            for (Course course : courseService.findBySemester(semester)) {
+                assertEquals(semester, course.getSemester(), course.getCode() + " filed under a stale semester");
+            }
+        }
+        for (String givenName : givenNames) {
+            for (Student student : studentService.searchText(givenName, 100)) {
+                assertEquals(givenName, student.getName().getFirstName(), student.getId() + " found by a stale name");
+            }
+        }
+        
+        // Whatever the courses say now, dropping everything refunds every charge exactly
+        for (String studentId : studentIds) {
+            for (String courseCode : studentService.findById(studentId).getEnrolledCourses()) {
+                studentService.unenrollStudent(studentId, courseCode);
+            }
+            for (Semester semester : Semester.values()) {
+                assertEquals(0, studentService.getSemesterCredits(studentId, semester), studentId + " in " + semester);
+            }
+        }
+        for (String courseCode : courseCodes) {
+            assertEquals(0, studentService.getCourseHeadcount(courseCode));
+            assertEquals(0, studentService.getSeatsTaken(courseCode));
+        }
+    }
+    
+    void onlyOneConcurrentCreateOfAnIdSucceeds() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> creates = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String email = "new" + t + "@campus.edu";
+                creates.add(pool.submit(() -> studentService.saveIfAbsent(
+                        new Student("N1", "REG-N1", new Name("New", "Student"), email, LocalDate.of(2000, 1, 1)))));
+            }
+            int created = 0;
+            for (Future<Boolean> create : creates) {
+                created += create.get(60, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertEquals(1, created);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, studentService.searchText("New", 10).size());
+    }
+    
+    void mutationsRacingAResaveLandOnTheStoredStudent() throws Exception {
+        int courseCount = 100;
+        for (int c = 0; c < courseCount; c++) {
+            courseService.save(new Course.Builder("R" + c, "Race " + c).credits(1).build());
+        }
+        addStudent("S1");
+        
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> resaves = pool.submit(() -> {
+                // Each save replaces the stored instance with a fresh copy
+                while (!Thread.currentThread().isInterrupted()) {
+                    addStudent("S1");
+                }
+                return null;
+            });
+            for (int c = 0; c < courseCount; c++) {
+                studentService.enrollStudent("S1", "R" + c, 1_000);
+                studentService.assignGrade("S1", "R" + c, Grade.A);
+                if (c % 2 == 1) {
+                    studentService.unenrollStudent("S1", "R" + c);
+                }
+            }
+            resaves.cancel(true);
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        
+        Student student = studentService.findById("S1");
+        assertEquals(courseCount / 2, student.getEnrolledCourseCount());
+        assertEquals(courseCount / 2, student.getGradedCourseCount());
+        for (int c = 0; c < courseCount; c++) {
+            assertEquals(c % 2 == 0, student.isEnrolledIn("R" + c), "R" + c);
+        }
+        assertEquals(courseCount / 2, studentService.getSemesterCredits("S1", null));
+        assertTrue(studentService.verifyAggregates().isEmpty(), studentService.verifyAggregates().toString());
+    }
+    
+    void droppingACourseNotTakenIsNotLogged() throws Exception {
+        courseService.save(new Course.Builder("CS101", "Programming").credits(3).build());
+        addStudent("S1");
+        List<String> logged = new ArrayList<>();
+        studentService.setMutationLog(new MutationLog() {
+            @Override
+            public long unenrolled(String studentId, String courseCode) {
+                logged.add(studentId + "/" + courseCode);
+                return logged.size();
+            }
+        });
+        
+        studentService.unenrollStudent("S1", "CS101");
+        assertTrue(logged.isEmpty(), logged.toString());
+        
+        studentService.enrollStudent("S1", "CS101");
+        studentService.unenrollStudent("S1", "CS101");
+        assertEquals(List.of("S1/CS101"), logged);
+    }
+    
+    void saveAppliesTheSameRulesAsSaveAll() throws Exception {
+        Student student = new Student("S1", "REG1", new Name("Ada", "Lovelace"), "no-at-sign", LocalDate.of(2000, 1, 1));
+        Course course = new Course.Builder("SEM0", "Seminar").build();
+        
+        assertEquals(1, studentService.saveAll(List.of(student)).getRejections().size());
+        assertEquals(1, courseService.saveAll(List.of(course)).getRejections().size());
+        assertThrows(IllegalArgumentException.class, () -> studentService.save(student));
+        assertThrows(IllegalArgumentException.class, () -> studentService.saveIfAbsent(student));
+        assertThrows(IllegalArgumentException.class, () -> courseService.save(course));
+        assertThrows(IllegalArgumentException.class, () -> courseService.saveIfAbsent(course));
+        assertFalse(studentService.exists("S1"));
+        assertFalse(courseService.exists("SEM0"));
+    }
+    
+    void readersSeeABatchWholeOrNotAtAll() throws Exception {
+        int batchSize = 20_000;
+        List<Course> courses = new ArrayList<>();
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            courses.add(new Course.Builder("B" + i, "Batch " + i).credits(3).department("Physics").build());
+            students.add(new Student("B" + i, "REG-B" + i, new Name("Batch", "Student" + i), "b" + i + "@campus.edu",
+                                     LocalDate.of(2000, 1, 1)));
+        }
+        
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> writer = pool.submit(() -> {
+                courseService.saveAll(courses);
+                studentService.saveAll(students);
+                return null;
+            });
+            while (!writer.isDone()) {
+                int inDepartment = courseService.findByDepartment("Physics").size();
+                assertTrue(inDepartment == 0 || inDepartment == batchSize, "partial course batch: " + inDepartment);
+                int stored = studentService.findAll().size();
+                assertTrue(stored == 0 || stored == batchSize, "partial student batch: " + stored);
+                // The last student written implies the first
+                assertTrue(studentService.findById("B" + (batchSize - 1)) == null || studentService.exists("B0"));
+            }
+            writer.get();
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, studentService.findByRegNo("REG-B7").size());
+    }
+    
+    private Student addStudent(String id) throws IOException {
+        Student student = new Student(id, "REG-" + id, new Name("Test", id), id.toLowerCase() + "@campus.edu",
+                                      LocalDate.of(2000, 1, 1));
+        studentService.save(student);
+        return student;
+    }
+}
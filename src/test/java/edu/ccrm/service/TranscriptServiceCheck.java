@@ -0,0 +1,86 @@
+package edu.ccrm.service;
+
+import static edu.ccrm.Checks.*;
+
+import edu.ccrm.Checks;
+import edu.ccrm.domain.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+public class TranscriptServiceCheck {
+    private final CourseService courseService = new CourseService();
+    private final StudentService studentService = new StudentService(courseService);
+    private final TranscriptService transcriptService = new TranscriptService(studentService, courseService);
+    
+    public static void register(Checks checks) {
+        checks.add("TranscriptServiceCheck.idsThatSanitizeAlikeGetTheirOwnFiles",
+                   () -> new TranscriptServiceCheck().idsThatSanitizeAlikeGetTheirOwnFiles());
+        checks.add("TranscriptServiceCheck.combinedTranscriptsCountStudentsThatCannotBeRendered",
+                   () -> new TranscriptServiceCheck().combinedTranscriptsCountStudentsThatCannotBeRendered());
+    }
+    
+    void idsThatSanitizeAlikeGetTheirOwnFiles() throws Exception {
+        for (String id : new String[] {"A/1", "A:1", "A_1"}) {
+            studentService.save(newStudent(id));
+        }
+        assertEquals("A_1.txt", TranscriptService.fileNameFor("A_1"));
+        assertNotEquals(TranscriptService.fileNameFor("A/1"), TranscriptService.fileNameFor("A:1"));
+        
+        Path directory = Files.createTempDirectory("ccrm-transcripts");
+        try {
+            TranscriptService.BatchResult result = transcriptService.writeTranscriptFiles(student -> true, directory, 2);
+            assertEquals(3, result.getTranscripts());
+            assertEquals(0, result.getFailed());
+            try (Stream<Path> files = Files.list(directory)) {
+                assertEquals(3, files.count());
+            }
+            assertTrue(Files.readString(directory.resolve(TranscriptService.fileNameFor("A/1"))).contains("(A/1)"));
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    void combinedTranscriptsCountStudentsThatCannotBeRendered() throws Exception {
+        AtomicBoolean broken = new AtomicBoolean();
+        studentService.save(newStudent("S1"));
+        studentService.save(new Student("S2", "REG-S2", new Name("Broken", "Record"), "s2@campus.edu",
+                                        LocalDate.of(2000, 1, 1)) {
+            @Override
+            public String getRegNo() {
+                if (broken.get()) throw new IllegalStateException("unreadable record");
+                return super.getRegNo();
+            }
+        });
+        studentService.save(newStudent("S3"));
+        broken.set(true);
+        
+        Path directory = Files.createTempDirectory("ccrm-transcripts");
+        try {
+            Path file = directory.resolve("all.txt");
+            TranscriptService.BatchResult result = transcriptService.writeCombinedTranscripts(student -> true, file, 2);
+            assertEquals(2, result.getTranscripts());
+            assertEquals(1, result.getFailed());
+            String combined = Files.readString(file);
+            assertTrue(combined.contains("(S1)") && combined.contains("(S3)"));
+            assertFalse(combined.contains("(S2)"));
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+    
+    private static Student newStudent(String id) {
+        return new Student(id, "REG-" + id, new Name("Test", "Student"), "student@campus.edu", LocalDate.of(2000, 1, 1));
+    }
+    
+    private static void deleteRecursively(Path directory) throws Exception {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}